@@ -0,0 +1,267 @@
+package benchmark;
+
+import gamemanager.GameMath;
+import gamemanager.GameRandom;
+import gamemanager.MovementKernel;
+import java.util.Arrays;
+
+/**
+ * Measures how fast entities can be moved one object at a time, the way Enemy
+ * and Bullet move, compared to the MovementKernel's arrays, and prints one CSV
+ * row per path. Both paths move the same entities from the same starting
+ * positions, and are checked to end up in the same places.
+ *
+ * The columns are:
+ * <ul>
+ * <li>kernel: steer (point at the goal and move), or bounds (flag entities
+ *     outside the map).</li>
+ * <li>path: objects or arrays.</li>
+ * <li>entities, rounds: the size of the run.</li>
+ * <li>best_ns_per_entity, median_ns_per_entity: time per entity per round.</li>
+ * <li>speedup: the objects path's median divided by this path's median.</li>
+ * </ul>
+ *
+ * Run it with:
+ *
+ *      java benchmark.KernelBenchmark --entities 100000 --rounds 200
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class KernelBenchmark {
+
+
+    /** The CSV header. */
+    private static final String HEADER = "kernel,path,entities,rounds,"
+            + "best_ns_per_entity,median_ns_per_entity,speedup";
+
+
+    /** The size of the map the entities are on. */
+    private static final int WIDTH = 800, HEIGHT = 600;
+
+
+    /** The kernels that are timed. */
+    private static final int STEER = 0, BOUNDS = 1;
+
+
+    /** The settings for the run. */
+    private int entities = 100000, rounds = 200, warmup = 50;
+
+
+    /**
+     * An entity the way the game keeps them: one object each, with its own
+     * slope array.
+     */
+    private static final class Mover {
+        double x, y, goalX, goalY, speed;
+        final double[] slope = new double[2];
+    }
+
+
+    /** The object path's entities. */
+    private Mover[] movers;
+
+
+    /** The kernel paths' entities, one array per field. */
+    private double[] x, y, goalX, goalY, speed, velX, velY;
+    private byte[] outside;
+
+
+    /** The starting positions, copied back in before every round. */
+    private double[] startX, startY;
+
+
+    /** Keeps the JIT compiler from throwing away results nobody reads. */
+    private double sink = 0;
+
+
+    /** The amount of entities the last bounds round found outside. */
+    private int outsideCount;
+
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args  See the class description.
+     */
+    public static void main(String[] args) {
+        KernelBenchmark benchmark = new KernelBenchmark();
+        benchmark.parse(args);
+        benchmark.setup();
+        benchmark.runAll();
+    }
+
+
+    /**
+     * Reads the command line options.
+     */
+    private void parse(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--entities":  entities = Integer.parseInt(value); break;
+                case "--rounds":    rounds = Integer.parseInt(value); break;
+                case "--warmup":    warmup = Integer.parseInt(value); break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: "+args[i]);
+            }
+        }
+    }
+
+
+    /**
+     * Places the entities. A tenth of them start just off the map so the
+     * bounds kernel has something to find.
+     */
+    private void setup() {
+        GameRandom random = new GameRandom(42);
+
+        startX  = new double[entities];
+        startY  = new double[entities];
+        goalX   = new double[entities];
+        goalY   = new double[entities];
+        speed   = new double[entities];
+        x       = new double[entities];
+        y       = new double[entities];
+        velX    = new double[entities];
+        velY    = new double[entities];
+        outside = new byte[entities];
+        movers  = new Mover[entities];
+
+        for (int i = 0; i < entities; i++) {
+            boolean off = random.nextInt(10) == 0;
+            startX[i]   = off ? -10 - random.nextInt(50) : 1 + random.nextInt(WIDTH - 2);
+            startY[i]   = 1 + random.nextInt(HEIGHT - 2);
+            goalX[i]    = random.nextInt(WIDTH);
+            goalY[i]    = random.nextInt(HEIGHT);
+            speed[i]    = 2 + random.nextInt(4);
+
+            Mover m     = new Mover();
+            m.goalX     = goalX[i];
+            m.goalY     = goalY[i];
+            m.speed     = speed[i];
+            movers[i]   = m;
+        }
+    }
+
+
+    /**
+     * Times each kernel on both paths, checks that they agree, and prints the
+     * rows.
+     */
+    private void runAll() {
+        System.out.println(HEADER);
+        runSteer();
+        runBounds();
+        System.out.println("# sink "+sink);
+    }
+
+
+    /**
+     * Times the steer kernel on both paths.
+     */
+    private void runSteer() {
+        double[] objects = measure(STEER, false);
+        double[] endX = new double[entities], endY = new double[entities];
+        for (int i = 0; i < entities; i++) {
+            endX[i] = movers[i].x;
+            endY[i] = movers[i].y;
+        }
+
+        double[] arrays = measure(STEER, true);
+
+        // The two scale directions with different arithmetic, so they only
+        // agree to within rounding.
+        for (int i = 0; i < entities; i++) {
+            if (Math.abs(endX[i] - x[i]) > 1e-9 || Math.abs(endY[i] - y[i]) > 1e-9) {
+                throw new IllegalStateException("The objects and arrays disagree on entity "+i+".");
+            }
+        }
+
+        print("steer", "objects", objects, objects);
+        print("steer", "arrays", arrays, objects);
+    }
+
+
+    /**
+     * Times the bounds kernel on both paths.
+     */
+    private void runBounds() {
+        double[] objects = measure(BOUNDS, false);
+        int expected = outsideCount;
+        double[] arrays = measure(BOUNDS, true);
+
+        if (outsideCount != expected) {
+            throw new IllegalStateException("The objects found "+expected
+                    +" entities outside, but the arrays found "+outsideCount+".");
+        }
+
+        print("bounds", "objects", objects, objects);
+        print("bounds", "arrays", arrays, objects);
+    }
+
+
+    /**
+     * Times a kernel on one path.
+     *
+     * @param kernel    STEER or BOUNDS.
+     * @param arrays    True for the kernel's arrays, false for the objects.
+     * @return          The best and median times in nanoseconds per entity.
+     */
+    private double[] measure(int kernel, boolean arrays) {
+        long[] times = new long[rounds];
+
+        for (int round = -warmup; round < rounds; round++) {
+            reset();
+            long start = System.nanoTime();
+
+            if (kernel == STEER && arrays) {
+                MovementKernel.steer(x, y, goalX, goalY, speed, velX, velY, entities);
+                MovementKernel.integrate(x, y, velX, velY, 1, entities);
+            } else if (kernel == STEER) {
+                for (Mover m : movers) {
+                    GameMath.calculateSlope(m.x, m.goalX, m.y, m.goalY, m.speed, m.slope);
+                    m.x += m.slope[1];
+                    m.y += m.slope[0];
+                }
+            } else if (arrays) {
+                outsideCount = MovementKernel.flagOutside(x, y, WIDTH, HEIGHT, outside, entities);
+            } else {
+                int total = 0;
+                for (Mover m : movers) {
+                    if (m.x <= 0 || m.x >= WIDTH || m.y <= 0 || m.y >= HEIGHT) total++;
+                }
+                outsideCount = total;
+            }
+
+            long elapsed = System.nanoTime() - start;
+            if (round >= 0) times[round] = elapsed;
+        }
+
+        sink += x[entities / 2] + movers[entities / 2].x;
+        Arrays.sort(times);
+        return new double[]{(double)times[0] / entities, (double)times[rounds / 2] / entities};
+    }
+
+
+    /**
+     * Puts every entity back at its starting position.
+     */
+    private void reset() {
+        System.arraycopy(startX, 0, x, 0, entities);
+        System.arraycopy(startY, 0, y, 0, entities);
+        for (int i = 0; i < entities; i++) {
+            movers[i].x = startX[i];
+            movers[i].y = startY[i];
+        }
+    }
+
+
+    /**
+     * Prints a row.
+     */
+    private void print(String kernel, String path, double[] time, double[] objects) {
+        System.out.printf("%s,%s,%d,%d,%.3f,%.3f,%.2f%n", kernel, path, entities, rounds,
+                            time[0], time[1], objects[1] / time[1]);
+    }
+}
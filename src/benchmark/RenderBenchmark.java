@@ -0,0 +1,304 @@
+package benchmark;
+
+import gamemanager.Assets;
+import gamemanager.EnemyArchetype;
+import gamemanager.GameRandom;
+import gamemanager.ParticleSystem;
+import gamemanager.Settings;
+import gamemanager.Viewport;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+import players.Enemy;
+
+/**
+ * Measures what the scene graph costs per frame as the amount of entities
+ * grows. StressHarness only measures the game's logic; this fills the world
+ * the way the GameManager does, with an ImageView for every enemy, corpse and
+ * bullet, and times each part of drawing a frame:
+ * <ul>
+ * <li>update_ms: moving every entity's node, like an update does.</li>
+ * <li>css_ms: Node.applyCss() on the whole scene.</li>
+ * <li>layout_ms: Parent.layout() on the whole scene.</li>
+ * <li>render_ms: drawing the scene into an image with Scene.snapshot(), which
+ *     is the drawing a pulse does, without waiting for the screen. Below a
+ *     render_scale of 1 this includes the Viewport drawing the world into its
+ *     smaller image first.</li>
+ * </ul>
+ * Each is the mean over the measured frames, and pulse_p50_ms and pulse_p99_ms
+ * are the times of whole frames. The frames are run back to back, not at 60
+ * per second.
+ *
+ * It runs without a display or a graphics card on JavaFX's Monocle headless
+ * platform and the software renderer, which must be on the class path; give
+ * --platform default to use the normal platform instead. For example:
+ *
+ *      java -cp .:openjfx-monocle.jar benchmark.RenderBenchmark
+ *                                   --enemies 100,1000,5000,10000,20000
+ *                                   --bullets 100 --corpses 0.25 --scales 1,0.5
+ *                                   --frames 300 --warmup 60 --out render.csv
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class RenderBenchmark extends Application {
+
+
+    /** The CSV header. */
+    private static final String HEADER = "enemies,corpses,bullets,nodes,render_scale,frames,"
+            + "update_ms,css_ms,layout_ms,render_ms,pulse_p50_ms,pulse_p99_ms";
+
+
+    /** The parts of a frame, in the order of the CSV. */
+    private static final int UPDATE = 0, CSS = 1, LAYOUT = 2, RENDER = 3;
+
+
+    /** The settings for all runs. */
+    private int[] enemyCounts = {100, 1000, 5000, 10000, 20000};
+    private double[] renderScales = {1};
+    private int bullets = 100, frames = 300, warmup = 60;
+    private double corpses = 0.25;
+    private String out = null;
+
+
+    /**
+     * Picks the headless platform unless told not to, then starts JavaFX,
+     * which calls start().
+     *
+     * @param args  See the class description.
+     */
+    public static void main(String[] args) {
+        boolean headless = true;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--platform")) headless = args[i + 1].equals("headless");
+        }
+
+        // These have to be set before JavaFX starts.
+        if (headless) {
+            System.setProperty("glass.platform", "Monocle");
+            System.setProperty("monocle.platform", "Headless");
+            System.setProperty("prism.order", "sw");
+        }
+        launch(args);
+    }
+
+
+    /**
+     * Runs every size on the JavaFX thread, then exits.
+     */
+    @Override
+    public void start(Stage stage) {
+        try {
+            parse(getParameters().getRaw());
+            runAll();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("RenderBenchmark:\t"+e);
+        } finally {
+            Platform.exit();
+        }
+    }
+
+
+    /**
+     * Reads the command line options.
+     */
+    private void parse(List<String> args) {
+        for (int i = 0; i + 1 < args.size(); i += 2) {
+            String value = args.get(i + 1);
+            switch (args.get(i)) {
+                case "--enemies":   enemyCounts = parseList(value); break;
+                case "--scales":    renderScales = parseScales(value); break;
+                case "--bullets":   bullets = Integer.parseInt(value); break;
+                case "--corpses":   corpses = Double.parseDouble(value); break;
+                case "--frames":    frames = Integer.parseInt(value); break;
+                case "--warmup":    warmup = Integer.parseInt(value); break;
+                case "--out":       out = value; break;
+                case "--platform":  break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: "+args.get(i));
+            }
+        }
+
+        if (frames < 1) throw new IllegalArgumentException("--frames must be at least 1: "+frames);
+        if (warmup < 0) throw new IllegalArgumentException("--warmup can't be negative: "+warmup);
+    }
+
+
+    /**
+     * Runs every size and prints the CSV.
+     */
+    private void runAll() throws IOException {
+        PrintWriter writer = out == null
+                ? new PrintWriter(System.out, true)
+                : new PrintWriter(new FileWriter(out));
+
+        writer.println(HEADER);
+        for (int enemies : enemyCounts) {
+            for (double scale : renderScales) {
+                writer.println(run(enemies, scale));
+                writer.flush();
+            }
+        }
+
+        if (out != null) writer.close();
+    }
+
+
+    /**
+     * Fills a world and times drawing it.
+     *
+     * @param enemyCount    The amount of live enemies.
+     * @param renderScale   The Viewport's render scale.
+     * @return              The CSV row.
+     */
+    private String run(int enemyCount, double renderScale) {
+        GameRandom random = new GameRandom(3);
+        double width = Settings.WORLD_WIDTH, height = Settings.WORLD_HEIGHT;
+
+        // The same nodes as the game play scene: the viewport, its world and
+        // the particle layer.
+        Viewport viewport = new Viewport(width, height);
+        Pane world = viewport.getWorld();
+        ParticleSystem particles = new ParticleSystem(Settings.MAX_PARTICLES, width, height);
+        viewport.addLayer(particles.getCanvas());
+
+        Scene scene = new Scene(viewport.getView(), width, height, Assets.BACKGROUND);
+        viewport.setRenderScale(renderScale);
+        WritableImage image = new WritableImage((int)width, (int)height);
+
+        Enemy[] enemies = new Enemy[enemyCount];
+        for (int i = 0; i < enemyCount; i++) {
+            enemies[i] = spawn(world, random, width, height);
+        }
+
+        int corpseCount = (int)(enemyCount * corpses);
+        for (int i = 0; i < corpseCount; i++) {
+            spawn(world, random, width, height).showDead();
+        }
+
+        ImageView[] bulletViews = new ImageView[bullets];
+        double[] bulletAngles = new double[bullets];
+        for (int i = 0; i < bullets; i++) {
+            bulletViews[i] = new ImageView(Assets.getBulletImage());
+            bulletAngles[i] = random.nextDouble() * 360;
+            bulletViews[i].setRotate(bulletAngles[i]);
+            bulletViews[i].relocate(random.nextDouble() * width, random.nextDouble() * height);
+            world.getChildren().add(bulletViews[i]);
+        }
+
+        long[][] parts = new long[4][frames];
+        long[] pulses = new long[frames];
+
+        for (int f = -warmup; f < frames; f++) {
+            long t0 = System.nanoTime();
+
+            // Move everything a little, like an update does.
+            for (Enemy e : enemies) {
+                e.x = wrap(e.x + random.nextDouble() * 2 - 1, width);
+                e.y = wrap(e.y + random.nextDouble() * 2 - 1, height);
+                e.r = (e.r + random.nextDouble() * 10 - 5 + 360) % 360;
+                e.updateUI();
+            }
+            for (int i = 0; i < bullets; i++) {
+                double radians = Math.toRadians(bulletAngles[i]);
+                ImageView b = bulletViews[i];
+                b.relocate(wrap(b.getLayoutX() + Math.cos(radians) * 8, width),
+                            wrap(b.getLayoutY() + Math.sin(radians) * 8, height));
+            }
+            if (random.nextInt(4) == 0) {
+                particles.emit(ParticleSystem.EXPLOSION, random.nextDouble() * width,
+                                random.nextDouble() * height, f * 16L);
+            }
+            particles.update(f * 16L);
+            long t1 = System.nanoTime();
+
+            scene.getRoot().applyCss();
+            long t2 = System.nanoTime();
+
+            scene.getRoot().layout();
+            long t3 = System.nanoTime();
+
+            viewport.render();
+            scene.snapshot(image);
+            long t4 = System.nanoTime();
+
+            if (f >= 0) {
+                parts[UPDATE][f]    = t1 - t0;
+                parts[CSS][f]       = t2 - t1;
+                parts[LAYOUT][f]    = t3 - t2;
+                parts[RENDER][f]    = t4 - t3;
+                pulses[f]           = t4 - t0;
+            }
+        }
+
+        Arrays.sort(pulses);
+        return String.format("%d,%d,%d,%d,%.2f,%d,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f",
+                enemyCount, corpseCount, bullets, world.getChildren().size(), renderScale, frames,
+                mean(parts[UPDATE]), mean(parts[CSS]), mean(parts[LAYOUT]), mean(parts[RENDER]),
+                pulses[frames / 2] / 1e6,
+                pulses[Math.min(frames - 1, (int)(frames * 0.99))] / 1e6);
+    }
+
+
+    /**
+     * Creates an enemy of a random type at a random place and adds it to the
+     * world.
+     */
+    private static Enemy spawn(Pane world, GameRandom random, double width, double height) {
+        EnemyArchetype type = EnemyArchetype.get(1 + random.nextInt(EnemyArchetype.count()));
+        Enemy e = new Enemy(world, type,
+                            random.nextDouble() * width, random.nextDouble() * height,
+                            0, 0, 0, 0);
+        world.getChildren().add(e.getImageView());
+        return e;
+    }
+
+
+    /**
+     * Keeps a coordinate inside the world by wrapping it around.
+     */
+    private static double wrap(double value, double size) {
+        return value < 0 ? value + size : value >= size ? value - size : value;
+    }
+
+
+    /**
+     * Returns the mean of times in nanoseconds, in milliseconds.
+     */
+    private static double mean(long[] times) {
+        long total = 0;
+        for (long t : times) total += t;
+        return total / 1e6 / times.length;
+    }
+
+
+    /**
+     * Parses a list of render scales like "1,0.5".
+     */
+    private static double[] parseScales(String list) {
+        String[] parts = list.split(",");
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) values[i] = Double.parseDouble(parts[i].trim());
+        return values;
+    }
+
+
+    /**
+     * Parses a list of numbers like "100,1000".
+     */
+    private static int[] parseList(String list) {
+        String[] parts = list.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) values[i] = Integer.parseInt(parts[i].trim());
+        return values;
+    }
+}
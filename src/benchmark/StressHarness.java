@@ -0,0 +1,312 @@
+package benchmark;
+
+import gamemanager.GameRandom;
+import gamemanager.ParallelPhase;
+import gamemanager.RecordingAudioBackend;
+import gamemanager.SoundManager;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import server.ServerWorld;
+
+/**
+ * Runs the game simulation without a window for a fixed amount of ticks at
+ * several horde sizes and bullet rates, and prints one CSV row per run. The
+ * simulation is the headless ServerWorld, which follows the same rules as the
+ * single player game, so no display or JavaFX is needed.
+ *
+ * Ticks are run back to back rather than in real time, so ticks_per_sec says
+ * how many ticks the machine could run in a second, not how many were asked
+ * for. The columns are:
+ * <ul>
+ * <li>enemies, bullets_per_sec: the size of the run.</li>
+ * <li>mode: parallel or serial, how the enemy update was run. See
+ *     ParallelPhase. When both are run, the worlds they end with are checked
+ *     to be exactly the same.</li>
+ * <li>ticks, ticks_per_sec: ticks measured and the throughput.</li>
+ * <li>p50_ms, p99_ms, max_ms: tick times.</li>
+ * <li>alloc_mb_per_sec, alloc_bytes_per_tick: memory allocated by the
+ *     simulation thread while measuring.</li>
+ * <li>heap_peak_mb: the most heap used during the run, including the world.</li>
+ * <li>sounds_started, sounds_stolen, sounds_dropped: what the SoundManager did
+ *     with a gunshot for every bullet and a death sound for every kill.</li>
+ * </ul>
+ *
+ * The sounds go to a RecordingAudioBackend, and each run checks that every
+ * sound the SoundManager started reached the backend, and that no sound was
+ * started more than once in a tick. The sounds aren't part of the tick times.
+ *
+ * Run it with any of these options:
+ *
+ *      java benchmark.StressHarness --enemies 100,1000,10000,100000
+ *                                   --bullets 0,1000 --ticks 2000
+ *                                   --warmup 300 --tick-ms 33 --out runs.csv
+ *                                   --modes serial,parallel
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class StressHarness {
+
+
+    /** The CSV header. */
+    private static final String HEADER = "enemies,bullets_per_sec,mode,ticks,ticks_per_sec,"
+            + "p50_ms,p99_ms,max_ms,alloc_mb_per_sec,alloc_bytes_per_tick,heap_peak_mb,"
+            + "sounds_started,sounds_stolen,sounds_dropped";
+
+
+    /**
+     * The area of the world per enemy, in square pixels. Keeping this fixed
+     * keeps the crowd equally dense at every size, so bigger runs measure more
+     * zombies rather than more crowded ones.
+     */
+    private static final int AREA_PER_ENEMY = 80 * 80;
+
+
+    /** The amount of players the enemies chase and the bullets come from. */
+    private static final int PLAYERS = 4;
+
+
+    /** The settings for all runs. */
+    private int[] enemyCounts = {100, 1000, 10000, 100000};
+    private int[] bulletRates = {0, 1000};
+    private int ticks = 2000, warmup = 300, tickMillis = 33;
+    private String out = null;
+    private String[] modes = {"serial", "parallel"};
+
+
+    /** The checksum of the world at the end of the last run. */
+    private long checksum;
+
+
+    /** Records the sounds played during the runs. */
+    private final RecordingAudioBackend audio = new RecordingAudioBackend(256);
+
+
+    /**
+     * Runs every combination of enemy count and bullet rate.
+     *
+     * @param args  See the class description.
+     * @throws IOException  If the CSV file can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        StressHarness harness = new StressHarness();
+        harness.parse(args);
+        SoundManager.init(harness.audio);
+        harness.runAll();
+    }
+
+
+    /**
+     * Reads the command line options.
+     */
+    private void parse(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--enemies":   enemyCounts = parseList(value); break;
+                case "--bullets":   bulletRates = parseList(value); break;
+                case "--ticks":     ticks = Integer.parseInt(value); break;
+                case "--warmup":    warmup = Integer.parseInt(value); break;
+                case "--tick-ms":   tickMillis = Integer.parseInt(value); break;
+                case "--out":       out = value; break;
+                case "--modes":     modes = value.split(","); break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: "+args[i]);
+            }
+        }
+    }
+
+
+    /**
+     * Runs every combination and prints the CSV.
+     */
+    private void runAll() throws IOException {
+        PrintWriter writer = out == null
+                ? new PrintWriter(System.out, true)
+                : new PrintWriter(new FileWriter(out));
+
+        writer.println(HEADER);
+        for (int enemies : enemyCounts) {
+            for (int bullets : bulletRates) {
+                Long first = null;
+                for (String mode : modes) {
+                    ParallelPhase.setParallel(mode.trim().equals("parallel"));
+                    writer.println(run(enemies, bullets, mode.trim()));
+                    writer.flush();
+
+                    if (first == null) first = checksum;
+                    else if (first != checksum) {
+                        throw new IllegalStateException("The "+mode+" run with "+enemies
+                                +" enemies ended with a different world.");
+                    }
+                }
+            }
+        }
+
+        if (out != null) writer.close();
+    }
+
+
+    /**
+     * Runs one combination.
+     *
+     * @param enemies   The amount of enemies.
+     * @param bulletsPerSecond  The amount of bullets fired every second.
+     * @param mode      The name of the mode, for the CSV row.
+     * @return          The CSV row.
+     */
+    String run(int enemies, int bulletsPerSecond, String mode) {
+        System.gc();
+        resetHeapPeak();
+
+        int side = Math.max(800, (int)Math.sqrt((double)enemies * AREA_PER_ENEMY));
+        ServerWorld world = new ServerWorld(side, side, enemies, 1);
+        for (int p = 0; p < PLAYERS; p++) world.addPlayer();
+
+        GameRandom random = new GameRandom(2);
+        double bulletsPerTick = bulletsPerSecond * tickMillis / 1000.0;
+        double owed = 0;
+        long[] times = new long[ticks];
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = 0, start = 0;
+
+        SoundManager.reset();
+        long started = SoundManager.getStarted(), stolen = SoundManager.getStolen();
+        long dropped = SoundManager.getDropped(), plays = audio.getPlays();
+        int kills = 0;
+
+        for (int t = -warmup; t < ticks; t++) {
+            if (t == 0) {
+                allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+                start = System.nanoTime();
+            }
+
+            long tickStart = System.nanoTime();
+
+            // Fire this tick's share of bullets from random players in random
+            // directions.
+            int fired = 0;
+            for (owed += bulletsPerTick; owed >= 1; owed--) {
+                int p = random.nextInt(PLAYERS);
+                double x = world.getPlayerX(p) + 15, y = world.getPlayerY(p) + 15;
+                double angle = random.nextDouble() * 2 * Math.PI;
+                world.addBullet(p, x, y, x + Math.cos(angle) * 100, y + Math.sin(angle) * 100);
+                fired++;
+            }
+
+            world.tick(tickMillis);
+
+            if (t >= 0) times[t] = System.nanoTime() - tickStart;
+
+            int killed = -kills;
+            for (int p = 0; p < PLAYERS; p++) killed += world.getPlayerKills(p);
+            kills += killed;
+            playSounds(fired, killed, world.getTime());
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        checksum = world.checksum();
+
+        started = SoundManager.getStarted() - started;
+        if (audio.getPlays() - plays != started) {
+            throw new IllegalStateException("The SoundManager started "+started
+                    +" sounds, but the backend played "+(audio.getPlays() - plays)+".");
+        }
+
+        Arrays.sort(times);
+        return String.format("%d,%d,%s,%d,%.1f,%.4f,%.4f,%.4f,%.2f,%d,%.1f,%d,%d,%d",
+                enemies, bulletsPerSecond, mode, ticks,
+                ticks / elapsed,
+                percentile(times, 0.50),
+                percentile(times, 0.99),
+                times[times.length - 1] / 1e6,
+                allocated / elapsed / (1024 * 1024),
+                allocated / ticks,
+                heapPeak() / (1024.0 * 1024),
+                started, SoundManager.getStolen() - stolen, SoundManager.getDropped() - dropped);
+    }
+
+
+    /**
+     * Asks for a tick's sounds the way the game does, then starts them and
+     * checks that each sound was started at most once.
+     *
+     * @param fired     The bullets fired this tick, one gunshot each.
+     * @param killed    The enemies killed this tick, one death sound each.
+     * @param time      The world's time.
+     */
+    private void playSounds(int fired, int killed, long time) {
+        for (int i = 0; i < fired; i++) SoundManager.play(SoundManager.GUNSHOT);
+        for (int i = 0; i < killed; i++) SoundManager.play(SoundManager.ENEMY_DEATH);
+
+        long plays = audio.getPlays();
+        SoundManager.update(time);
+
+        int count = (int)(audio.getPlays() - plays);
+        for (int back = 0; back < count; back++) {
+            for (int other = back + 1; other < count; other++) {
+                if (audio.getSound(back) == audio.getSound(other)) {
+                    throw new IllegalStateException("Sound "+audio.getSound(back)
+                            +" was started more than once at "+time+" ms.");
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Returns a percentile of sorted nanosecond times in milliseconds.
+     */
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int)Math.min(sorted.length - 1, Math.floor(p * sorted.length))] / 1e6;
+    }
+
+
+    /**
+     * Resets the peak usage of every heap memory pool.
+     */
+    private static void resetHeapPeak() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+    }
+
+
+    /**
+     * Returns the sum of the peak usage of every heap memory pool since the
+     * last reset. Pools peak at different times, so this is an upper bound.
+     */
+    private static long heapPeak() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+
+    /**
+     * Parses a comma separated list of numbers.
+     */
+    private static int[] parseList(String value) {
+        List<Integer> list = new ArrayList<>();
+        for (String part : value.split(",")) list.add(Integer.parseInt(part.trim()));
+
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) result[i] = list.get(i);
+        return result;
+    }
+}
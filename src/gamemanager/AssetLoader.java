@@ -0,0 +1,100 @@
+package gamemanager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+
+/**
+ * Runs loading tasks, like decoding images or sound clips, in parallel on
+ * background threads so the JavaFX thread can keep drawing the start scene.
+ * Progress is reported on the JavaFX thread through progressProperty(), which
+ * can be bound to a ProgressBar, and a callback runs on the JavaFX thread once
+ * every task is done.
+ *
+ * A task that throws is logged and counted as done, so one missing file can't
+ * keep the game from starting; whatever needed it loads it again when used.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class AssetLoader {
+
+
+    /** The tasks to run. */
+    private final List<Runnable> tasks = new ArrayList<>();
+
+
+    /** The amount of tasks that are finished. */
+    private final AtomicInteger finished = new AtomicInteger();
+
+
+    /** The fraction of tasks that are finished, from 0 to 1. */
+    private final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(0);
+
+
+    /**
+     * Adds a task. Tasks must be added before start() is called.
+     *
+     * @param task  The task; it may run on any thread.
+     * @return      This loader.
+     */
+    public AssetLoader add(Runnable task) {
+        tasks.add(task);
+        return this;
+    }
+
+
+    /**
+     * Starts running the tasks on up to one thread per processor.
+     *
+     * @param onFinished    Run on the JavaFX thread once every task is done.
+     */
+    public void start(final Runnable onFinished) {
+        if (tasks.isEmpty()) {
+            Platform.runLater(onFinished);
+            return;
+        }
+
+        int threads = Math.max(1, Math.min(tasks.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "asset-loader");
+            t.setDaemon(true);
+            return t;
+        });
+
+        final int total = tasks.size();
+        for (final Runnable task : tasks) {
+            pool.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.out.println("AssetLoader:\tTask failed: "+e);
+                }
+
+                final int done = finished.incrementAndGet();
+                Platform.runLater(() -> {
+                    // Updates from different threads can arrive out of order.
+                    progress.set(Math.max(progress.get(), (double)done / total));
+                    if (done == total) onFinished.run();
+                });
+            });
+        }
+        pool.shutdown();
+    }
+
+
+    /**
+     * Returns the fraction of tasks that are finished. Only changes on the
+     * JavaFX thread.
+     *
+     * @return  The progress, from 0 to 1.
+     */
+    public ReadOnlyDoubleProperty progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+}
@@ -0,0 +1,187 @@
+package gamemanager;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+
+/**
+ * The images and colors used by the game. These were part of the Settings
+ * class, but creating an Image needs JavaFX, so they were moved here to keep
+ * Settings usable without JavaFX.
+ *
+ * Each image is decoded once and shared by everything that shows it. The
+ * animated gifs are decoded into a SpriteSheet of their frames, so nothing
+ * shows a gif straight and JavaFX never animates one. The players' images are
+ * also pre-rotated at Settings.ROTATION_ANGLES angles, so they are turned by
+ * picking a frame instead of with setRotate(). The enemies' images are named
+ * by their EnemyArchetype, and archetypes with the same image share it. At start
+ * up, addTo() hands every image to an AssetLoader, which decodes them all on
+ * background threads while the start scene is showing. An image asked for
+ * before the loader got to it is decoded right away on the calling thread, so
+ * the getters always return a finished image.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class Assets {
+
+
+    /** The default background color for the game play scene. */
+    public static final Color BACKGROUND = Color.WHITE;
+
+
+    /** The colors walls are drawn with, and their edges. See TileLayer. */
+    public static final Color WALL = Color.rgb(90, 90, 90), WALL_EDGE = Color.rgb(40, 40, 40);
+
+
+    /** 
+     * Image ids. The enemy images come after these: an archetype's image is 
+     * ENEMY plus the index of the first archetype with the same sprite.
+     */
+    private static final int MAIN_PLAYER = 0, DEAD_PLAYER = 1, EXPLOSION = 2, BULLET = 3, ENEMY = 4;
+
+
+    /** The resource each image is decoded from, indexed by id. */
+    private static final String[] FILES = files();
+
+
+    /** True for the images that are pre-rotated, indexed by id. */
+    private static final boolean[] ROTATED = new boolean[FILES.length];
+    static {
+        ROTATED[MAIN_PLAYER] = true;
+        for (int id = ENEMY; id < FILES.length; id++) ROTATED[id] = true;
+    }
+
+
+    /** The decoded images, indexed by id. Null until decoded. */
+    private static final AtomicReferenceArray<SpriteSheet> images = new AtomicReferenceArray<>(FILES.length);
+
+
+    /** The memory the pre-rotated images take, in bytes. */
+    private static final AtomicLong rotatedBytes = new AtomicLong();
+
+
+    /** A private constructor so this class cannot be instantiated. */
+    private Assets() {}
+
+
+    /**
+     * Lists the resources: the fixed images, then each archetype's sprite.
+     */
+    private static String[] files() {
+        String[] files = Arrays.copyOf(new String[] {
+            "/main_player_icon.png", "/dead_player.png", "/explosion.gif", "/bullet.png"
+        }, ENEMY + EnemyArchetype.count());
+
+        for (int type = 1; type <= EnemyArchetype.count(); type++) {
+            files[ENEMY + type - 1] = EnemyArchetype.get(type).sprite;
+        }
+        return files;
+    }
+
+
+    /**
+     * Adds a task for decoding each image to a loader.
+     *
+     * @param loader    The loader to decode the images with.
+     */
+    public static void addTo(AssetLoader loader) {
+        for (int id = 0; id < FILES.length; id++) {
+            final int image = id;
+            if (shared(id) == id) loader.add(() -> get(image));
+        }
+    }
+
+
+    /**
+     * Returns the first id with the same resource as an image, so archetypes
+     * that look the same share one image.
+     */
+    private static int shared(int id) {
+        for (int first = 0; first < id; first++) {
+            if (FILES[first].equals(FILES[id]) && ROTATED[first] == ROTATED[id]) return first;
+        }
+        return id;
+    }
+
+
+    /**
+     * Returns an image, decoding it first if it hasn't been yet. If two threads
+     * decode the same image at once, both get the one that was stored first.
+     *
+     * @param id    The image's id.
+     * @return      The decoded image and its frames.
+     */
+    private static SpriteSheet get(int id) {
+        SpriteSheet image = images.get(id);
+        if (image != null) return image;
+
+        // Not loaded in the background, so the image is finished on return.
+        image = SpriteSheet.decode(FILES[id]);
+        if (ROTATED[id]) image = image.rotated(Settings.ROTATION_ANGLES);
+        if (!images.compareAndSet(id, null, image)) return images.get(id);
+
+        if (ROTATED[id]) {
+            long total = rotatedBytes.addAndGet(image.getBytes());
+            System.out.println("Assets:\tPre-rotated "+FILES[id]+" at "+image.getAngles()
+                                +" angles: "+image.getBytes() / 1024+" KB, "
+                                +total / 1024+" KB for every rotated image");
+        }
+        return image;
+    }
+
+
+    /**
+     * Returns the memory the pre-rotated images decoded so far take.
+     *
+     * @return  The size of their pixels in bytes.
+     */
+    public static long getRotatedBytes() {
+        return rotatedBytes.get();
+    }
+
+
+    /**
+     * This is the image holding the main player at every angle.
+     */
+    public static Image getMainPlayerImage() {
+        return get(MAIN_PLAYER).getImage();
+    }
+
+    /**
+     * This is the main player's image, pre-rotated.
+     */
+    public static SpriteSheet getMainPlayerSprites() {
+        return get(MAIN_PLAYER);
+    }
+
+    /**
+     * This is the animation of an enemy, pre-rotated.
+     * 
+     * @param archetype     The kind of enemy.
+     */
+    public static SpriteSheet getEnemySprites(EnemyArchetype archetype) {
+        return get(shared(ENEMY + archetype.type - 1));
+    }
+
+    public static Image getDeadPlayerImage() {
+        return get(DEAD_PLAYER).getImage();
+    }
+
+    /**
+     * This is the animation displayed when something explodes.
+     */
+    public static SpriteSheet getExplosionSprites() {
+        return get(EXPLOSION);
+    }
+
+    /**
+     * This is the image that is displayed on the bullet.
+     */
+    public static Image getBulletImage() {
+        return get(BULLET).getImage();
+    }
+}
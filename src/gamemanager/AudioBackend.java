@@ -0,0 +1,61 @@
+package gamemanager;
+
+/**
+ * Something that can actually make sounds. The SoundManager decides what plays
+ * and when; a backend only loads and plays what it is told. Sounds are referred
+ * to by the ids defined in SoundManager.
+ *
+ * @see gamemanager.SoundManager
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public interface AudioBackend {
+
+
+    /**
+     * A backend that plays nothing. Used where there is no audio device, such
+     * as on a headless server.
+     */
+    AudioBackend NULL = new AudioBackend() {
+        @Override
+        public boolean load(int sound, String resource) {
+            return true;
+        }
+
+        @Override
+        public void play(int sound, double volume, boolean loop) {}
+
+        @Override
+        public void stop(int sound) {}
+    };
+
+
+    /**
+     * Loads a sound so it can be played later without any loading.
+     *
+     * @param sound     The sound's id.
+     * @param resource  The sound's resource path.
+     * @return          false if the sound could not be loaded. Playing a sound
+     *                  that was not loaded does nothing.
+     */
+    boolean load(int sound, String resource);
+
+
+    /**
+     * Starts playing a sound. This must return right away.
+     *
+     * @param sound     The sound's id.
+     * @param volume    The volume from 0 to 1.
+     * @param loop      true to play the sound until it is stopped.
+     */
+    void play(int sound, double volume, boolean loop);
+
+
+    /**
+     * Stops every playing copy of a sound.
+     *
+     * @param sound     The sound's id.
+     */
+    void stop(int sound);
+}
@@ -0,0 +1,99 @@
+package gamemanager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size queue of int commands that any thread can add to without
+ * locking, and one thread drains. Every slot has a sequence number that says
+ * whether it is free to be written or ready to be read, so writers only ever
+ * compete for the tail counter. Nothing is allocated after construction.
+ *
+ * Commands must not be negative; poll() returns -1 when the queue is empty.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class CommandQueue {
+
+
+    /** The commands. The length is a power of two. */
+    private final int[] commands;
+
+
+    /**
+     * The sequence number of each slot. A slot at position p is free to write
+     * when its sequence is p, and ready to read when it is p + 1.
+     */
+    private final AtomicLongArray sequences;
+
+
+    /** Used to turn a position into a slot. */
+    private final int mask;
+
+
+    /** The next position to write. Shared by every writer. */
+    private final AtomicLong tail = new AtomicLong();
+
+
+    /** The next position to read. Only touched by the reader. */
+    private long head = 0;
+
+
+    /**
+     * Creates a queue.
+     *
+     * @param capacity  The most commands the queue can hold. Rounded up to a
+     *                  power of two.
+     */
+    public CommandQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.commands   = new int[size];
+        this.sequences  = new AtomicLongArray(size);
+        this.mask       = size - 1;
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+    }
+
+
+    /**
+     * Adds a command. Safe to call from any thread.
+     *
+     * @param command   The command; must not be negative.
+     * @return          false if the queue was full and the command was dropped.
+     */
+    public boolean offer(int command) {
+        long position;
+
+        while (true) {
+            position = tail.get();
+            long difference = sequences.get((int)position & mask) - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) break;
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+
+        int slot = (int)position & mask;
+        commands[slot] = command;
+        sequences.lazySet(slot, position + 1);
+        return true;
+    }
+
+
+    /**
+     * Removes the oldest command. Must only be called by the reading thread.
+     *
+     * @return  The command, or -1 if the queue is empty.
+     */
+    public int poll() {
+        int slot = (int)head & mask;
+        if (sequences.get(slot) != head + 1) return -1;
+
+        int command = commands[slot];
+        sequences.lazySet(slot, head + commands.length);
+        head++;
+        return command;
+    }
+}
@@ -0,0 +1,260 @@
+package gamemanager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A kind of enemy: what it looks like and how fast, hard and long it fights.
+ * Every enemy of a kind shares its archetype, so an enemy itself only keeps
+ * what changes, like where it is and how much health it has left.
+ *
+ * The archetypes are read once from the enemies.properties resource, and from
+ * Settings.ENEMIES_FILE if it exists, which can change them or add more. The
+ * file lists the archetypes, then gives each one's values:
+ *
+ *      enemies=walker,runner,brute
+ *      brute.sprite=/enemy3.gif
+ *      brute.speed=5
+ *      brute.damage=4
+ *
+ * The keys are sprite (the image resource, see Assets), speed (the distance
+ * moved every refresh_rate milliseconds), damage (the health taken from a
+ * player per attack), health, and radius (the size of the circle that must
+ * touch a player to attack it). Every key but sprite is optional. An archetype
+ * with an invalid value, or a sprite that isn't a resource, is left out with a
+ * message.
+ *
+ * An archetype's type is its place in the list, starting at 1. Saves and the
+ * server's snapshots store the type, so new archetypes go at the end.
+ *
+ * Nothing here uses JavaFX, so the server can use the same archetypes; the
+ * images are decoded by Assets.getEnemySprites().
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public final class EnemyArchetype {
+
+
+    /** The number keys of an archetype, in the order of MIN and MAX. */
+    private static final String[] KEYS = {"speed", "damage", "health", "radius"};
+
+
+    /** The smallest and largest value allowed for each key. */
+    private static final double[] MIN = {0,   0,    1,    1};
+    private static final double[] MAX = {100, 1000, 1000, 200};
+
+
+    /** The values of a key an archetype leaves out. */
+    private static final double[] DEFAULTS = {2, 1, 5, Settings.PLAYER_WIDTH / 2.0};
+
+
+    /** The most archetypes there can be, since types are stored in a byte. */
+    public static final int MAX_TYPES = 127;
+
+
+    /** Every archetype, indexed by type - 1. */
+    private static final EnemyArchetype[] ARCHETYPES = loadAll();
+
+
+    /** The largest radius of any archetype. */
+    private static final double MAX_RADIUS = largestRadius();
+
+
+    /** The archetype's type, its place in the list starting at 1. */
+    public final int type;
+
+
+    /** The archetype's name in the file. */
+    public final String name;
+
+
+    /** The image resource its enemies are shown with. */
+    public final String sprite;
+
+
+    /** The distance its enemies move every refresh_rate milliseconds. */
+    public final int speed;
+
+
+    /** The health its enemies take from a player per attack. */
+    public final int damage;
+
+
+    /** The health its enemies spawn with. */
+    public final int health;
+
+
+    /** The radius of its enemies' collision circle. */
+    public final double radius;
+
+
+    public EnemyArchetype(int type, String name, String sprite, int speed, int damage,
+                            int health, double radius) {
+        this.type   = type;
+        this.name   = name;
+        this.sprite = sprite;
+        this.speed  = speed;
+        this.damage = damage;
+        this.health = health;
+        this.radius = radius;
+    }
+
+
+    /**
+     * Returns the archetype of a type. A type that doesn't exist, like one
+     * from a save made with other archetypes, gets the first.
+     *
+     * @param type  The type, from 1 to count().
+     * @return      The archetype.
+     */
+    public static EnemyArchetype get(int type) {
+        return type >= 1 && type <= ARCHETYPES.length ? ARCHETYPES[type - 1] : ARCHETYPES[0];
+    }
+
+
+    /**
+     * Returns the amount of archetypes. Their types are 1 to this.
+     *
+     * @return  The amount of archetypes.
+     */
+    public static int count() {
+        return ARCHETYPES.length;
+    }
+
+
+    /**
+     * Returns the largest radius of any archetype, which is how far from its
+     * center any enemy can be hit.
+     *
+     * @return  The radius.
+     */
+    public static double maxRadius() {
+        return MAX_RADIUS;
+    }
+
+
+    /**
+     * Finds the largest radius of the archetypes.
+     */
+    private static double largestRadius() {
+        double radius = 0;
+        for (EnemyArchetype a : ARCHETYPES) radius = Math.max(radius, a.radius);
+        return radius;
+    }
+
+
+    /**
+     * Reads the archetypes from the resource and the enemies file in
+     * Settings. The resource's archetypes are used if the file can't be read.
+     *
+     * @return  The archetypes, in the order of their types.
+     */
+    private static EnemyArchetype[] loadAll() {
+        Properties p = new Properties();
+        try (InputStream in = EnemyArchetype.class.getResourceAsStream("/enemies.properties")) {
+            if (in != null) p.load(in);
+        } catch (IOException e) {
+            System.out.println("EnemyArchetype:\tCould not read the enemies resource: "+e.getMessage());
+        }
+
+        Path file = Paths.get(Settings.ENEMIES_FILE);
+        if (Files.isRegularFile(file)) {
+            Properties custom = new Properties(p);
+            try (InputStream in = Files.newInputStream(file)) {
+                custom.load(in);
+                p = custom;
+            } catch (IOException e) {
+                System.out.println("EnemyArchetype:\tCould not read "+file+": "+e.getMessage());
+            }
+        }
+
+        List<String> errors = new ArrayList<>();
+        EnemyArchetype[] archetypes = parse(p, errors);
+        for (String error : errors) System.out.println("EnemyArchetype:\t"+error);
+        return archetypes;
+    }
+
+
+    /**
+     * Builds the archetypes listed in properties, checking every value.
+     *
+     * @param p         The keys and values.
+     * @param errors    A message for each problem found is added here.
+     * @return          The valid archetypes, or the first of the original
+     *                  enemies if there are none.
+     */
+    public static EnemyArchetype[] parse(Properties p, List<String> errors) {
+        List<EnemyArchetype> archetypes = new ArrayList<>();
+
+        for (String name : p.getProperty("enemies", "").split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) continue;
+
+            if (archetypes.size() == MAX_TYPES) {
+                errors.add("There can be at most "+MAX_TYPES+" enemies; "+name+" is left out");
+                continue;
+            }
+
+            double[] values = Arrays.copyOf(DEFAULTS, DEFAULTS.length);
+            boolean valid = true;
+
+            String sprite = p.getProperty(name+".sprite", "").trim();
+            if (sprite.isEmpty()) {
+                errors.add(name+".sprite is missing");
+                valid = false;
+            } else if (EnemyArchetype.class.getResource(sprite) == null) {
+                errors.add(name+".sprite is not an image resource: "+sprite);
+                valid = false;
+            }
+
+            for (int key = 0; key < KEYS.length; key++) {
+                String text = p.getProperty(name+"."+KEYS[key]);
+                if (text == null) continue;
+
+                double value;
+                try {
+                    value = key == 3 ? Double.parseDouble(text.trim()) : Integer.parseInt(text.trim());
+                } catch (NumberFormatException e) {
+                    errors.add(name+"."+KEYS[key]+" is not a number: "+text);
+                    valid = false;
+                    continue;
+                }
+
+                if (!(value >= MIN[key] && value <= MAX[key])) {
+                    errors.add(name+"."+KEYS[key]+" must be from "+MIN[key]+" to "+MAX[key]+": "+text);
+                    valid = false;
+                    continue;
+                }
+                values[key] = value;
+            }
+
+            if (valid) {
+                archetypes.add(new EnemyArchetype(archetypes.size() + 1, name, sprite,
+                                (int)values[0], (int)values[1], (int)values[2], values[3]));
+            } else {
+                errors.add(name+" is left out");
+            }
+        }
+
+        if (archetypes.isEmpty()) {
+            archetypes.add(new EnemyArchetype(1, "walker", "/enemy1.gif",
+                            (int)DEFAULTS[0], (int)DEFAULTS[1], (int)DEFAULTS[2], DEFAULTS[3]));
+        }
+        return archetypes.toArray(new EnemyArchetype[archetypes.size()]);
+    }
+
+
+    @Override
+    public String toString() {
+        return name+" (type "+type+"): sprite="+sprite+", speed="+speed+", damage="+damage
+                +", health="+health+", radius="+radius;
+    }
+}
@@ -0,0 +1,64 @@
+package gamemanager;
+
+import java.net.URL;
+import javafx.scene.media.AudioClip;
+
+/**
+ * An AudioBackend that plays sounds through JavaFX AudioClips. Each sound is
+ * turned into an AudioClip once, when it is loaded; AudioClip.play() returns
+ * right away and mixes on its own thread, so playing never blocks the JavaFX
+ * thread.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class FxAudioBackend implements AudioBackend {
+
+
+    /** The loaded clips, indexed by sound id. */
+    private final AudioClip[] clips;
+
+
+    /**
+     * Creates a backend.
+     *
+     * @param sounds    The amount of sound ids.
+     */
+    public FxAudioBackend(int sounds) {
+        this.clips = new AudioClip[sounds];
+    }
+
+
+    @Override
+    public boolean load(int sound, String resource) {
+        URL url = FxAudioBackend.class.getResource(resource);
+        if (url == null) {
+            System.out.println("FxAudioBackend:\tMissing sound "+resource);
+            return false;
+        }
+
+        try {
+            clips[sound] = new AudioClip(url.toString());
+            return true;
+        } catch (RuntimeException e) {
+            System.out.println("FxAudioBackend:\tCannot load "+resource+": "+e.getMessage());
+            return false;
+        }
+    }
+
+
+    @Override
+    public void play(int sound, double volume, boolean loop) {
+        AudioClip clip = clips[sound];
+        if (clip == null) return;
+
+        clip.setCycleCount(loop ? AudioClip.INDEFINITE : 1);
+        clip.play(volume);
+    }
+
+
+    @Override
+    public void stop(int sound) {
+        if (clips[sound] != null) clips[sound].stop();
+    }
+}
@@ -0,0 +1,202 @@
+package gamemanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import players.Player;
+
+/**
+ * Collects the things that happen during an update, like an enemy being hit or
+ * killed, and hands them to the listeners all at once at a fixed point in the
+ * update, see dispatch(). Code that causes an event only records it, so it
+ * never changes the enemy lists or plays sounds while something else is in the
+ * middle of a loop over them, and a listener gets every event of the update in
+ * one call.
+ *
+ * Events are kept in arrays, one per field, that are created once and reused,
+ * so posting an event creates nothing. Events posted by a listener while the
+ * events are being dispatched are handed out by the next dispatch().
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class GameEvents {
+
+
+    /** An enemy was hit. The subject is the enemy. */
+    public static final int HIT = 0;
+
+    /** An enemy died. The subject is the enemy. */
+    public static final int KILL = 1;
+
+    /** The main player was hurt. The subject is the player; amount is the damage. */
+    public static final int PLAYER_DAMAGED = 2;
+
+    /** An enemy spawned. The subject is the enemy. */
+    public static final int SPAWN = 3;
+
+
+    /** The amount of events the batches have room for at first. */
+    private static final int CAPACITY = 1024;
+
+
+    /**
+     * Gets every event posted during an update.
+     */
+    public interface Listener {
+
+        /**
+         * Handles a batch of events. The batch is only valid during the call.
+         *
+         * @param events    The events, in the order they were posted.
+         */
+        void onEvents(Batch events);
+    }
+
+
+    /**
+     * A list of events. Event i is made of the i-th element of each array.
+     */
+    public static final class Batch {
+
+        private int[] type = new int[CAPACITY];
+        private Player[] subject = new Player[CAPACITY];
+        private int[] amount = new int[CAPACITY];
+        private double[] x = new double[CAPACITY], y = new double[CAPACITY];
+        private int size = 0;
+
+        private Batch() {}
+
+        private void add(int eventType, Player eventSubject, int eventAmount,
+                            double eventX, double eventY) {
+            if (size == type.length) {
+                int capacity = size * 2;
+                type    = Arrays.copyOf(type, capacity);
+                subject = Arrays.copyOf(subject, capacity);
+                amount  = Arrays.copyOf(amount, capacity);
+                x       = Arrays.copyOf(x, capacity);
+                y       = Arrays.copyOf(y, capacity);
+            }
+
+            type[size]      = eventType;
+            subject[size]   = eventSubject;
+            amount[size]    = eventAmount;
+            x[size]         = eventX;
+            y[size]         = eventY;
+            size++;
+        }
+
+        private void clear() {
+            // Don't keep the subjects from being collected.
+            Arrays.fill(subject, 0, size, null);
+            size = 0;
+        }
+
+        /** Returns the amount of events. */
+        public int size() {return size;}
+
+        /** Returns the kind of event i, like HIT or KILL. */
+        public int getType(int i) {return type[i];}
+
+        /** Returns the player or enemy event i happened to. */
+        public Player getSubject(int i) {return subject[i];}
+
+        /** Returns the damage done by event i, or zero. */
+        public int getAmount(int i) {return amount[i];}
+
+        /** Returns where event i happened. */
+        public double getX(int i) {return x[i];}
+        public double getY(int i) {return y[i];}
+
+        /**
+         * Returns the amount of events of one kind.
+         *
+         * @param eventType     The kind of event, like HIT.
+         * @return              The amount of events of that kind.
+         */
+        public int count(int eventType) {
+            int total = 0;
+            for (int i = 0; i < size; i++) {
+                if (type[i] == eventType) total++;
+            }
+            return total;
+        }
+    }
+
+
+    /** Events are posted to one batch while the other is being dispatched. */
+    private static Batch posting = new Batch(), dispatching = new Batch();
+
+
+    /** The listeners, in the order they get the events. */
+    private static final List<Listener> listeners = new ArrayList<>();
+
+
+    /** A private constructor so this class cannot be instantiated. */
+    private GameEvents() {}
+
+
+    /**
+     * Adds a listener. It gets every batch dispatched from now on.
+     *
+     * @param listener  The listener.
+     */
+    public static void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+
+    /**
+     * Records an event. Must be called on the JavaFX thread.
+     *
+     * @param type      The kind of event, like HIT.
+     * @param subject   The player or enemy it happened to.
+     * @param amount    The damage done, or zero.
+     * @param x         The x-coordinate where it happened.
+     * @param y         The y-coordinate where it happened.
+     */
+    public static void post(int type, Player subject, int amount, double x, double y) {
+        posting.add(type, subject, amount, x, y);
+    }
+
+
+    /**
+     * Hands every event posted since the last call to each listener.
+     */
+    public static void dispatch() {
+        if (posting.size == 0) return;
+
+        Batch batch = posting;
+        posting = dispatching;
+        dispatching = batch;
+
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onEvents(batch);
+        }
+        batch.clear();
+    }
+
+
+    /**
+     * Throws away every event that hasn't been dispatched, like when a new
+     * game is started.
+     */
+    public static void clear() {
+        posting.clear();
+    }
+
+
+    /**
+     * Returns the amount of events waiting for the next dispatch().
+     *
+     * @return  The amount of events.
+     */
+    public static int getPending() {
+        return posting.size;
+    }
+}
@@ -1,14 +1,17 @@
 package gamemanager;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import javafx.animation.AnimationTimer;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.layout.Pane;
-import javafx.scene.media.AudioClip;
 import javafx.stage.Stage;
+import players.Bullet;
 import players.Enemy;
 import players.MainPlayer;
 
@@ -40,6 +43,39 @@ public class GameManager {
     
     /** Contains the dead enemies. */
     public static List<Enemy> deadEnemies;
+    
+    
+    /** 
+     * Enemies that were cleared away and can be used again. Spawning takes from
+     * here before creating new enemies, so after a while of play, or after a 
+     * restart, spawning creates nothing.
+     */
+    private static final List<Enemy> enemyPool = new ArrayList<>();
+    
+    
+    /** Contains the bullets that are flying. */
+    public static List<Bullet> bullets = new ArrayList<>();
+    
+    
+    /** 
+     * Bullets that blew up and can be fired again. A burst of pellets takes 
+     * from here, so firing creates nothing once the pool has filled up.
+     */
+    private static final List<Bullet> bulletPool = new ArrayList<>();
+    
+    
+    /** The weapons the main player switches through. See Weapon. */
+    public static final Weapon[] weapons = Weapon.loadAll();
+    
+    
+    /** The walls of the map. Bullets explode when they hit one. */
+    public static TileMap tileMap = new TileMap(Settings.WORLD_WIDTH / Settings.TILE_SIZE, 
+                                                Settings.WORLD_HEIGHT / Settings.TILE_SIZE, 
+                                                Settings.TILE_SIZE);
+    
+    
+    /** What the enemies can see of the main player past the walls of tileMap. */
+    public static LineOfSight lineOfSight = new LineOfSight(tileMap);
 
     
     /** Contains a value determining whether game play is active. */
@@ -57,8 +93,28 @@ public class GameManager {
     private static Label gameStats;
     
     
+    /** Shows the numbers in gameStats, setting its text only when they change. */
+    private static HudText stats;
+    
+    
+    /** Shows FPS, update times and entity counts when toggled on. */
+    private static PerformanceOverlay overlay;
+    
+    
     /** The Pane the main player and enemies are added to. */
     private static Pane playerField;
+    
+    
+    /** Fits playerField to the window and draws it at the render scale. */
+    private static Viewport viewport;
+    
+    
+    /** Draws the explosions and muzzle flashes over playerField. */
+    public static ParticleSystem particles;
+    
+    
+    /** Draws the walls of tileMap under playerField. */
+    private static TileLayer tiles;
 
     
     /** The scene displayed when game play starts. */
@@ -72,17 +128,158 @@ public class GameManager {
     /** 
      * The animation timer that will update main player and enemy locations. It
      * will also decide when to clear the dead bodies from the screen (every 
-     * 10000 milliseconds) and when to move the enemies. 
+     * RuntimeSettings.getSweepInterval() milliseconds) and when to move the
+     * enemies. 
      */
     private static AnimationTimer mainUpdateTimer;
     
     
     /** The animation timer that will control when enemies spawn. */
     private static AnimationTimer enemySpawnTimer;
+    
+    
+    /** Reads the PerformanceProfile again whenever its file changes. */
+    private static ProfileWatcher profileWatcher;
 
     
     /** The amount of enemies killed. */
     public static int amountKilled = 0;
+    
+    
+    /** 
+     * The game clock in milliseconds. It only moves forward while the main
+     * update timer is running, so nothing in the game moves while paused. All
+     * game play timing is done against this clock, which is what makes it
+     * possible to save the timers and carry on where the game left off.
+     */
+    private static long gameTime = 0;
+    
+    
+    /** The time, in nanoseconds, of the previous update. Zero after a pause. */
+    private static long previousPulse = 0;
+    
+    
+    /** The game time the enemies and player stats were last updated. */
+    private static long lastRefreshTime;
+    
+    
+    /** The game time the dead bodies were last cleared. */
+    private static long lastSweepTime;
+    
+    
+    /** The game time enemies were last spawned. */
+    private static long lastSpawnTime;
+    
+    
+    /** Runs the sweeps and spawns a slice at a time, within a frame budget. */
+    private static final JobScheduler scheduler = new JobScheduler();
+    
+    
+    /** The dead bodies the sweep job still has to clear, oldest first. */
+    private static int sweepRemaining = 0;
+    
+    
+    /**
+     * Clears the oldest dead bodies, SWEEP_SLICE at a time, and puts their
+     * enemies in the pool. Bodies that died after the sweep started wait for
+     * the next one.
+     */
+    private static final JobScheduler.Job sweepJob = new JobScheduler.Job() {
+        @Override
+        public boolean step() {
+            int count = Math.min(Math.min(sweepRemaining, Settings.SWEEP_SLICE), 
+                                    deadEnemies.size());
+            List<Enemy> slice = deadEnemies.subList(0, count);
+            for (int i = 0; i < count; i++) {
+                playerField.getChildren().remove(slice.get(i).getImageView());
+            }
+            enemyPool.addAll(slice);
+            slice.clear();
+            
+            sweepRemaining = count == 0 ? 0 : sweepRemaining - count;
+            return sweepRemaining == 0;
+        }
+    };
+    
+    
+    /** The enemies of the current wave spawned so far, or -1 between waves. */
+    private static int waveSpawned = -1;
+    
+    
+    /**
+     * Spawns a wave of enemies, one per slice. The wave's size is drawn from
+     * the game's random numbers the same way, and in the same order, as when 
+     * a whole wave was spawned at once.
+     */
+    private static final JobScheduler.Job spawnJob = new JobScheduler.Job() {
+        @Override
+        public boolean step() {
+            if(waveSpawned >= random.nextInt(10) + 1) {
+                waveSpawned = -1;
+                return true;
+            }
+            
+            EnemyArchetype type = EnemyArchetype.get(random.nextInt(EnemyArchetype.count()) + 1);
+            Enemy e = obtainEnemy(type,
+                            random.nextInt(RuntimeSettings.getMaxPlayerSpawnX()),
+                            random.nextInt(RuntimeSettings.getMaxPlayerSpawnY()));
+            enemies.add(e);
+            e.changeLocation();
+            playerField.getChildren().add(e.getImageView());
+            GameEvents.post(GameEvents.SPAWN, e, 0, e.getCenterX(), e.getCenterY());
+            waveSpawned++;
+            return false;
+        }
+    };
+    
+    
+    /** The amount of enemies in a partition of the enemy update. */
+    private static final int ENEMY_PARTITION = 256;
+    
+    
+    /** Runs the enemy update over partitions of the enemies. */
+    private static final ParallelPhase enemyPhase = new ParallelPhase(ENEMY_PARTITION);
+    
+    
+    /** The game time of the enemy update in progress. */
+    private static long enemyUpdateTime;
+    
+    
+    /** 
+     * The damage each partition of the enemy update did to the main player, 
+     * and how many attacks that was. Grown, never shrunk.
+     */
+    private static int[] partitionDamage = new int[1], partitionAttacks = new int[1];
+    
+    
+    /** Updates one partition of the enemies. See updateEnemies(). */
+    private static final ParallelPhase.Body enemyBody = new ParallelPhase.Body() {
+        @Override
+        public void run(int partition, int from, int to) {
+            int damage = 0, attacks = 0;
+            for (int i = from; i < to; i++) {
+                int d = enemies.get(i).attackPlayer(enemyUpdateTime);
+                if (d > 0) {
+                    damage += d;
+                    attacks++;
+                }
+            }
+            partitionDamage[partition]  = damage;
+            partitionAttacks[partition] = attacks;
+        }
+    };
+    
+    
+    /** Used for spawning the main player and the enemies. */
+    private static final GameRandom random = new GameRandom();
+    
+    
+    /** 
+     * True when the game should be saved at the end of the next update. The 
+     * game is only ever captured between two updates, so a save never contains 
+     * an update that was half done.
+     */
+    private static boolean saveRequested = false;
 
     
     /**
@@ -103,86 +300,296 @@ public class GameManager {
 
 
     /**
-     * Sets the scene to the main game scene. It will also create the Animation 
-     * Timer used for updating enemy and player locations, and will instantiate
-     * the lists used to keep track of the currently, alive and dead, enemies.
+     * Sets the scene to the main game scene and starts a new game. The game 
+     * play scene, the input handler and the timers are only created the first
+     * time; after that they are reused.
      */
     public static void loadGame() {
+        if(gameplayScene == null) setupGame();
+        startNewGame();
+    }
+    
+    
+    /**
+     * Builds every scene, so nothing has to be built or styled the first time
+     * the player starts, pauses or dies. Call this once the primary stage is 
+     * set.
+     */
+    public static void prewarm() {
+        if(gameplayScene == null) setupGame();
+        SceneCreator.prewarm(gameplayScene);
+        SceneCreator.prewarm();
+    }
+    
+    
+    /**
+     * Creates the game play scene, the input handler and the main update timer.
+     */
+    private static void setupGame() {
         if(primaryStage == null)
             throw new NullPointerException("Primary Stage is Null.");
 
-        RuntimeSettings.loadRuntimeSettings(800, 600);
+        RuntimeSettings.loadRuntimeSettings(Settings.WORLD_WIDTH, Settings.WORLD_HEIGHT);
+        loadMap();
+        
+        profileWatcher = new ProfileWatcher(Paths.get(Settings.PROFILE_FILE), "GameManager");
+        profileWatcher.start();
+        applyProfile();
         
         Object[] graphicalComponents = SceneCreator.createGamePlayScene();
 
         gameplayScene   = (Scene)graphicalComponents[0];
-        playerField     = (Pane)graphicalComponents[1];
+        viewport        = (Viewport)graphicalComponents[1];
         gameStats       = (Label)graphicalComponents[2];
+        stats           = new HudText(gameStats, "Health:\t", "\tAmount Killed:\t", "");
+        overlay         = new PerformanceOverlay((Label)graphicalComponents[3]);
+        playerField     = viewport.getWorld();
+        viewport.setRenderScale(RuntimeSettings.getRenderScale());
+        
+        particles = new ParticleSystem(Settings.MAX_PARTICLES, 
+                                        Settings.WORLD_WIDTH, Settings.WORLD_HEIGHT);
+        viewport.addLayer(particles.getCanvas());
+        
+        tiles = new TileLayer(tileMap, Settings.TILE_CHUNK_SIZE, Settings.TILE_CACHE_BYTES,
+                                Settings.WORLD_WIDTH, Settings.WORLD_HEIGHT);
+        viewport.addBackground(tiles.getCanvas());
 
-        input = new Input(gameplayScene, playerField);
+        input = new Input(gameplayScene, viewport, KeyBindings.loadDefault());
 
         enemies = new ArrayList<>();
         deadEnemies = new ArrayList<>();
+        
+        GameEvents.addListener(gameEvents);
+        GameEvents.addListener(SoundManager.EVENTS);
 
         mainUpdateTimer = new AnimationTimer() {
 
-            long previousTime = 0;  // Used for updating enemy location.
-            long previousTime2 = 0; // Used for cleaning the dead enemy bodies.
-
             /*
                 This will control all animations pertaining to the main player and
                 to the enemies.
             */
             @Override
             public void handle(long now) {                
-                long time = now / 1000000;  // Manually handle time.
+                long start = System.nanoTime();
+                long time = advanceClock(now);  // Manually handle time.
+                
+                // A changed profile only takes effect between updates.
+                applyProfile();
 
                 if(mainPlayer.getHealth() <= 0) {
                     stopGame();
                 }
-
-                // Update the enemies and the plaeyr stats.
-                if(time - previousTime >= Settings.REFRESH_RATE) {
-                    List<Enemy> temp = new ArrayList<>(enemies);
-                    for (Enemy e : temp) {
-                        e.attackPlayer(now);
+                
+                // Read the keyboard and mouse once for this update.
+                input.sample(time);
+                
+                // Move the bullets. A bullet that blew up is swapped with the
+                // last one and goes back to the pool, so go backwards.
+                for (int i = bullets.size() - 1; i >= 0; i--) {
+                    if (bullets.get(i).update(time)) {
+                        int last = bullets.size() - 1;
+                        bulletPool.add(bullets.get(i));
+                        bullets.set(i, bullets.get(last));
+                        bullets.remove(last);
                     }
-
-                    gameStats.setText("Health:\t"+mainPlayer.getHealth()
-                                        + "\tAmount Killed:\t"+amountKilled);
-                    previousTime = time;
                 }
-
-                // Remove all dead enemies from the game play field.
-                if(time - previousTime2 >= 10000) {
-                    List<Enemy> temp = new ArrayList<>(deadEnemies);
-                    for (Enemy e : temp) {
-                        playerField.getChildren().remove(e.getImageView());
-                        deadEnemies.remove(e);
+                
+                // Handle the hits and kills of this update, and the damage and
+                // spawns since the last one. Nothing below this sees a dead
+                // enemy in the enemies list.
+                GameEvents.dispatch();
+
+                // Update the enemies.
+                if(time - lastRefreshTime >= RuntimeSettings.getRefreshRate()) {
+                    updateEnemies(time);
+                    lastRefreshTime = time;
+                }
+                
+                // Update the player stats. The label is only changed when
+                // they are.
+                stats.set(0, mainPlayer.getHealth());
+                stats.set(1, amountKilled);
+                stats.update();
+
+                // Remove all dead enemies from the game play field. The sweep
+                // job does it a slice at a time, see scheduler.run() below.
+                if(time - lastSweepTime >= RuntimeSettings.getSweepInterval()) {
+                    boolean sweeping = sweepRemaining > 0;
+                    sweepRemaining = deadEnemies.size();
+                    if(!sweeping && sweepRemaining > 0) {
+                        scheduler.submit(sweepJob, JobScheduler.LOW);
                     }
-                    previousTime2 = time;
+                    lastSweepTime = time;
                 }
 
                 // Update the main player.
                 mainPlayer.changeValues();
                 mainPlayer.move();
                 mainPlayer.updateUI();
+                
+                // Start the sounds asked for during this update.
+                SoundManager.update(time);
+                
+                // Spend what the frame can spare on the spawns and sweeps.
+                scheduler.run((long)(Settings.JOB_BUDGET * 1000000));
+                
+                // Draw the walls that changed and the particles, then the 
+                // world if it isn't drawn straight into the window.
+                tiles.render(0, 0);
+                particles.update(time);
+                viewport.render();
+                
+                // The update is done, so this is a safe place to save.
+                if(saveRequested) {
+                    saveRequested = false;
+                    SaveGame.writeAsync(captureSnapshot(), getSavePath());
+                }
+                
+                overlay.update(now, System.nanoTime() - start, enemies.size(),
+                                deadEnemies.size(), bullets.size(), particles.getCount(),
+                                scheduler);
             }
         };
-
-        startNewGame();
     }
+    
+    
+    /**
+     * Lets every enemy attack or move. The enemies are split into partitions
+     * that are updated in parallel; each partition only changes its own 
+     * enemies and adds up the damage it did to the main player on its own. 
+     * Once every partition is done, the enemies' image views are moved and 
+     * the damage is taken from the main player at once, on this thread. The
+     * results are the same in parallel and serial mode.
+     * 
+     * @param time  The current game time in milliseconds.
+     */
+    private static void updateEnemies(long time) {
+        int partitions = enemyPhase.partitions(enemies.size());
+        if(partitionDamage.length < partitions) {
+            partitionDamage     = new int[partitions];
+            partitionAttacks    = new int[partitions];
+        }
+        
+        // The enemies ask what they can see from the main player's tile.
+        lineOfSight.update(mainPlayer.getCenterX(), mainPlayer.getCenterY());
+        
+        enemyUpdateTime = time;
+        enemyPhase.run(enemies.size(), enemyBody);
+        
+        for (int i = 0; i < enemies.size(); i++) {
+            enemies.get(i).updateUI();
+        }
+        
+        int damage = 0, attacks = 0;
+        for (int p = 0; p < partitions; p++) {
+            damage  += partitionDamage[p];
+            attacks += partitionAttacks[p];
+        }
+        if(damage > 0) {
+            mainPlayer.deductHealth(damage);
+            System.out.println("GameManager:\t"+attacks+" enemies attacked the main player");
+        }
+    }
+    
+    
+    /**
+     * Switches to the profile read from the profile file, if it changed since
+     * the last call.
+     */
+    private static void applyProfile() {
+        PerformanceProfile profile = profileWatcher.poll();
+        if(profile != null) {
+            RuntimeSettings.setProfile(profile);
+            if(viewport != null) viewport.setRenderScale(profile.renderScale);
+            System.out.println("GameManager:\tUsing profile "+profile);
+        }
+    }
+    
+    
+    /**
+     * Loads the walls from the map file, if there is one. A map that can't be
+     * read is skipped, leaving a map with no walls.
+     */
+    private static void loadMap() {
+        Path file = Paths.get(Settings.MAP_FILE);
+        if(!Files.isRegularFile(file)) return;
+        
+        try {
+            tileMap = TileMap.load(file, Settings.TILE_SIZE);
+            lineOfSight = new LineOfSight(tileMap);
+            System.out.println("GameManager:\tLoaded map "+file);
+        } catch(IOException e) {
+            System.out.println("GameManager:\tCould not load map: "+e.getMessage());
+        }
+    }
+    
+    
+    /**
+     * Moves the game clock forward by the time since the previous update. The
+     * first update after the game was started or resumed does not move the 
+     * clock, so time spent paused is never counted.
+     * 
+     * @param now   The time of the current frame in nanoseconds.
+     * @return      The new game time in milliseconds.
+     */
+    private static long advanceClock(long now) {
+        if(previousPulse != 0) {
+            gameTime += (now - previousPulse) / 1000000;
+            previousPulse += ((now - previousPulse) / 1000000) * 1000000;
+        } else {
+            previousPulse = now;
+        }
+        return gameTime;
+    }
+    
+    
+    /**
+     * Shows a scene in the window without changing the window's size, so a
+     * window the user resized stays that size when the scene changes.
+     * 
+     * @param scene     The scene to show.
+     */
+    private static void showScene(Scene scene) {
+        if(!primaryStage.isShowing()) {
+            primaryStage.setScene(scene);
+            return;
+        }
+        
+        double width = primaryStage.getWidth(), height = primaryStage.getHeight();
+        primaryStage.setScene(scene);
+        primaryStage.setWidth(width);
+        primaryStage.setHeight(height);
+    }
+    
+    
+    /**
+     * Returns the game time in milliseconds. See gameTime for more detail.
+     * 
+     * @return  The game time in milliseconds.
+     */
+    public static long getGameTime() {return gameTime;}
 
     
     /**
      * Used to setup a new game. This should always be called when using loadGame() 
-     * is too much, like restarting the game after the main player died. 
+     * is too much, like restarting the game after the main player died. This is
+     * a warm restart: the scene, the main player and the enemies of the last
+     * game are all reused.
      */
     private static void startNewGame() {
-        primaryStage.setScene(gameplayScene);
+        showScene(gameplayScene);
         
+        clearBullets();
+        particles.clear();
         playerField.getChildren().clear();
-        enemies.clear();
+        poolEnemies();
+        
+        gameTime        = 0;
+        previousPulse   = 0;
+        lastRefreshTime = -RuntimeSettings.getRefreshRate();
+        lastSweepTime   = 0;
+        lastSpawnTime   = -RuntimeSettings.getSpawnInterval();
+        SoundManager.reset();
         
         spawnPlayer();
         spawnEnemies();
@@ -195,6 +602,29 @@ public class GameManager {
 
         mainUpdateTimer.start();
     }
+    
+    
+    /**
+     * Stops every bullet and puts it back in the pool.
+     */
+    private static void clearBullets() {
+        for (Bullet b : bullets) {
+            b.hide();
+        }
+        bulletPool.addAll(bullets);
+        bullets.clear();
+    }
+    
+    
+    /**
+     * Returns a bullet that isn't in the game, reusing one from the pool if
+     * there is one. See Bullet.fire().
+     * 
+     * @return  The bullet.
+     */
+    public static Bullet obtainBullet() {
+        return bulletPool.isEmpty() ? new Bullet() : bulletPool.remove(bulletPool.size() - 1);
+    }
 
 
     /**
@@ -206,7 +636,9 @@ public class GameManager {
         input.removeListeners();
         mainUpdateTimer.stop();
         enemySpawnTimer.stop();       
-        primaryStage.setScene(SceneCreator.createGameOverScene());
+        showScene(SceneCreator.getGameOverScene());
+        System.out.printf("GameManager:\tInput latency: %.2f ms average, %.2f ms max%n",
+                            input.getAverageInputLatency(), input.getMaxInputLatency());
     }
 
 
@@ -220,6 +652,14 @@ public class GameManager {
     }
 
 
+    /**
+     * Shows or hides the performance overlay.
+     */
+    public static void toggleOverlay() {
+        overlay.toggle();
+    }
+
+
     /**
      * Pauses the game.
      */
@@ -228,7 +668,7 @@ public class GameManager {
         input.removeListeners();
         mainUpdateTimer.stop();
         enemySpawnTimer.stop();
-        primaryStage.setScene(SceneCreator.createPauseMenu());
+        showScene(SceneCreator.getPauseMenu());
         System.out.println("GameManager:\tGame Paused.");
     }
 
@@ -238,7 +678,8 @@ public class GameManager {
      */
     public static void resumeGame() {
         gameActive = true;
-        primaryStage.setScene(gameplayScene);
+        previousPulse = 0;
+        showScene(gameplayScene);
         input.addListeners();
         mainUpdateTimer.start();
         enemySpawnTimer.start();
@@ -250,22 +691,63 @@ public class GameManager {
      * Sets the Scene to the "Main Menu" scene.
      */
     public static void goToMainMenu() {
-        primaryStage.setScene(SceneCreator.createStartScene());
+        showScene(SceneCreator.getStartScene());
     }
 
 
     /**
-     * Spawns the main player at a random place in the game play scene. 
+     * Spawns the main player at a random place in the game play scene. The 
+     * main player of the last game is reused if there was one.
      */
     private static void spawnPlayer() {
-        Random rand = new Random();
-        mainPlayer = new MainPlayer(playerField,
-                                    Settings.getMainPlayerImage(),
-                                    rand.nextInt(RuntimeSettings.getMaxPlayerSpawnX()),
-                                    rand.nextInt(RuntimeSettings.getMaxPlayerSpawnY()),
-                                    0,0,0,0, input);
+        int x = random.nextInt(RuntimeSettings.getMaxPlayerSpawnX());
+        int y = random.nextInt(RuntimeSettings.getMaxPlayerSpawnY());
+        
+        if(mainPlayer == null) {
+            mainPlayer = new MainPlayer(playerField,
+                                        Assets.getMainPlayerImage(),
+                                        x, y, 0,0,0,0, input);
+        } else {
+            mainPlayer.reset(x, y);
+        }
         playerField.getChildren().add(mainPlayer.getImageView());   
     }
+    
+    
+    /**
+     * Moves every enemy, alive or dead, into the pool, and throws away the 
+     * events and unfinished spawns and sweeps about them.
+     */
+    private static void poolEnemies() {
+        GameEvents.clear();
+        scheduler.clear();
+        sweepRemaining  = 0;
+        waveSpawned     = -1;
+        enemyPool.addAll(enemies);
+        enemyPool.addAll(deadEnemies);
+        enemies.clear();
+        deadEnemies.clear();
+    }
+    
+    
+    /**
+     * Returns an enemy of the given kind, reusing one from the pool if there 
+     * is one. The enemy is not added to any list or to the field.
+     * 
+     * @param type  The kind of enemy.
+     * @param x     The enemy's x-coordinate.
+     * @param y     The enemy's y-coordinate.
+     * @return      The enemy.
+     */
+    private static Enemy obtainEnemy(EnemyArchetype type, double x, double y) {
+        if(enemyPool.isEmpty()) {
+            return new Enemy(playerField, type, x, y, 0, 0, 0, 0);
+        }
+        
+        Enemy e = enemyPool.remove(enemyPool.size() - 1);
+        e.reset(type, x, y);
+        return e;
+    }
 
 
     /**
@@ -276,60 +758,19 @@ public class GameManager {
      * @see players.Enemy
      */
     private static void spawnEnemies() {
-        Random rand = new Random();
-
-        enemySpawnTimer = new AnimationTimer() {
-            
-            long previousTime = 0;
+        if(enemySpawnTimer == null) enemySpawnTimer = new AnimationTimer() {
 
             @Override
             public void handle(long now) {
-                long time = now / 1000000;
+                long time = gameTime;
                 
-                if(time - previousTime >= 5000) {
-                    for (int i = 0; i < rand.nextInt(10) + 1; i++) {
-                        Enemy e;
-
-                        switch(rand.nextInt(3)) {
-
-                            case 0:
-                                e = new Enemy(playerField,
-                                        Settings.getEnemyImage(1),
-                                        rand.nextInt(RuntimeSettings.getMaxPlayerSpawnX()),
-                                        rand.nextInt(RuntimeSettings.getMaxPlayerSpawnY()),
-                                        0, 0, 0, 0, 2, 1);
-                                break;
-
-                            case 1:
-                                 e = new Enemy(playerField,
-                                        Settings.getEnemyImage(2),
-                                        rand.nextInt(RuntimeSettings.getMaxPlayerSpawnX()),
-                                        rand.nextInt(RuntimeSettings.getMaxPlayerSpawnY()),
-                                        0, 0, 0, 0, 3, 2);
-                                break;
-
-                            case 2:
-                                e = new Enemy(playerField,
-                                        Settings.getEnemyImage(3),
-                                        rand.nextInt(RuntimeSettings.getMaxPlayerSpawnX()),
-                                        rand.nextInt(RuntimeSettings.getMaxPlayerSpawnY()),
-                                        0, 0, 0, 0, 5, 4);
-                                break;
-
-                            default:
-                                e = new Enemy(playerField,
-                                        Settings.getEnemyImage(1),
-                                        rand.nextInt(RuntimeSettings.getMaxPlayerSpawnX()),
-                                        rand.nextInt(RuntimeSettings.getMaxPlayerSpawnY()),
-                                        0, 0, 0, 0, 2, 1);
-                                break;
-
-                        }
-                        enemies.add(e);
-                        e.changeLocation();
-                        playerField.getChildren().add(e.getImageView());
-                    }
-                    previousTime = time;
+                // The wave is spawned by the spawn job. A wave that is still
+                // going when the next is due delays it.
+                if(time - lastSpawnTime >= RuntimeSettings.getSpawnInterval() 
+                        && waveSpawned < 0) {
+                    waveSpawned = 0;
+                    scheduler.submit(spawnJob, JobScheduler.HIGH);
+                    lastSpawnTime = time;
                 }
             }
         };
@@ -347,13 +788,213 @@ public class GameManager {
 
     
     /**
-     * Will remove an enemy from the enemies list. 
+     * Counts the kills of a batch of GameEvents and moves the killed enemies
+     * from the enemies list to the dead enemies list, all in one pass.
+     */
+    private static final GameEvents.Listener gameEvents = new GameEvents.Listener() {
+        @Override
+        public void onEvents(GameEvents.Batch events) {
+            int kills = 0;
+            for (int i = 0; i < events.size(); i++) {
+                if (events.getType(i) == GameEvents.KILL) {
+                    deadEnemies.add((Enemy)events.getSubject(i));
+                    kills++;
+                }
+            }
+            
+            if (kills > 0) {
+                amountKilled += kills;
+                enemies.removeIf(Enemy::isDead);
+            }
+        }
+    };
+    
+    
+    /**
+     * Saves the game to the save file. While the game is being played the game
+     * is captured at the end of the next update; while it is paused, it is 
+     * captured right away. The file is written on a background thread.
+     */
+    public static void saveGame() {
+        if(mainPlayer == null) return;
+        
+        if(gameActive) {
+            saveRequested = true;
+        } else {
+            SaveGame.writeAsync(captureSnapshot(), getSavePath());
+        }
+    }
+    
+    
+    /**
+     * Loads the game from the save file and resumes it. If there is no save 
+     * file, or it can't be read, nothing happens.
+     */
+    public static void continueGame() {
+        GameSnapshot snapshot;
+        
+        try {
+            snapshot = SaveGame.read(getSavePath());
+        } catch (IOException e) {
+            System.out.println("GameManager:\tCould not load save: "+e.getMessage());
+            return;
+        }
+        
+        if(gameplayScene == null) setupGame();
+        
+        if(mainUpdateTimer != null) mainUpdateTimer.stop();
+        if(enemySpawnTimer != null) enemySpawnTimer.stop();
+        input.removeListeners();
+        input.resetSettings();
+        
+        restoreSnapshot(snapshot);
+        SoundManager.reset();
+        
+        showScene(gameplayScene);
+        spawnEnemies();
+        input.addListeners();
+        
+        saveRequested   = false;
+        previousPulse   = 0;
+        gameActive      = true;
+        
+        mainUpdateTimer.start();
+        System.out.println("GameManager:\tGame Loaded.");
+    }
+    
+    
+    /**
+     * Returns true if there is a saved game that can be continued.
+     * 
+     * @return  true if there is a saved game.
+     */
+    public static boolean hasSavedGame() {
+        return Files.isRegularFile(getSavePath());
+    }
+    
+    
+    /**
+     * Returns the path of the save file.
+     * 
+     * @return  The path of the save file.
+     */
+    private static Path getSavePath() {
+        return Paths.get(Settings.SAVE_FILE);
+    }
+    
+    
+    /**
+     * Copies the state of the game into a new snapshot. This must be called 
+     * between two updates, never during one.
      * 
-     * @param enemyToRemove     The enemy to remove.
+     * @return  A snapshot of the game.
      */
-    public static void removePlayer(Enemy enemyToRemove) {
-        List<Enemy> copyOfEnemies = new ArrayList<>(enemies);
-        copyOfEnemies.remove(enemyToRemove);
-        enemies = copyOfEnemies;
+    private static GameSnapshot captureSnapshot() {
+        // Finish the spawns and sweeps, so no half of a wave is left out.
+        scheduler.drain();
+        
+        int alive = enemies.size();
+        GameSnapshot s = new GameSnapshot(alive + deadEnemies.size(), bullets.size());
+        
+        s.gameTime          = gameTime;
+        s.lastRefreshTime   = lastRefreshTime;
+        s.lastSweepTime     = lastSweepTime;
+        s.lastSpawnTime     = lastSpawnTime;
+        s.lastShotTime      = input.getLastShotTime();
+        s.playerWeapon      = input.getWeapon();
+        s.amountKilled      = amountKilled;
+        s.randomState       = random.getState();
+        
+        s.playerX           = mainPlayer.getX();
+        s.playerY           = mainPlayer.getY();
+        s.playerR           = mainPlayer.getR();
+        s.playerHealth      = mainPlayer.getHealth();
+        
+        for (int i = 0; i < s.enemyCount; i++) {
+            Enemy e = i < alive ? enemies.get(i) : deadEnemies.get(i - alive);
+            s.enemyX[i]             = e.getX();
+            s.enemyY[i]             = e.getY();
+            s.enemyType[i]          = (byte)e.getArchetype().type;
+            s.enemyAlive[i]         = (byte)(i < alive ? 1 : 0);
+            s.enemyHealth[i]        = e.getCurrentHealth();
+            s.enemyPreviousTime[i]  = e.getPreviousTime();
+        }
+        
+        for (int i = 0; i < s.bulletCount; i++) {
+            Bullet b = bullets.get(i);
+            s.bulletX[i]            = b.getX();
+            s.bulletY[i]            = b.getY();
+            s.bulletR[i]            = b.getR();
+            s.bulletRise[i]         = b.getRise();
+            s.bulletRun[i]          = b.getRun();
+            s.bulletExploding[i]    = 0;
+            s.bulletPreviousTime[i] = b.getPreviousTime();
+            s.bulletDamage[i]       = b.getDamage();
+        }
+        
+        return s;
+    }
+    
+    
+    /**
+     * Replaces the game with the one stored in a snapshot.
+     * 
+     * @param s     The snapshot to restore.
+     */
+    private static void restoreSnapshot(GameSnapshot s) {
+        clearBullets();
+        particles.clear();
+        playerField.getChildren().clear();
+        poolEnemies();
+        
+        gameTime        = s.gameTime;
+        lastRefreshTime = s.lastRefreshTime;
+        lastSweepTime   = s.lastSweepTime;
+        lastSpawnTime   = s.lastSpawnTime;
+        amountKilled    = s.amountKilled;
+        random.setState(s.randomState);
+        input.setLastShotTime(s.lastShotTime);
+        input.setWeapon(s.playerWeapon);
+        
+        if(mainPlayer == null) {
+            mainPlayer = new MainPlayer(playerField, 
+                                        Assets.getMainPlayerImage(),
+                                        s.playerX, s.playerY, s.playerR,
+                                        0, 0, 0, input);
+        } else {
+            mainPlayer.reset(s.playerX, s.playerY);
+            mainPlayer.setR(s.playerR);
+        }
+        mainPlayer.setHealth(s.playerHealth);
+        mainPlayer.updateUI();
+        playerField.getChildren().add(mainPlayer.getImageView());
+        
+        for (int i = 0; i < s.enemyCount; i++) {
+            Enemy e = obtainEnemy(EnemyArchetype.get(s.enemyType[i]), s.enemyX[i], s.enemyY[i]);
+            e.setCurrentHealth(s.enemyHealth[i]);
+            e.setPreviousTime(s.enemyPreviousTime[i]);
+            
+            if(s.enemyAlive[i] != 0) {
+                e.updateUI();
+                enemies.add(e);
+            } else {
+                e.showDead();
+                deadEnemies.add(e);
+            }
+            playerField.getChildren().add(e.getImageView());
+        }
+        
+        // Older saves could hold a bullet that was blowing up; only its 
+        // explosion is left of it.
+        for (int i = 0; i < s.bulletCount; i++) {
+            if (s.bulletExploding[i] != 0) {
+                particles.emit(ParticleSystem.EXPLOSION, s.bulletX[i], s.bulletY[i], 
+                                s.bulletPreviousTime[i]);
+                continue;
+            }
+            obtainBullet().fire(playerField, s.bulletX[i], s.bulletY[i],
+                                s.bulletRise[i], s.bulletRun[i], s.bulletR[i],
+                                s.bulletDamage[i], s.bulletPreviousTime[i]);
+        }
     }
-}
\ No newline at end of file
+}
@@ -55,6 +55,28 @@ public class GameMath {
      * @return  An array containing the slope's rise and run.
      */
     public static double[] calculateSlope(double x1, double x2, double y1, double y2) {       
+        return calculateSlope(x1, x2, y1, y2, RuntimeSettings.getScaleMax(), new double[2]);
+    }
+    
+    
+    /**
+     * Calculates the slope between two points, scaled so the bigger of the rise
+     * and the run is equal to scale. This is the same calculation used by 
+     * calculateSlope(x1,x2,y1,y2), but it writes the result into an existing 
+     * array so it can be used for many entities without creating an array for
+     * each one.
+     * 
+     * @param x1    The x-coordinate of the first point.
+     * @param x2    The x-coordinate of the second point.
+     * @param y1    The y-coordinate of the first point.
+     * @param y2    The y-coordinate of the second point.
+     * @param scale The size of the bigger of the rise and the run.
+     * @param slope The array the rise and run are written to.
+     * 
+     * @return  The slope array, containing the rise and run.
+     */
+    public static double[] calculateSlope(double x1, double x2, double y1, double y2,
+                                            double scale, double[] slope) {
                        
         double rise = y2 - y1, run = x2 - x1;
         boolean nRise = false, nRun = false;
@@ -70,17 +92,19 @@ public class GameMath {
         }
         
         if (Math.max(rise, run) == rise) {
-            run = (Settings.SCALE_MAX * run) / rise;
-            rise = Settings.SCALE_MAX;
+            run = (scale * run) / rise;
+            rise = scale;
         } else {
-            rise = (Settings.SCALE_MAX * rise) / run;
-            run = Settings.SCALE_MAX;
+            rise = (scale * rise) / run;
+            run = scale;
         }
         
         if (nRise) rise *= -1;
         if (nRun) run *= -1;
         
-        return new double[]{rise,run};
+        slope[0] = rise;
+        slope[1] = run;
+        return slope;
     }   
     
     
@@ -117,6 +141,109 @@ public class GameMath {
         if (angle < 0) {angle += 360;}                                                   
         
         return angle;
-    } 
+    }
+    
+    
+    /**
+     * Returns true if two circles overlap. Circles don't change when a sprite
+     * is rotated, so this works for the players and enemies no matter which 
+     * way they face.
+     * 
+     * @param x1    The x-coordinate of the first circle's center.
+     * @param y1    The y-coordinate of the first circle's center.
+     * @param r1    The first circle's radius.
+     * @param x2    The x-coordinate of the second circle's center.
+     * @param y2    The y-coordinate of the second circle's center.
+     * @param r2    The second circle's radius.
+     * 
+     * @return      true if the circles overlap.
+     */
+    public static boolean circlesOverlap(double x1, double y1, double r1,
+                                            double x2, double y2, double r2) {
+        double dx = x2 - x1, dy = y2 - y1, r = r1 + r2;
+        return dx * dx + dy * dy < r * r;
+    }
+    
+    
+    /**
+     * Returns true if two boxes overlap. Each box is given as its top left
+     * corner, width and height.
+     */
+    public static boolean boxesOverlap(double x1, double y1, double w1, double h1,
+                                        double x2, double y2, double w2, double h2) {
+        return x1 < x2 + w2 && x2 < x1 + w1 && y1 < y2 + h2 && y2 < y1 + h1;
+    }
+    
+    
+    /**
+     * Finds where a point moving in a straight line first touches a box. This
+     * is the slab method: the point is inside the box while it is between the
+     * box's left and right sides and between its top and bottom, so the point
+     * enters the box at the latest of the times it gets between each pair of 
+     * sides, as long as that is before the earliest time it leaves one.
+     * 
+     * @param x     The x-coordinate the point starts at.
+     * @param y     The y-coordinate the point starts at.
+     * @param dx    How far the point moves along the x axis.
+     * @param dy    How far the point moves along the y axis.
+     * @param minX  The box's left side.
+     * @param minY  The box's top side.
+     * @param maxX  The box's right side.
+     * @param maxY  The box's bottom side.
+     * 
+     * @return      How far along the movement the point enters the box, from 0
+     *              to 1, or -1 if it doesn't. 0 if the point starts inside.
+     */
+    public static double sweepBox(double x, double y, double dx, double dy,
+                                    double minX, double minY, double maxX, double maxY) {
+        double enter = 0, exit = 1;
+        
+        if (dx == 0) {
+            if (x <= minX || x >= maxX) return -1;
+        } else {
+            double t1 = (minX - x) / dx, t2 = (maxX - x) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit  = Math.min(exit, Math.max(t1, t2));
+        }
+        
+        if (dy == 0) {
+            if (y <= minY || y >= maxY) return -1;
+        } else {
+            double t1 = (minY - y) / dy, t2 = (maxY - y) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit  = Math.min(exit, Math.max(t1, t2));
+        }
+        
+        return enter < exit ? enter : -1;
+    }
+    
+    
+    /**
+     * Finds where a point moving in a straight line from inside a box reaches
+     * one of the box's sides.
+     * 
+     * @param x     The x-coordinate the point starts at.
+     * @param y     The y-coordinate the point starts at.
+     * @param dx    How far the point moves along the x axis.
+     * @param dy    How far the point moves along the y axis.
+     * @param minX  The box's left side.
+     * @param minY  The box's top side.
+     * @param maxX  The box's right side.
+     * @param maxY  The box's bottom side.
+     * 
+     * @return      How far along the movement the point reaches a side, from 0
+     *              to 1, or -1 if it stays inside.
+     */
+    public static double sweepExit(double x, double y, double dx, double dy,
+                                    double minX, double minY, double maxX, double maxY) {
+        double exit = Double.MAX_VALUE;
+        
+        if (dx > 0) exit = Math.min(exit, (maxX - x) / dx);
+        if (dx < 0) exit = Math.min(exit, (minX - x) / dx);
+        if (dy > 0) exit = Math.min(exit, (maxY - y) / dy);
+        if (dy < 0) exit = Math.min(exit, (minY - y) / dy);
+        
+        return exit <= 1 ? Math.max(0, exit) : -1;
+    }
         
 }
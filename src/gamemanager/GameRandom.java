@@ -0,0 +1,91 @@
+package gamemanager;
+
+import java.util.Random;
+
+/**
+ * A Random whose internal seed can be read and written. java.util.Random hides
+ * its seed, so a saved game could never continue with the same sequence of
+ * enemy spawns. This class uses the exact same linear congruential generator as
+ * java.util.Random, so nextInt() and friends behave the same way they always
+ * have; the only difference is that the state can be captured and restored.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class GameRandom extends Random {
+
+
+    private static final long serialVersionUID = 1L;
+
+
+    /** The multiplier used by java.util.Random. */
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+
+
+    /** The addend used by java.util.Random. */
+    private static final long ADDEND = 0xBL;
+
+
+    /** The seed is only ever 48 bits wide. */
+    private static final long MASK = (1L << 48) - 1;
+
+
+    /**
+     * The current scrambled seed. This is not given an initializer because the
+     * super constructor calls setSeed() before field initializers would run.
+     */
+    private long state;
+
+
+    /**
+     * Creates a new GameRandom seeded from the current time.
+     */
+    public GameRandom() {
+        this(System.nanoTime());
+    }
+
+
+    /**
+     * Creates a new GameRandom with the given seed.
+     *
+     * @param seed  The initial seed.
+     */
+    public GameRandom(long seed) {
+        super(seed);
+    }
+
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        state = (seed ^ MULTIPLIER) & MASK;
+        super.setSeed(seed);
+    }
+
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int)(state >>> (48 - bits));
+    }
+
+
+    /**
+     * Returns the generator's internal state. Passing this value to setState()
+     * will make this generator repeat the same sequence of numbers.
+     *
+     * @return  The generator's internal state.
+     */
+    public long getState() {
+        return state;
+    }
+
+
+    /**
+     * Restores the state returned by getState().
+     *
+     * @param state     The state to restore.
+     */
+    public void setState(long state) {
+        this.state = state & MASK;
+    }
+}
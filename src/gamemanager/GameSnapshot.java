@@ -0,0 +1,103 @@
+package gamemanager;
+
+/**
+ * A copy of the full game state taken between two updates of the game. The
+ * enemies and bullets are stored as columns of primitives rather than as
+ * objects so that capturing a snapshot is a handful of array writes per entity,
+ * and so that the SaveGame class can copy whole columns in and out of a buffer
+ * at once. A snapshot never references a live object from the game, which means
+ * it can be handed to another thread and written to disk while the game keeps
+ * running.
+ *
+ * @see gamemanager.SaveGame
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class GameSnapshot {
+
+
+    /** The game time, in milliseconds, the snapshot was taken at. */
+    long gameTime;
+
+
+    /**
+     * The game times the enemies and stats were last updated, the dead bodies
+     * were last cleared, enemies were last spawned, and a bullet was last fired.
+     */
+    long lastRefreshTime, lastSweepTime, lastSpawnTime, lastShotTime;
+
+
+    /** The amount of enemies killed. */
+    int amountKilled;
+
+
+    /** The state of the random number generator used to spawn players. */
+    long randomState;
+
+
+    /** The main player's location, rotation and health, and its weapon's index. */
+    double playerX, playerY, playerR;
+    int playerHealth, playerWeapon;
+
+
+    /** The amount of enemies, alive and dead, in this snapshot. */
+    int enemyCount;
+
+
+    /** The enemy columns. An entry in enemyAlive is zero for a dead body. */
+    double[] enemyX, enemyY;
+    byte[] enemyType, enemyAlive;
+    int[] enemyHealth;
+    long[] enemyPreviousTime;
+
+
+    /** The amount of bullets in this snapshot. */
+    int bulletCount;
+
+
+    /** The bullet columns. An entry in bulletExploding is one if it exploded. */
+    double[] bulletX, bulletY, bulletR, bulletRise, bulletRun;
+    byte[] bulletExploding;
+    long[] bulletPreviousTime;
+    int[] bulletDamage;
+
+
+    /**
+     * Creates a snapshot with room for the given amount of enemies and bullets.
+     *
+     * @param enemyCount    The amount of enemies.
+     * @param bulletCount   The amount of bullets.
+     */
+    GameSnapshot(int enemyCount, int bulletCount) {
+        this.enemyCount         = enemyCount;
+        this.enemyX             = new double[enemyCount];
+        this.enemyY             = new double[enemyCount];
+        this.enemyType          = new byte[enemyCount];
+        this.enemyAlive         = new byte[enemyCount];
+        this.enemyHealth        = new int[enemyCount];
+        this.enemyPreviousTime  = new long[enemyCount];
+
+        this.bulletCount        = bulletCount;
+        this.bulletX            = new double[bulletCount];
+        this.bulletY            = new double[bulletCount];
+        this.bulletR            = new double[bulletCount];
+        this.bulletRise         = new double[bulletCount];
+        this.bulletRun          = new double[bulletCount];
+        this.bulletExploding    = new byte[bulletCount];
+        this.bulletPreviousTime = new long[bulletCount];
+        this.bulletDamage       = new int[bulletCount];
+    }
+
+
+    /*
+        The amount of entities is all the outside world needs to know about.
+    */
+    public int getEnemyCount() {
+        return enemyCount;
+    }
+
+    public int getBulletCount() {
+        return bulletCount;
+    }
+}
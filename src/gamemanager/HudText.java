@@ -0,0 +1,88 @@
+package gamemanager;
+
+import javafx.scene.control.Label;
+
+/**
+ * A line of the HUD made of fixed text and numbers, like "Health: 50". The
+ * numbers are set every update, but the Label is only given new text when one
+ * of them changed, since setting a Label's text makes JavaFX lay it out again.
+ * The text is built in a StringBuilder that is kept and reused.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class HudText {
+
+
+    /** The label the text is shown in. */
+    private final Label label;
+
+
+    /** The fixed text in front of each number, and after the last. */
+    private final String[] parts;
+
+
+    /** The numbers, in the order they are shown. */
+    private final long[] values;
+
+
+    /** True if a number changed since the label's text was set. */
+    private boolean dirty = true;
+
+
+    /** The text is built here. */
+    private final StringBuilder text = new StringBuilder();
+
+
+    /**
+     * Creates a HUD line.
+     *
+     * @param label     The label the text is shown in.
+     * @param parts     The fixed text in front of each number, then the text
+     *                  after the last one. There is one number less than
+     *                  there are parts.
+     */
+    public HudText(Label label, String... parts) {
+        this.label  = label;
+        this.parts  = parts;
+        this.values = new long[parts.length - 1];
+    }
+
+
+    /**
+     * Sets a number. Does nothing if it didn't change.
+     *
+     * @param index     The number's index, the same as the part in front.
+     * @param value     The number.
+     */
+    public void set(int index, long value) {
+        if (values[index] != value) {
+            values[index] = value;
+            dirty = true;
+        }
+    }
+
+
+    /**
+     * Shows the numbers in the label if any of them changed.
+     *
+     * @return  true if the label's text was set.
+     */
+    public boolean update() {
+        if (!dirty) return false;
+
+        text.setLength(0);
+        for (int i = 0; i < values.length; i++) {
+            text.append(parts[i]).append(values[i]);
+        }
+        text.append(parts[values.length]);
+        label.setText(text.toString());
+        dirty = false;
+        return true;
+    }
+
+
+    public Label getLabel() {
+        return label;
+    }
+}
@@ -1,18 +1,25 @@
 package gamemanager;
 
 import java.util.BitSet;
-import javafx.animation.AnimationTimer;
 import javafx.event.EventHandler;
 import javafx.scene.Scene;
-import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
-import players.Bullet;
 
 
 /**
  * Processes events that pertain to the functionality of the main player.
+ * 
+ * The event handlers only remember the latest state of the keyboard and mouse;
+ * mouse moves and drags just overwrite the last position, so a fast mouse costs
+ * nothing but a few stores. Once per update the GameManager calls sample(), 
+ * which turns that state into what the main player does during the update: 
+ * which way to move, where to aim, and whether to fire. The aim angle is only
+ * worked out there, once per update.
+ * 
+ * The time from the first event that arrived since the previous update to the
+ * update that used it is measured as the input latency.
  *
  * @author Jackie Chan Apr 17, 2016
  */
@@ -26,12 +33,9 @@ public class Input {
 
     
     /**
-     * Key codes for the WASD keys.
+     * The keys bound to each action.
      */
-    private final KeyCode upKey = KeyCode.W;
-    private final KeyCode leftKey = KeyCode.A;
-    private final KeyCode downKey = KeyCode.S;
-    private final KeyCode rightKey = KeyCode.D;
+    private final KeyBindings bindings;
 
     
     /**
@@ -53,23 +57,69 @@ public class Input {
     
     
     /**
-     * A boolean variable that tracks if the mouse is being pressed.
+     * Shows the playerField. Converts mouse positions to world units.
      */
-    private boolean isShooting = false;
+    private Viewport viewport;
+    
+    
+    /**
+     * The latest mouse position and button state, set by the event handlers.
+     * presses counts the presses since the previous sample, so a click that
+     * is pressed and released between two updates still fires.
+     */
+    private double mouseX = 0, mouseY = 0;
+    private boolean mouseDown = false;
+    private int presses = 0;
+    
+    
+    /**
+     * The state sampled for the current update.
+     */
+    private boolean moveUp, moveLeft, moveDown, moveRight, firing;
+    private double aimX = 0, aimY = 0;
+    
     
-                    
     /**
-     * When a user presses a mouse button, this MouseEvent will have its value
-     * set to the MouseEvent corresponding with the press.
+     * The System.nanoTime() of the first event since the previous sample, or 0 
+     * if there was none.
      */
-    private MouseEvent mousePressedEvent;
-    private MouseEvent mouseMovedEvent;
+    private long pendingSince = 0;
     
     
     /**
-     * Will fire bullets.
+     * Input latency totals, in nanoseconds.
      */
-    private AnimationTimer gunshotAnimation;                
+    private long lastLatency = 0, maxLatency = 0, totalLatency = 0, latencySamples = 0;
+    
+    
+    /**
+     * The game time the last shot was fired at.
+     */
+    private long lastShotTime = -RuntimeSettings.getBulletFiringDelay();
+    
+    
+    /**
+     * The index of the weapon in GameManager.weapons that is fired.
+     */
+    private int weapon = 0;
+    
+    
+    /**
+     * The amount of shots fired, which spreads the pellets. See Weapon.
+     */
+    private long shots = 0;
+    
+    
+    /**
+     * Whether the previous update fired, so a new burst starts on time.
+     */
+    private boolean wasFiring = false;
+    
+    
+    /**
+     * Where each pellet goes: its rise and run.
+     */
+    private final double[] pelletSlope = new double[2];
 
     
     /**
@@ -77,12 +127,14 @@ public class Input {
      * that pertain to the functionality of the main player.
      *
      * @param scene The scene where the listeners should be added.
-     * @param playerField The Pane that the player is on.
+     * @param viewport The Viewport whose world the player is on.
+     * @param bindings The keys bound to each action.
      */
-    public Input(Scene scene, Pane playerField) {
+    public Input(Scene scene, Viewport viewport, KeyBindings bindings) {
         this.scene = scene;
-        this.playerField = playerField;
-        setupBulletTimer();
+        this.viewport = viewport;
+        this.playerField = viewport.getWorld();
+        this.bindings = bindings;
     }
 
     
@@ -93,11 +145,16 @@ public class Input {
         @Override
         public void handle(KeyEvent e) {
             keyboardBitSet.set(e.getCode().ordinal(), true);
+            eventArrived();
             
-            if(mouseMovedEvent != null)             
-                updateAngle(mouseMovedEvent);
-            if(e.getCode() == KeyCode.T) {
+            if(e.getCode() == bindings.getKey(KeyBindings.PAUSE)) {
                 GameManager.pauseGame();
+            } else if(e.getCode() == bindings.getKey(KeyBindings.SAVE)) {
+                GameManager.saveGame();
+            } else if(e.getCode() == bindings.getKey(KeyBindings.OVERLAY)) {
+                GameManager.toggleOverlay();
+            } else if(e.getCode() == bindings.getKey(KeyBindings.WEAPON)) {
+                setWeapon(weapon + 1);
             }
         }
     };
@@ -110,92 +167,158 @@ public class Input {
         @Override
         public void handle(KeyEvent e) {
             keyboardBitSet.set(e.getCode().ordinal(), false);                
+            eventArrived();
         }
 
     };
     
     
     /**
-     * Starts the bullet firing animation timer. This timer will fire bullets at
-     * the specified firing rate.
+     * Remembers that a mouse button is down. Bullets are fired by sample().
      */
     private EventHandler<MouseEvent> mousePressedEventHandler = new EventHandler<MouseEvent>() {
         @Override
         public void handle(MouseEvent e) {  
-            System.out.println("Input:\tMouse Pressed Event Fired");
-            mousePressedEvent = e;
-            if(!isShooting) {
-                isShooting = true;
-                if(GameManager.gameActive()) gunshotAnimation.start();
-                System.out.println("Started shooting");
-            }
-            
+            mouseX = viewport.toWorldX(e.getSceneX());
+            mouseY = viewport.toWorldY(e.getSceneY());
+            mouseDown = true;
+            presses++;
+            eventArrived();
         }
         
     };
     
     
     /**
-     * Updates the current angle that the player should be rotated to. This is 
-     * only called if no mouse button is being pressed.
+     * Remembers where the mouse is. Only the latest position is kept.
      */
     private EventHandler<MouseEvent> mouseMovedEventHandler = new EventHandler<MouseEvent>() {
         @Override
         public void handle(MouseEvent e) {
-            mouseMovedEvent = e;
-            updateAngle(e);
+            mouseX = viewport.toWorldX(e.getSceneX());
+            mouseY = viewport.toWorldY(e.getSceneY());
+            eventArrived();
         }
     };
     
     
     /**
-     * Stops the AnimationTimer that is firing bullets.
+     * Remembers that no mouse button is down.
      */
     private EventHandler<MouseEvent> mouseReleasedEventHandler = new EventHandler<MouseEvent>() {
         
         @Override
         public void handle(MouseEvent e) {
-            System.out.println("Input:\tMouse Released Event Fired");
-            gunshotAnimation.stop();
-            isShooting = false;
-            System.out.println("Stopped shooting.");
+            mouseDown = false;
+            eventArrived();
         }
     };
     
     
     /**
-     * Sets up the AnimationTimer that will fire bullets.
+     * Notes the arrival time of the first event since the previous sample.
      */
-    public void setupBulletTimer() {
-        gunshotAnimation = new AnimationTimer() {
-            
-            long previousTime = 0;
-            
-            @Override
-            public void handle(long now) {
-                if (GameManager.gameActive()) {
-                    
-                    long time = now / 1000000;
-                    
-                    if (time - previousTime >= Settings.BULLET_FIRING_DELAY) {
-                        new Bullet(GameManager.mainPlayer.getCenterX(), 
-                                    GameManager.mainPlayer.getCenterY(), 
-                                    mousePressedEvent.getX(), 
-                                    mousePressedEvent.getY(),
-                                    GameMath.calculateAngle(GameManager.mainPlayer.getCenterX(),
-                                                            GameManager.mainPlayer.getCenterY(),
-                                                            mousePressedEvent.getX(),
-                                                            mousePressedEvent.getY()))
-                                    .start(playerField);                    
-                        previousTime = time;
-                    }
-                } else {
-                    this.stop();
-                    isShooting = false;
-                }
+    private void eventArrived() {
+        if(pendingSince == 0) pendingSince = System.nanoTime();
+    }
+    
+    
+    /**
+     * Turns the latest keyboard and mouse state into the input for this update
+     * and fires the shots that are due. Call this once per update, before the 
+     * main player moves.
+     * 
+     * @param time  The current game time in milliseconds.
+     */
+    public void sample(long time) {
+        boolean up      = keyboardBitSet.get(bindings.getKey(KeyBindings.UP).ordinal());
+        boolean down    = keyboardBitSet.get(bindings.getKey(KeyBindings.DOWN).ordinal());
+        boolean left    = keyboardBitSet.get(bindings.getKey(KeyBindings.LEFT).ordinal());
+        boolean right   = keyboardBitSet.get(bindings.getKey(KeyBindings.RIGHT).ordinal());
+        
+        moveUp      = up && !down;
+        moveDown    = down && !up;
+        moveLeft    = left && !right;
+        moveRight   = right && !left;
+        
+        aimX        = mouseX;
+        aimY        = mouseY;
+        firing      = mouseDown || presses > 0;
+        presses     = 0;
+        
+        playerAngle = GameMath.calculateAngle(
+                GameManager.mainPlayer.getCenterX(), 
+                GameManager.mainPlayer.getCenterY(), 
+                aimX, aimY);
+        
+        if(pendingSince != 0) {
+            lastLatency = System.nanoTime() - pendingSince;
+            maxLatency = Math.max(maxLatency, lastLatency);
+            totalLatency += lastLatency;
+            latencySamples++;
+            pendingSince = 0;
+        }
+        
+        fire(time);
+    }
+    
+    
+    /**
+     * Fires the shots of the current weapon that are due. A weapon can fire
+     * faster than the game updates, so every shot since the previous update is
+     * fired at once, up to Settings.MAX_SHOTS_PER_UPDATE, each with all of its
+     * pellets. A shot's pellets start as far along as they would have been 
+     * had the shot been fired on time, and they come from the bullet pool, so
+     * a burst creates nothing. Each shot has one sound and one muzzle flash.
+     * 
+     * @param time  The current game time in milliseconds.
+     */
+    private void fire(long time) {
+        Weapon w = GameManager.weapons[weapon];
+        long delay = Math.max(1, w.getFireDelay());
+        
+        if(!firing) {
+            wasFiring = false;
+            return;
+        }
+        
+        // A new burst fires its first shot now, not the shots it missed.
+        if(!wasFiring && time - lastShotTime >= delay) {
+            lastShotTime = time - delay;
+        }
+        wasFiring = true;
+        
+        long due = (time - lastShotTime) / delay;
+        if(due <= 0) return;
+        int count = (int)Math.min(due, Settings.MAX_SHOTS_PER_UPDATE);
+        
+        double cx = GameManager.mainPlayer.getCenterX();
+        double cy = GameManager.mainPlayer.getCenterY();
+        double dx = aimX - cx, dy = aimY - cy;
+        
+        // The flash goes at the end of the barrel, in front of the player.
+        double distance = Math.max(GameMath.calculateDistance(cx, cy, aimX, aimY), 
+                                    MovementKernel.MIN_DISTANCE);
+        double muzzle = GameManager.mainPlayer.getRadius() / distance;
+        
+        for(int shot = count - 1; shot >= 0; shot--) {
+            long shotTime = lastShotTime + (due - shot) * delay;
+            for(int p = 0; p < w.pellets; p++) {
+                w.pelletSlope(p, shots, dx, dy, pelletSlope);
+                GameManager.obtainBullet().fire(playerField, cx, cy, 
+                        pelletSlope[0], pelletSlope[1], playerAngle, w.damage,
+                        shotTime - RuntimeSettings.getBulletMovementDelay());
             }
-        };
-    }     
+            shots++;
+            
+            SoundManager.play(SoundManager.GUNSHOT);
+            GameManager.particles.emit(ParticleSystem.MUZZLE_FLASH,
+                    cx + dx * muzzle, cy + dy * muzzle, shotTime);
+        }
+        
+        // Shots that were due but dropped aren't owed later.
+        lastShotTime += due * delay;
+    }
     
 
     /**
@@ -205,19 +328,27 @@ public class Input {
         scene.addEventFilter(KeyEvent.KEY_PRESSED, keyPressedEventHandler);
         scene.addEventFilter(KeyEvent.KEY_RELEASED, keyReleasedEventHandler);
         scene.addEventFilter(MouseEvent.MOUSE_PRESSED, mousePressedEventHandler);
-        scene.addEventFilter(MouseEvent.MOUSE_DRAGGED, mousePressedEventHandler);
         scene.addEventFilter(MouseEvent.MOUSE_RELEASED, mouseReleasedEventHandler);
-        scene.addEventFilter(MouseEvent.ANY, mouseMovedEventHandler);
+        scene.addEventFilter(MouseEvent.MOUSE_MOVED, mouseMovedEventHandler);
+        scene.addEventFilter(MouseEvent.MOUSE_DRAGGED, mouseMovedEventHandler);
     }
     
     
+    /**
+     * Call this when the game stops. Keys and buttons released while the 
+     * listeners are gone are never seen, so nothing is left held down.
+     */
     public void removeListeners() {
         scene.removeEventFilter(KeyEvent.KEY_PRESSED, keyPressedEventHandler);
         scene.removeEventFilter(KeyEvent.KEY_RELEASED, keyReleasedEventHandler);
         scene.removeEventFilter(MouseEvent.MOUSE_PRESSED, mousePressedEventHandler);
-        scene.removeEventFilter(MouseEvent.MOUSE_DRAGGED, mousePressedEventHandler);        
         scene.removeEventFilter(MouseEvent.MOUSE_RELEASED, mouseReleasedEventHandler);
-        scene.removeEventFilter(MouseEvent.ANY, mouseMovedEventHandler);
+        scene.removeEventFilter(MouseEvent.MOUSE_MOVED, mouseMovedEventHandler);
+        scene.removeEventFilter(MouseEvent.MOUSE_DRAGGED, mouseMovedEventHandler);
+        keyboardBitSet.clear();
+        mouseDown       = false;
+        presses         = 0;
+        pendingSince    = 0;
     }
 
 
@@ -227,7 +358,7 @@ public class Input {
      * @return if the main player should move up.
      */
     public boolean isMoveUp() {
-        return keyboardBitSet.get(upKey.ordinal()) && !keyboardBitSet.get(downKey.ordinal());
+        return moveUp;
     }
 
     /**
@@ -236,7 +367,7 @@ public class Input {
      * @return if the main player should move down.
      */
     public boolean isMoveDown() {
-        return keyboardBitSet.get(downKey.ordinal()) && !keyboardBitSet.get(upKey.ordinal());
+        return moveDown;
     }
 
     /**
@@ -245,7 +376,7 @@ public class Input {
      * @return if the main player should move left.
      */
     public boolean isMoveLeft() {
-        return keyboardBitSet.get(leftKey.ordinal()) && !keyboardBitSet.get(rightKey.ordinal());
+        return moveLeft;
     }
 
     /**
@@ -254,19 +385,7 @@ public class Input {
      * @return if the main player should move right.
      */
     public boolean isMoveRight() {
-        return keyboardBitSet.get(rightKey.ordinal()) && !keyboardBitSet.get(leftKey.ordinal());
-    }
-
-    /**
-     * Updates the angle that the main player should be at.
-     *
-     * @param e The mouse event that holds the mouse pointer's x,y coordinates.
-     */
-    public void updateAngle(MouseEvent e) {
-        playerAngle = GameMath.calculateAngle(
-                GameManager.mainPlayer.getCenterX(), 
-                GameManager.mainPlayer.getCenterY(), 
-                e.getX(), e.getY());
+        return moveRight;
     }
 
     /**
@@ -278,10 +397,70 @@ public class Input {
         return playerAngle;
     }
     
+    /**
+     * Returns if the main player is firing during this update.
+     *
+     * @return if the main player is firing.
+     */
+    public boolean isFiring() {
+        return firing;
+    }
+    
     public void resetSettings() {
-        gunshotAnimation.stop();
-        this.isShooting = false;
-        keyboardBitSet.clear();
+        removeListeners();
+        this.lastShotTime = -RuntimeSettings.getBulletFiringDelay();
+        this.wasFiring = false;
+        moveUp = moveLeft = moveDown = moveRight = firing = false;
+    }
+    
+    /*
+        The input latency is the time from the first event after an update to 
+        the update that used it, in milliseconds.
+    */
+    public double getLastInputLatency() {
+        return lastLatency / 1e6;
+    }
+    
+    public double getMaxInputLatency() {
+        return maxLatency / 1e6;
+    }
+    
+    public double getAverageInputLatency() {
+        return latencySamples == 0 ? 0 : totalLatency / 1e6 / latencySamples;
+    }
+    
+    /**
+     * Returns the game time the last bullet was fired at.
+     *
+     * @return the game time the last bullet was fired at.
+     */
+    public long getLastShotTime() {
+        return lastShotTime;
+    }
+    
+    public void setLastShotTime(long lastShotTime) {
+        this.lastShotTime = lastShotTime;
+    }
+    
+    /**
+     * Returns the index of the weapon being fired, in GameManager.weapons.
+     *
+     * @return the index of the weapon.
+     */
+    public int getWeapon() {
+        return weapon;
+    }
+    
+    /**
+     * Switches weapons. An index past the last weapon wraps around to the
+     * first, so the weapon key can switch through them all.
+     *
+     * @param weapon the index of the weapon in GameManager.weapons.
+     */
+    public void setWeapon(int weapon) {
+        this.weapon = Math.floorMod(weapon, GameManager.weapons.length);
+        this.wasFiring = false;
+        System.out.println("Input:\tWeapon: "+GameManager.weapons[this.weapon].name);
     }
 
 }
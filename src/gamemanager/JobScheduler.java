@@ -0,0 +1,229 @@
+package gamemanager;
+
+import java.util.ArrayDeque;
+
+/**
+ * Runs bulk work, like clearing dead bodies or spawning a wave, a slice at a
+ * time within a time budget every frame, so it never makes one frame much
+ * slower than the others. A job does a small amount of work each time its
+ * step() is called and says when it is finished; jobs that aren't finished
+ * when the budget runs out carry on in the next frame.
+ *
+ * Jobs of a higher priority run first, and jobs of the same priority take
+ * turns. A priority that gets no time for Settings.JOB_STARVATION_FRAMES
+ * frames in a row, because the ones above always used the whole budget, runs
+ * first in the next frame, so low priority work is late but never stuck.
+ *
+ * A slice is never interrupted, so the budget can be overrun by up to one
+ * slice; getMaxOverrun() tells by how much. At least one slice runs every
+ * frame, so a budget that is too small slows jobs down without stopping them.
+ *
+ * Must only be used on the JavaFX thread.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class JobScheduler {
+
+
+    /** Priorities, from first to last. */
+    public static final int HIGH = 0, NORMAL = 1, LOW = 2;
+
+
+    /**
+     * Work that is done a slice at a time.
+     */
+    public interface Job {
+
+        /**
+         * Does a slice of the work. A slice should take well under the
+         * scheduler's budget, like a fraction of a millisecond.
+         *
+         * @return  true if the job is finished; false to be called again.
+         */
+        boolean step();
+    }
+
+
+    /** The jobs waiting at each priority, in the order they take turns. */
+    private final ArrayDeque<Job>[] queues;
+
+
+    /** The frames in a row each priority had work but got no time. */
+    private final int[] starved;
+
+
+    /** Counters for how the scheduler is doing. */
+    private long slices = 0, completed = 0, deferredFrames = 0;
+    private long lastRunTime = 0, maxOverrun = 0;
+
+
+    /**
+     * Creates a scheduler with no jobs.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public JobScheduler() {
+        queues = new ArrayDeque[LOW + 1];
+        for (int p = 0; p < queues.length; p++) queues[p] = new ArrayDeque<>();
+        starved = new int[queues.length];
+    }
+
+
+    /**
+     * Adds a job. Its first slice runs in the next call to run() that has
+     * time for it.
+     *
+     * @param job       The job.
+     * @param priority  HIGH, NORMAL or LOW.
+     */
+    public void submit(Job job, int priority) {
+        queues[priority].add(job);
+    }
+
+
+    /**
+     * Runs slices of the waiting jobs until they are all finished or the
+     * budget is used up. Call this once per frame.
+     *
+     * @param budget    The time the jobs may take, in nanoseconds.
+     */
+    public void run(long budget) {
+        long start = System.nanoTime();
+        long deadline = start + budget;
+        boolean ran = false;
+
+        // A priority that has been waiting too long goes first this time.
+        for (int p = 0; p < queues.length; p++) {
+            if (starved[p] >= Settings.JOB_STARVATION_FRAMES) {
+                ran |= runQueue(p, deadline, ran);
+                break;
+            }
+        }
+
+        for (int p = 0; p < queues.length; p++) {
+            ran |= runQueue(p, deadline, ran);
+        }
+
+        // Note which priorities were left waiting.
+        boolean deferred = false;
+        for (int p = 0; p < queues.length; p++) {
+            if (queues[p].isEmpty()) {
+                starved[p] = 0;
+            } else {
+                deferred = true;
+            }
+        }
+        if (deferred) deferredFrames++;
+
+        long end = System.nanoTime();
+        lastRunTime = end - start;
+        if (ran) maxOverrun = Math.max(maxOverrun, end - deadline);
+    }
+
+
+    /**
+     * Runs slices of one priority's jobs until they are finished or the time
+     * is up. If they don't all finish, the priority is counted as starved
+     * unless it got a slice.
+     *
+     * @param priority  The priority.
+     * @param deadline  When to stop, from System.nanoTime().
+     * @param ran       True if a slice already ran this frame.
+     * @return          True if a slice ran.
+     */
+    private boolean runQueue(int priority, long deadline, boolean ran) {
+        ArrayDeque<Job> queue = queues[priority];
+        boolean progressed = false;
+
+        while (!queue.isEmpty()) {
+            if ((ran || progressed) && System.nanoTime() >= deadline) break;
+
+            Job job = queue.poll();
+            slices++;
+            progressed = true;
+            if (job.step()) {
+                completed++;
+            } else {
+                queue.add(job);
+            }
+        }
+
+        if (progressed) {
+            starved[priority] = 0;
+        } else if (!queue.isEmpty()) {
+            starved[priority]++;
+        }
+        return progressed;
+    }
+
+
+    /**
+     * Runs every waiting job to the end, however long it takes. This is for
+     * when the work can't wait, like before the game is saved.
+     */
+    public void drain() {
+        for (int p = 0; p < queues.length; p++) {
+            ArrayDeque<Job> queue = queues[p];
+            while (!queue.isEmpty()) {
+                Job job = queue.peek();
+                slices++;
+                if (job.step()) {
+                    queue.poll();
+                    completed++;
+                }
+            }
+            starved[p] = 0;
+        }
+    }
+
+
+    /**
+     * Drops every waiting job without running it, like when a new game is
+     * started.
+     */
+    public void clear() {
+        for (int p = 0; p < queues.length; p++) {
+            queues[p].clear();
+            starved[p] = 0;
+        }
+    }
+
+
+    /**
+     * Returns the amount of jobs that aren't finished.
+     *
+     * @return  The amount of jobs.
+     */
+    public int getPending() {
+        int pending = 0;
+        for (ArrayDeque<Job> queue : queues) pending += queue.size();
+        return pending;
+    }
+
+
+    /*
+        The methods below report how the scheduler is doing.
+    */
+    public long getSlices() {
+        return slices;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    /** Returns the amount of frames that ended with jobs still waiting. */
+    public long getDeferredFrames() {
+        return deferredFrames;
+    }
+
+    /** Returns how long the last run() took, in nanoseconds. */
+    public long getLastRunTime() {
+        return lastRunTime;
+    }
+
+    /** Returns the most a run() went past its budget, in nanoseconds. */
+    public long getMaxOverrun() {
+        return maxOverrun;
+    }
+}
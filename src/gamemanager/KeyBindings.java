@@ -0,0 +1,132 @@
+package gamemanager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Properties;
+import javafx.scene.input.KeyCode;
+
+/**
+ * Maps the game's actions to keys. The defaults are WASD to move, T to pause,
+ * F5 to save, F3 to show the performance overlay and Q to switch weapons.
+ * They can be changed with a properties file where each line names an action
+ * and a JavaFX KeyCode, like:
+ *
+ *      up=UP
+ *      pause=ESCAPE
+ *
+ * A line with an unknown action or key is skipped with a message, and an
+ * action can't be given a key another action already uses, so a bad file can
+ * never leave the player unable to move.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class KeyBindings {
+
+
+    /** The actions that can be bound. */
+    public static final int UP = 0, LEFT = 1, DOWN = 2, RIGHT = 3, PAUSE = 4, SAVE = 5, OVERLAY = 6, WEAPON = 7;
+
+
+    /** The name of each action in the bindings file. */
+    private static final String[] NAMES = {"up", "left", "down", "right", "pause", "save", "overlay", "weapon"};
+
+
+    /** The default key of each action. */
+    private static final KeyCode[] DEFAULTS = {
+        KeyCode.W, KeyCode.A, KeyCode.S, KeyCode.D, KeyCode.T, KeyCode.F5, KeyCode.F3, KeyCode.Q
+    };
+
+
+    /** The key bound to each action. */
+    private final KeyCode[] keys = Arrays.copyOf(DEFAULTS, DEFAULTS.length);
+
+
+    /**
+     * Creates key bindings with the default keys.
+     */
+    public KeyBindings() {}
+
+
+    /**
+     * Creates key bindings from the bindings file in the Settings, or the
+     * defaults if there is no such file.
+     *
+     * @return  The key bindings.
+     */
+    public static KeyBindings loadDefault() {
+        KeyBindings bindings = new KeyBindings();
+        Path file = Paths.get(Settings.KEY_BINDINGS_FILE);
+
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                Properties p = new Properties();
+                p.load(in);
+                bindings.load(p);
+            } catch (IOException e) {
+                System.out.println("KeyBindings:\tCould not read "+file+": "+e.getMessage());
+            }
+        }
+        return bindings;
+    }
+
+
+    /**
+     * Binds the actions named in the properties to their keys.
+     *
+     * @param p     The action names and key names.
+     */
+    public void load(Properties p) {
+        for (String name : p.stringPropertyNames()) {
+            int action = Arrays.asList(NAMES).indexOf(name.trim().toLowerCase());
+            if (action < 0) {
+                System.out.println("KeyBindings:\tUnknown action "+name);
+                continue;
+            }
+
+            KeyCode key;
+            try {
+                key = KeyCode.valueOf(p.getProperty(name).trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.out.println("KeyBindings:\tUnknown key "+p.getProperty(name)+" for "+name);
+                continue;
+            }
+
+            if (!setKey(action, key)) {
+                System.out.println("KeyBindings:\t"+key+" is already used, "+name
+                                    +" stays "+keys[action]);
+            }
+        }
+    }
+
+
+    /**
+     * Binds an action to a key, unless another action already uses the key.
+     *
+     * @param action    The action.
+     * @param key       The key.
+     * @return          false if the key is used by another action.
+     */
+    public boolean setKey(int action, KeyCode key) {
+        for (int a = 0; a < keys.length; a++) {
+            if (a != action && keys[a] == key) return false;
+        }
+        keys[action] = key;
+        return true;
+    }
+
+
+    /**
+     * Returns the key bound to an action.
+     *
+     * @param action    The action.
+     * @return          The key.
+     */
+    public KeyCode getKey(int action) {
+        return keys[action];
+    }
+}
@@ -0,0 +1,163 @@
+package gamemanager;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tells whether a point can see the main player past the walls of a TileMap.
+ * Sight is worked out per tile, from the center of the player's tile to the
+ * center of the other, with the map's DDA raycast(). Each tile's answer is
+ * kept until the player moves to another tile, so however many enemies ask,
+ * each tile is raycast at most once per player tile.
+ *
+ * Tiles are only raycast when first asked about, and the answers are kept in
+ * a fixed size cache keyed by tile, so a big map takes no more memory than a
+ * small one. Each answer is stamped with a generation number; moving to another
+ * tile only starts a new generation, which makes every older answer stale
+ * without touching the cache. Tiles that share a slot push each other out,
+ * which only costs another raycast.
+ *
+ * canSee() may be called from several threads at once, like from the
+ * partitions of the enemy update: an answer is one long that holds its tile
+ * and generation, so it is written and read whole, and two threads that
+ * raycast the same tile at once store the same answer. update() must be
+ * called between updates, on the JavaFX thread.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class LineOfSight {
+
+
+    /** The most answers kept. */
+    private static final int MAX_SLOTS = 1 << 16;
+
+
+    /** The map whose walls block sight. */
+    private final TileMap map;
+
+
+    /**
+     * The answers. Each is the generation in the top 32 bits, then the tile's
+     * index, row by row, and then 1 if the tile can see the player. Generation
+     * 0 is never used, so an empty slot never matches.
+     */
+    private final AtomicLongArray answers;
+
+
+    /** How many bits of a tile's hash pick its slot. */
+    private final int slotBits;
+
+
+    /** The generation answers are stored with now. */
+    private int generation = 1;
+
+
+    /** The tile the player is in, which the answers are from. */
+    private int originCol = Integer.MIN_VALUE, originRow = Integer.MIN_VALUE;
+
+
+    /** The center of the player's tile. */
+    private double originX, originY;
+
+
+    /** The amount of times the player changed tiles and the answers were dropped. */
+    private long invalidations = 0;
+
+
+    /**
+     * Creates a line of sight for a map.
+     *
+     * @param map   The map. If its walls change, call invalidate().
+     */
+    public LineOfSight(TileMap map) {
+        this.map        = map;
+
+        int tiles       = map.getColumns() * map.getRows();
+        this.slotBits   = 32 - Integer.numberOfLeadingZeros(Math.max(1, Math.min(tiles, MAX_SLOTS) - 1));
+        this.answers    = new AtomicLongArray(1 << slotBits);
+    }
+
+
+    /**
+     * Moves the point that is looked at. The answers are only dropped if it
+     * moved to another tile.
+     *
+     * @param x     The player's center x-coordinate.
+     * @param y     The player's center y-coordinate.
+     */
+    public void update(double x, double y) {
+        int col = (int)Math.floor(x / map.getTileSize());
+        int row = (int)Math.floor(y / map.getTileSize());
+        if (col == originCol && row == originRow) return;
+
+        originCol   = col;
+        originRow   = row;
+        originX     = (col + 0.5) * map.getTileSize();
+        originY     = (row + 0.5) * map.getTileSize();
+        invalidate();
+    }
+
+
+    /**
+     * Drops every answer, like when the map's walls change. This only starts a
+     * new generation, so it costs the same however big the map is.
+     */
+    public void invalidate() {
+        if (++generation == 0) {
+            // After four billion generations, clear out the old stamps so
+            // they can't be mistaken for new ones.
+            for (int i = 0; i < answers.length(); i++) answers.set(i, 0);
+            generation = 1;
+        }
+        invalidations++;
+    }
+
+
+    /**
+     * Returns if a point can see the player, meaning there are no walls on
+     * the line between their tiles.
+     *
+     * @param x     The point's x-coordinate.
+     * @param y     The point's y-coordinate.
+     * @return      True if the point can see the player.
+     */
+    public boolean canSee(double x, double y) {
+        int col = (int)Math.floor(x / map.getTileSize());
+        int row = (int)Math.floor(y / map.getTileSize());
+
+        // Points off the map aren't kept; they're rare.
+        if (col < 0 || row < 0 || col >= map.getColumns() || row >= map.getRows()) {
+            return raycast(col, row);
+        }
+
+        int tile = row * map.getColumns() + col;
+        int slot = (tile * 0x9E3779B9) >>> (32 - slotBits);
+        long key = (long)generation << 32 | (long)tile << 1;
+
+        long answer = answers.get(slot);
+        if ((answer & ~1L) == key) return (answer & 1) != 0;
+
+        boolean visible = raycast(col, row);
+        answers.lazySet(slot, visible ? key | 1 : key);
+        return visible;
+    }
+
+
+    /**
+     * Returns if there are no walls between the centers of the player's tile
+     * and another.
+     */
+    private boolean raycast(int col, int row) {
+        double x = (col + 0.5) * map.getTileSize(), y = (row + 0.5) * map.getTileSize();
+        return map.raycast(originX, originY, x - originX, y - originY) < 0;
+    }
+
+
+    public TileMap getMap() {
+        return map;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+}
@@ -0,0 +1,122 @@
+package gamemanager;
+
+/**
+ * Moves many entities at once. Positions and velocities are kept in arrays of
+ * primitives, one array per field, instead of one object per entity.
+ *
+ * Each method is one plain counted loop over the arrays, with no calls and
+ * nothing carried from one entity to the next, which is the shape of loop the
+ * JIT compiler turns into SIMD instructions, handling several entities per
+ * instruction. The gain over the old per-entity code is mostly the array
+ * layout; see KernelBenchmark.
+ *
+ * Directions are scaled the way GameMath.calculateSlope() scales them, so the
+ * bigger of the x and y movement is equal to the speed.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public final class MovementKernel {
+
+
+    /**
+     * Distances shorter than this are treated as this long when a direction is
+     * scaled, so an entity that is on its goal doesn't divide by zero. Its
+     * velocity comes out as zero.
+     */
+    public static final double MIN_DISTANCE = 1e-9;
+
+
+    /** A private constructor so this class cannot be instantiated. */
+    private MovementKernel() {}
+
+
+    /**
+     * Moves each entity by its velocity times a number of steps.
+     *
+     * @param x         The x-coordinates.
+     * @param y         The y-coordinates.
+     * @param velX      The distance moved along the x axis per step.
+     * @param velY      The distance moved along the y axis per step.
+     * @param steps     The amount of steps to move.
+     * @param count     The amount of entities.
+     */
+    public static void integrate(double[] x, double[] y, double[] velX, double[] velY,
+                                    double steps, int count) {
+        integrate(x, y, velX, velY, steps, 0, count);
+    }
+
+
+    /**
+     * Moves the entities from index from up to, but not including, to. See
+     * integrate(x, y, velX, velY, steps, count).
+     */
+    public static void integrate(double[] x, double[] y, double[] velX, double[] velY,
+                                    double steps, int from, int to) {
+        for (int i = from; i < to; i++) {
+            x[i] += velX[i] * steps;
+            y[i] += velY[i] * steps;
+        }
+    }
+
+
+    /**
+     * Points each entity's velocity at its goal. The bigger of the x and y
+     * movement is set to the entity's speed, like GameMath.calculateSlope().
+     *
+     * @param x         The x-coordinates.
+     * @param y         The y-coordinates.
+     * @param goalX     The x-coordinate each entity moves toward.
+     * @param goalY     The y-coordinate each entity moves toward.
+     * @param speed     Each entity's speed. 0 for entities that shouldn't move.
+     * @param velX      Where the velocities along the x axis are written.
+     * @param velY      Where the velocities along the y axis are written.
+     * @param count     The amount of entities.
+     */
+    public static void steer(double[] x, double[] y, double[] goalX, double[] goalY,
+                                double[] speed, double[] velX, double[] velY, int count) {
+        steer(x, y, goalX, goalY, speed, velX, velY, 0, count);
+    }
+
+
+    /**
+     * Steers the entities from index from up to, but not including, to. See
+     * steer(x, y, goalX, goalY, speed, velX, velY, count).
+     */
+    public static void steer(double[] x, double[] y, double[] goalX, double[] goalY,
+                                double[] speed, double[] velX, double[] velY, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double dx = goalX[i] - x[i], dy = goalY[i] - y[i];
+            double distance = Math.max(Math.abs(dx), Math.abs(dy));
+            if (distance < MIN_DISTANCE) distance = MIN_DISTANCE;
+
+            double k = speed[i] / distance;
+            velX[i] = dx * k;
+            velY[i] = dy * k;
+        }
+    }
+
+
+    /**
+     * Flags the entities that are outside of (0,0) to (maxX,maxY), the same
+     * check Bullet uses for leaving the map.
+     *
+     * @param x         The x-coordinates.
+     * @param y         The y-coordinates.
+     * @param maxX      The right edge, such as RuntimeSettings.getMaxBulletX().
+     * @param maxY      The bottom edge, such as RuntimeSettings.getMaxBulletY().
+     * @param outside   Where the flags are written: 1 if outside, else 0.
+     * @param count     The amount of entities.
+     * @return          The amount of entities outside.
+     */
+    public static int flagOutside(double[] x, double[] y, double maxX, double maxY,
+                                    byte[] outside, int count) {
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            int o = (x[i] <= 0 | x[i] >= maxX | y[i] <= 0 | y[i] >= maxY) ? 1 : 0;
+            outside[i] = (byte)o;
+            total += o;
+        }
+        return total;
+    }
+}
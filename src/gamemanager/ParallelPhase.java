@@ -0,0 +1,171 @@
+package gamemanager;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs one phase of an update, like moving the enemies, over many entities at
+ * once on the common ForkJoinPool. The entities are split into partitions of
+ * a fixed size, and each partition is handed to the body on its own, so a body
+ * that only writes the entities in its partition never needs a lock. Anything
+ * a partition does to something outside of it, like damaging a player, should
+ * be added up in an accumulator of its own, indexed by the partition number,
+ * and merged after run() returns.
+ *
+ * The partitions are the same whether they run in parallel or not, and in
+ * serial mode they run one after another in order. So as long as the merge
+ * goes through the partitions in order, the results are exactly the same in
+ * both modes. Serial mode is used when there is only one partition, and
+ * everywhere when the undesirable_invasion.parallel system property is
+ * "serial".
+ *
+ * The partition tasks are created once and reused, so a phase creates nothing
+ * once it has seen its largest entity count.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class ParallelPhase {
+
+
+    /**
+     * The work done on a partition.
+     */
+    public interface Body {
+
+        /**
+         * Handles the entities from index from up to, but not including, to.
+         *
+         * @param partition     The partition's number, starting at 0.
+         * @param from          The first entity.
+         * @param to            One past the last entity.
+         */
+        void run(int partition, int from, int to);
+    }
+
+
+    /** True to run the partitions in parallel, for every phase. */
+    private static volatile boolean parallel
+            = !"serial".equals(System.getProperty("undesirable_invasion.parallel"));
+
+
+    /** The most entities in a partition. */
+    private final int partitionSize;
+
+
+    /** The partition tasks. Grown, never shrunk. */
+    private Partition[] tasks = new Partition[0];
+
+
+    /** The body of the run in progress. */
+    private Body body;
+
+
+    /**
+     * A partition's task. Reinitialized and forked again on every run.
+     */
+    private final class Partition extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+        private int from, to;
+
+        Partition(int index) {
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            body.run(index, from, to);
+        }
+    }
+
+
+    /**
+     * Creates a phase.
+     *
+     * @param partitionSize     The most entities in a partition. Big enough
+     *                          that a partition is more work than forking it.
+     */
+    public ParallelPhase(int partitionSize) {
+        this.partitionSize = partitionSize;
+    }
+
+
+    /**
+     * Returns how many partitions a run over an amount of entities uses, so
+     * the accumulators can be made big enough before calling run().
+     *
+     * @param count     The amount of entities.
+     * @return          The amount of partitions, at least 1.
+     */
+    public int partitions(int count) {
+        return Math.max(1, (count + partitionSize - 1) / partitionSize);
+    }
+
+
+    /**
+     * Runs the body over every partition and waits for all of them.
+     *
+     * @param count     The amount of entities.
+     * @param work      The work to do on each partition.
+     */
+    public void run(int count, Body work) {
+        int n = partitions(count);
+
+        if (!parallel || n == 1) {
+            for (int p = 0; p < n; p++) {
+                work.run(p, p * partitionSize, Math.min(count, (p + 1) * partitionSize));
+            }
+            return;
+        }
+
+        if (tasks.length < n) {
+            Partition[] grown = new Partition[n];
+            System.arraycopy(tasks, 0, grown, 0, tasks.length);
+            for (int p = tasks.length; p < n; p++) grown[p] = new Partition(p);
+            tasks = grown;
+        }
+
+        body = work;
+        int forked = 1;
+        try {
+            // This thread does the first partition itself while the pool does
+            // the rest.
+            for (; forked < n; forked++) {
+                Partition t = tasks[forked];
+                t.reinitialize();
+                t.from  = forked * partitionSize;
+                t.to    = Math.min(count, (forked + 1) * partitionSize);
+                t.fork();
+            }
+            work.run(0, 0, Math.min(count, partitionSize));
+        } finally {
+            // Every partition must be finished before the body is reused.
+            for (int p = 1; p < forked; p++) tasks[p].quietlyJoin();
+            body = null;
+        }
+
+        // Pass on the first failure of a partition the pool ran.
+        for (int p = 1; p < n; p++) {
+            Throwable failure = tasks[p].getException();
+            if (failure instanceof RuntimeException) throw (RuntimeException)failure;
+            if (failure instanceof Error) throw (Error)failure;
+        }
+    }
+
+
+    /**
+     * Picks parallel or serial mode for every phase.
+     *
+     * @param useParallel   True to run partitions in parallel.
+     */
+    public static void setParallel(boolean useParallel) {
+        parallel = useParallel;
+    }
+
+
+    public static boolean isParallel() {
+        return parallel;
+    }
+}
@@ -0,0 +1,210 @@
+package gamemanager;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Draws the short lived effects, like explosions and muzzle flashes. Instead of
+ * one ImageView per effect, every particle is a few numbers in a ring buffer,
+ * and they are all drawn on one Canvas in a single pass. The buffer has a fixed
+ * size: when it is full, a new particle replaces the oldest one, so heavy fire
+ * can never cost more than that many particles.
+ *
+ * Particles live on the game clock, so they freeze while the game is paused.
+ * An explosion plays its animation once over its life, picking the frame from
+ * its age, and fades out.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class ParticleSystem {
+
+
+    /** Particle kinds. */
+    public static final int EXPLOSION = 0, MUZZLE_FLASH = 1;
+
+
+    /** How long a muzzle flash is shown, in milliseconds. */
+    private static final int MUZZLE_FLASH_DURATION = 60;
+
+
+    /** The radius of a muzzle flash when it appears. */
+    private static final double MUZZLE_FLASH_RADIUS = 6;
+
+
+    /** The most particles alive at once. */
+    private final int capacity;
+
+
+    /** Each particle's kind, position and the game time it appeared. */
+    private final byte[] kind;
+    private final double[] x, y;
+    private final long[] birth;
+
+
+    /** The oldest particle, and the amount of particles in the buffer. */
+    private int head = 0, count = 0;
+
+
+    /** The canvas every particle is drawn on. */
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+
+
+    /** True if the canvas has something on it that needs clearing. */
+    private boolean drawn = false;
+
+
+    /** Counters for how the buffer is doing. */
+    private long emitted = 0, replaced = 0;
+
+
+    /**
+     * Creates a particle system.
+     *
+     * @param capacity  The most particles alive at once.
+     * @param width     The width of the area particles are drawn in.
+     * @param height    The height of the area particles are drawn in.
+     */
+    public ParticleSystem(int capacity, double width, double height) {
+        this.capacity   = capacity;
+        this.kind       = new byte[capacity];
+        this.x          = new double[capacity];
+        this.y          = new double[capacity];
+        this.birth      = new long[capacity];
+
+        this.canvas     = new Canvas(width, height);
+        this.gc         = canvas.getGraphicsContext2D();
+
+        // Particles are only for looks; they shouldn't take the mouse.
+        canvas.setMouseTransparent(true);
+    }
+
+
+    /**
+     * Returns the canvas the particles are drawn on. Put it above the
+     * entities.
+     *
+     * @return  The canvas.
+     */
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+
+    /**
+     * Adds a particle, replacing the oldest one if the buffer is full.
+     *
+     * @param particleKind  EXPLOSION or MUZZLE_FLASH.
+     * @param px            The x-coordinate. The top left corner of an
+     *                      explosion, or the center of a muzzle flash.
+     * @param py            The y-coordinate.
+     * @param time          The game time the particle appears.
+     */
+    public void emit(int particleKind, double px, double py, long time) {
+        int i;
+        if (count == capacity) {
+            i = head;
+            head = (head + 1) % capacity;
+            replaced++;
+        } else {
+            i = (head + count) % capacity;
+            count++;
+        }
+
+        kind[i]     = (byte)particleKind;
+        x[i]        = px;
+        y[i]        = py;
+        birth[i]    = time;
+        emitted++;
+    }
+
+
+    /**
+     * Drops the particles that are over, and draws the rest.
+     *
+     * @param time  The current game time in milliseconds.
+     */
+    public void update(long time) {
+        // Particles are in the order they appeared, so the oldest are in
+        // front. A short one behind a long one stays until the long one is
+        // over, but isn't drawn.
+        while (count > 0 && time - birth[head] >= duration(kind[head])) {
+            head = (head + 1) % capacity;
+            count--;
+        }
+
+        if (count == 0 && !drawn) return;
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        drawn = false;
+
+        SpriteSheet explosion = null;
+        for (int n = 0, i = head; n < count; n++, i = (i + 1) % capacity) {
+            long age = time - birth[i];
+            int length = duration(kind[i]);
+            if (age >= length) continue;
+
+            double fade = 1 - (double)age / length;
+            gc.setGlobalAlpha(fade);
+
+            if (kind[i] == EXPLOSION) {
+                if (explosion == null) explosion = Assets.getExplosionSprites();
+                
+                // Stretch the animation over the explosion's life.
+                Rectangle2D frame = explosion.getFrame(
+                        explosion.frameAtAge(age * explosion.getDuration() / length));
+                gc.drawImage(explosion.getImage(),
+                                frame.getMinX(), frame.getMinY(), frame.getWidth(), frame.getHeight(),
+                                x[i], y[i], Settings.EXPLOSION_WIDTH, Settings.EXPLOSION_HEIGHT);
+            } else {
+                double radius = MUZZLE_FLASH_RADIUS * fade;
+                gc.setFill(Color.YELLOW);
+                gc.fillOval(x[i] - radius, y[i] - radius, radius * 2, radius * 2);
+            }
+            drawn = true;
+        }
+        gc.setGlobalAlpha(1);
+    }
+
+
+    /**
+     * Removes every particle, like when a new game is started.
+     */
+    public void clear() {
+        head    = 0;
+        count   = 0;
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        drawn   = false;
+    }
+
+
+    /**
+     * Returns how long a kind of particle lives, in milliseconds.
+     */
+    private static int duration(int particleKind) {
+        return particleKind == EXPLOSION ? RuntimeSettings.getExplosionDuration()
+                                         : MUZZLE_FLASH_DURATION;
+    }
+
+
+    /*
+        The methods below report how the buffer is doing.
+    */
+    public int getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getEmitted() {
+        return emitted;
+    }
+
+    public long getReplaced() {
+        return replaced;
+    }
+}
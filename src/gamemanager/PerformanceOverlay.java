@@ -0,0 +1,148 @@
+package gamemanager;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import javafx.scene.control.Label;
+
+/**
+ * Shows how the game is running, over the game play: frames per second, how
+ * long updates take, how many entities there are, how much bulk work the
+ * JobScheduler put off and how often the garbage collector ran. It is for
+ * checking performance while playing, and is hidden until toggled with the
+ * overlay key, see KeyBindings.
+ *
+ * The numbers are gathered every frame, which costs a few additions, and are
+ * shown once per Settings.OVERLAY_INTERVAL. Nothing is gathered while the
+ * overlay is hidden.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class PerformanceOverlay {
+
+
+    /** The index of each number in the text. */
+    private static final int FPS = 0, TICK_AVERAGE = 1, TICK_MAX = 2, ENEMIES = 3,
+                                DEAD = 4, BULLETS = 5, PARTICLES = 6, JOBS = 7,
+                                DEFERRED = 8, GC_COUNT = 9, GC_TIME = 10;
+
+
+    /** The garbage collectors, whose counts are added up. */
+    private final List<GarbageCollectorMXBean> collectors
+            = ManagementFactory.getGarbageCollectorMXBeans();
+
+
+    /** The text, which is only set again when a number changed. */
+    private final HudText text;
+
+
+    /** When the numbers were last shown, in nanoseconds. 0 to start over. */
+    private long intervalStart = 0;
+
+
+    /** The frames and update time since the numbers were last shown. */
+    private int frames = 0;
+    private long tickTotal = 0, tickMax = 0;
+
+
+    /** The scheduler's deferred frames when the numbers were last shown. */
+    private long deferredFrames = 0;
+
+
+    /** The garbage collectors' totals when the interval started. */
+    private long gcCount = 0, gcTime = 0;
+
+
+    /**
+     * Creates an overlay.
+     *
+     * @param label     The label to show the numbers in. It is hidden at first.
+     */
+    public PerformanceOverlay(Label label) {
+        this.text = new HudText(label,
+                "FPS: ", "   Update: ", " us avg, ", " us max",
+                "\nEnemies: ", "   Dead: ", "   Bullets: ", "   Particles: ",
+                "\nJobs: ", " waiting, deferred in ", " frames",
+                "\nGC: ", " runs, ", " ms");
+        label.setVisible(false);
+        label.setMouseTransparent(true);
+    }
+
+
+    /**
+     * Shows or hides the overlay.
+     */
+    public void toggle() {
+        Label label = text.getLabel();
+        label.setVisible(!label.isVisible());
+        intervalStart = 0;
+    }
+
+
+    /**
+     * Adds a frame to the numbers, and shows them if the interval is over.
+     *
+     * @param now           The frame's time stamp, from the AnimationTimer.
+     * @param tickNanos     How long the frame's update took, in nanoseconds.
+     * @param enemies       The amount of live enemies.
+     * @param dead          The amount of dead enemies still shown.
+     * @param bullets       The amount of bullets.
+     * @param particles     The amount of particles.
+     * @param jobs          The scheduler of the bulk work.
+     */
+    public void update(long now, long tickNanos, int enemies, int dead,
+                        int bullets, int particles, JobScheduler jobs) {
+        if (!text.getLabel().isVisible()) return;
+
+        if (intervalStart == 0) {
+            start(now);
+            deferredFrames = jobs.getDeferredFrames();
+            return;
+        }
+
+        frames++;
+        tickTotal += tickNanos;
+        tickMax = Math.max(tickMax, tickNanos);
+
+        long elapsed = now - intervalStart;
+        if (elapsed < Settings.OVERLAY_INTERVAL * 1000000L) return;
+
+        text.set(FPS, Math.round(frames * 1e9 / elapsed));
+        text.set(TICK_AVERAGE, tickTotal / frames / 1000);
+        text.set(TICK_MAX, tickMax / 1000);
+        text.set(ENEMIES, enemies);
+        text.set(DEAD, dead);
+        text.set(BULLETS, bullets);
+        text.set(PARTICLES, particles);
+        text.set(JOBS, jobs.getPending());
+        text.set(DEFERRED, jobs.getDeferredFrames() - deferredFrames);
+        deferredFrames = jobs.getDeferredFrames();
+
+        // Starting the next interval reads the collectors' new totals.
+        long count = gcCount, time = gcTime;
+        start(now);
+        text.set(GC_COUNT, gcCount - count);
+        text.set(GC_TIME, gcTime - time);
+        text.update();
+    }
+
+
+    /**
+     * Starts a new interval.
+     */
+    private void start(long now) {
+        intervalStart   = now;
+        frames          = 0;
+        tickTotal       = 0;
+        tickMax         = 0;
+        gcCount         = 0;
+        gcTime          = 0;
+
+        // A collector that can't tell returns -1.
+        for (int i = 0; i < collectors.size(); i++) {
+            gcCount += Math.max(0, collectors.get(i).getCollectionCount());
+            gcTime  += Math.max(0, collectors.get(i).getCollectionTime());
+        }
+    }
+}
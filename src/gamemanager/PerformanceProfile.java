@@ -0,0 +1,199 @@
+package gamemanager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The timing and speed settings that decide how much work the game does, like
+ * how often enemies move and how fast bullets are fired. The defaults are the
+ * constants in Settings. They can be changed with a properties file, like:
+ *
+ *      refresh_rate=30
+ *      spawn_interval=2500
+ *
+ * Every key is optional. A file with an unknown key, a value that isn't a
+ * number, or a number out of range is rejected as a whole, so a half typed
+ * edit never leaves the game with a mix of old and new settings.
+ *
+ * A profile never changes once created. The one in use is held by
+ * RuntimeSettings, and ProfileWatcher swaps in a new one when the file changes.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public final class PerformanceProfile {
+
+
+    /** The keys in the profile file, in the order of MIN and MAX. */
+    private static final String[] KEYS = {
+        "refresh_rate", "bullet_movement_delay", "bullet_firing_delay",
+        "explosion_duration", "scale_max", "speed", "sweep_interval", "spawn_interval",
+        "render_scale"
+    };
+
+
+    /** The smallest and largest value allowed for each key. */
+    private static final double[] MIN = {1,    1,   1,     0,     1,   1,  100,    100,    0.25};
+    private static final double[] MAX = {1000, 100, 10000, 10000, 200, 50, 600000, 600000, 1};
+
+
+    /** True for the keys whose values may have a fraction. */
+    private static final boolean[] FRACTION = {false, false, false, false, true, false, false, false, true};
+
+
+    /** The profile made of the constants in Settings. */
+    public static final PerformanceProfile DEFAULTS = new PerformanceProfile(
+            Settings.REFRESH_RATE, Settings.BULLET_MOVEMENT_DELAY, Settings.BULLET_FIRING_DELAY,
+            Settings.EXPLOSION_DURATION, Settings.SCALE_MAX, Settings.SPEED, 10000, 5000,
+            Settings.RENDER_SCALE);
+
+
+    /** The time between enemy moves in milliseconds. See Settings.REFRESH_RATE. */
+    public final int refreshRate;
+
+
+    /** The time between bullet moves in milliseconds. */
+    public final int bulletMovementDelay;
+
+
+    /** The time between shots in milliseconds. */
+    public final int bulletFiringDelay;
+
+
+    /** How long an explosion is shown in milliseconds. */
+    public final int explosionDuration;
+
+
+    /** The distance a bullet moves at once. See Settings.SCALE_MAX. */
+    public final double scaleMax;
+
+
+    /** The distance the player moves every frame. */
+    public final int speed;
+
+
+    /** The time between clearing dead bodies in milliseconds. */
+    public final int sweepInterval;
+
+
+    /** The time between enemy spawns in milliseconds. */
+    public final int spawnInterval;
+
+
+    /** The fraction of the window's resolution the world is drawn at. See Viewport. */
+    public final double renderScale;
+
+
+    public PerformanceProfile(int refreshRate, int bulletMovementDelay, int bulletFiringDelay,
+                                int explosionDuration, double scaleMax, int speed,
+                                int sweepInterval, int spawnInterval, double renderScale) {
+        this.refreshRate            = refreshRate;
+        this.bulletMovementDelay    = bulletMovementDelay;
+        this.bulletFiringDelay      = bulletFiringDelay;
+        this.explosionDuration      = explosionDuration;
+        this.scaleMax               = scaleMax;
+        this.speed                  = speed;
+        this.sweepInterval          = sweepInterval;
+        this.spawnInterval          = spawnInterval;
+        this.renderScale            = renderScale;
+    }
+
+
+    /**
+     * Reads a profile file. Keys the file leaves out keep their default.
+     *
+     * @param file          The file.
+     * @return              The profile.
+     * @throws IOException  If the file can't be read or isn't a valid profile.
+     *                      The message lists every problem found.
+     */
+    public static PerformanceProfile load(Path file) throws IOException {
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            p.load(in);
+        }
+
+        List<String> errors = new ArrayList<>();
+        PerformanceProfile profile = parse(p, errors);
+        if (profile == null) throw new IOException(String.join("; ", errors));
+        return profile;
+    }
+
+
+    /**
+     * Builds a profile from properties, checking every value.
+     *
+     * @param p         The keys and values.
+     * @param errors    A message for each problem found is added here.
+     * @return          The profile, or null if any value is invalid.
+     */
+    public static PerformanceProfile parse(Properties p, List<String> errors) {
+        double[] values = DEFAULTS.toArray();
+        int before = errors.size();
+
+        for (String name : p.stringPropertyNames()) {
+            int key = Arrays.asList(KEYS).indexOf(name.trim().toLowerCase());
+            if (key < 0) {
+                errors.add("unknown key "+name);
+                continue;
+            }
+
+            String text = p.getProperty(name).trim();
+            double value;
+            try {
+                value = FRACTION[key] ? Double.parseDouble(text) : Integer.parseInt(text);
+            } catch (NumberFormatException e) {
+                errors.add(name+" is not a number: "+text);
+                continue;
+            }
+
+            if (!(value >= MIN[key] && value <= MAX[key])) {
+                errors.add(name+" must be from "+format(key, MIN[key])+" to "
+                            +format(key, MAX[key])+": "+text);
+                continue;
+            }
+            values[key] = value;
+        }
+
+        if (errors.size() > before) return null;
+        return new PerformanceProfile((int)values[0], (int)values[1], (int)values[2],
+                                        (int)values[3], values[4], (int)values[5],
+                                        (int)values[6], (int)values[7], values[8]);
+    }
+
+
+    /**
+     * Returns the values in the order of KEYS.
+     */
+    private double[] toArray() {
+        return new double[]{refreshRate, bulletMovementDelay, bulletFiringDelay,
+                            explosionDuration, scaleMax, speed, sweepInterval, spawnInterval,
+                            renderScale};
+    }
+
+
+    /**
+     * Returns a value as text, without a fraction unless the key allows one.
+     */
+    private static String format(int key, double value) {
+        return FRACTION[key] ? String.valueOf(value) : String.valueOf((long)value);
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        double[] values = toArray();
+        for (int key = 0; key < KEYS.length; key++) {
+            if (key > 0) s.append(", ");
+            s.append(KEYS[key]).append('=').append(format(key, values[key]));
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package gamemanager;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Watches a PerformanceProfile file and reads it again whenever it changes.
+ * The file is read on a background thread, but the new profile is only handed
+ * out by poll(), which the game loop calls at the start of an update, so a
+ * profile never changes in the middle of one.
+ *
+ * A file that fails to load is logged and ignored, and the profile in use
+ * stays as it was until the file is fixed.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class ProfileWatcher {
+
+
+    /**
+     * How long to wait after the file changes before reading it, in
+     * milliseconds. Editors often save a file in more than one write.
+     */
+    private static final long SETTLE_TIME = 50;
+
+
+    /** The file being watched. */
+    private final Path file;
+
+
+    /** The newest profile read that poll() hasn't handed out yet. */
+    private final AtomicReference<PerformanceProfile> pending = new AtomicReference<>();
+
+
+    /** The tag used in messages, like "GameManager" or "GameServer". */
+    private final String owner;
+
+
+    /** Null until start() is called, or if the directory can't be watched. */
+    private WatchService watcher;
+
+
+    /**
+     * Creates a watcher. Nothing is read until start() is called.
+     *
+     * @param file      The profile file. It doesn't have to exist yet.
+     * @param owner     The tag used in messages.
+     */
+    public ProfileWatcher(Path file, String owner) {
+        this.file   = file.toAbsolutePath();
+        this.owner  = owner;
+    }
+
+
+    /**
+     * Reads the file if it exists, so the first poll() returns it, and starts
+     * watching for changes on a daemon thread.
+     */
+    public void start() {
+        if (Files.isRegularFile(file)) reload();
+
+        try {
+            Files.createDirectories(file.getParent());
+            watcher = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                                                StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.out.println(owner+":\tCan't watch "+file+": "+e.getMessage());
+            return;
+        }
+
+        Thread thread = new Thread(this::watch, "profile-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+
+    /**
+     * Stops watching the file.
+     */
+    public void stop() {
+        try {
+            if (watcher != null) watcher.close();
+        } catch (IOException e) {
+            System.out.println(owner+":\tCould not stop watching "+file+": "+e.getMessage());
+        }
+    }
+
+
+    /**
+     * Returns the profile read since the last call, if any. Call this at the
+     * start of an update.
+     *
+     * @return  The new profile, or null if the file hasn't changed.
+     */
+    public PerformanceProfile poll() {
+        return pending.getAndSet(null);
+    }
+
+
+    /**
+     * Waits for changes to the file's directory and reloads the file when it
+     * is one of them. Runs until stop() is called.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object name = event.context();
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || file.getFileName().equals(name)) changed = true;
+                }
+
+                if (changed) {
+                    Thread.sleep(SETTLE_TIME);
+                    // Drop the events the rest of the save caused.
+                    key.pollEvents();
+                    reload();
+                }
+                if (!key.reset()) return;
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped.
+        }
+    }
+
+
+    /**
+     * Reads the file and leaves the profile for poll().
+     */
+    private void reload() {
+        if (!Files.isRegularFile(file)) return;
+
+        try {
+            PerformanceProfile profile = PerformanceProfile.load(file);
+            pending.set(profile);
+            System.out.println(owner+":\tRead profile "+profile);
+        } catch (IOException e) {
+            System.out.println(owner+":\tIgnoring profile "+file+": "+e.getMessage());
+        }
+    }
+}
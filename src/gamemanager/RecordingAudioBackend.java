@@ -0,0 +1,95 @@
+package gamemanager;
+
+/**
+ * An AudioBackend that plays nothing but remembers what it was asked to do, so
+ * the SoundManager can be checked without an audio device. The most recent
+ * calls are kept in a fixed size ring, so recording never allocates.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class RecordingAudioBackend implements AudioBackend {
+
+
+    /** The kinds of calls that are recorded. */
+    public static final int PLAY = 1, STOP = 2;
+
+
+    /** The recorded calls: the kind in the top half, the sound in the bottom. */
+    private final int[] calls;
+
+
+    /** The total amount of calls recorded, and of play() calls. */
+    private long count = 0, plays = 0;
+
+
+    /**
+     * Creates a backend.
+     *
+     * @param capacity  The amount of recent calls to remember.
+     */
+    public RecordingAudioBackend(int capacity) {
+        this.calls = new int[capacity];
+    }
+
+
+    @Override
+    public boolean load(int sound, String resource) {
+        return true;
+    }
+
+
+    @Override
+    public void play(int sound, double volume, boolean loop) {
+        record(PLAY, sound);
+        plays++;
+    }
+
+
+    @Override
+    public void stop(int sound) {
+        record(STOP, sound);
+    }
+
+
+    /**
+     * Adds a call to the ring.
+     */
+    private void record(int kind, int sound) {
+        calls[(int)(count++ % calls.length)] = kind << 16 | sound;
+    }
+
+
+    /**
+     * Returns the kind of a recorded call, counting back from the newest.
+     *
+     * @param back  0 for the newest call, 1 for the one before, and so on.
+     * @return      PLAY or STOP.
+     */
+    public int getKind(int back) {
+        return calls[(int)((count - 1 - back) % calls.length)] >>> 16;
+    }
+
+
+    /**
+     * Returns the sound of a recorded call, counting back from the newest.
+     *
+     * @param back  0 for the newest call, 1 for the one before, and so on.
+     * @return      The sound's id.
+     */
+    public int getSound(int back) {
+        return calls[(int)((count - 1 - back) % calls.length)] & 0xFFFF;
+    }
+
+
+    /*
+        Totals since the backend was created.
+    */
+    public long getCount() {
+        return count;
+    }
+
+    public long getPlays() {
+        return plays;
+    }
+}
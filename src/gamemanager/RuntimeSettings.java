@@ -17,6 +17,12 @@ public class RuntimeSettings {
     private static int maxBulletPositionX;
     private static int maxBulletPositionY;    
     
+    /** 
+     * The timing settings in use. Only replaced between updates, see
+     * ProfileWatcher.
+     */
+    private static volatile PerformanceProfile profile = PerformanceProfile.DEFAULTS;
+    
     private RuntimeSettings(){}
     
     public static void loadRuntimeSettings(int w, int h) {
@@ -36,4 +42,17 @@ public class RuntimeSettings {
     public static int getMaxBulletY() {return maxBulletPositionY;}
     public static int getMaxPlayerSpawnX() {return maxPlayerSpawnX;}
     public static int getMaxPlayerSpawnY() {return maxPlayerSpawnY;}    
+    
+    public static PerformanceProfile getProfile() {return profile;}
+    public static void setProfile(PerformanceProfile p) {profile = p;}
+    
+    public static int getRefreshRate() {return profile.refreshRate;}
+    public static int getBulletMovementDelay() {return profile.bulletMovementDelay;}
+    public static int getBulletFiringDelay() {return profile.bulletFiringDelay;}
+    public static int getExplosionDuration() {return profile.explosionDuration;}
+    public static double getScaleMax() {return profile.scaleMax;}
+    public static int getSpeed() {return profile.speed;}
+    public static int getSweepInterval() {return profile.sweepInterval;}
+    public static int getSpawnInterval() {return profile.spawnInterval;}
+    public static double getRenderScale() {return profile.renderScale;}
 }
@@ -0,0 +1,366 @@
+package gamemanager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes GameSnapshots using a small binary format. A save file has
+ * the following layout, with every number written big endian:
+ * <ul>
+ * <li>
+ *      The header: the magic number "UISV", the format version (a short) and a
+ *      short that is reserved for flags.
+ * </li>
+ * <li>
+ *      The game clock and timers, the amount killed, the random number
+ *      generator's state, the main player and, since version 2, the weapon
+ *      the main player holds.
+ * </li>
+ * <li>
+ *      The amount of enemies followed by one column per enemy field. All of the
+ *      x-coordinates come first, then all of the y-coordinates, and so on.
+ * </li>
+ * <li>
+ *      The amount of bullets followed by one column per bullet field. Version
+ *      2 added the damage column.
+ * </li>
+ * <li>
+ *      A CRC32 of everything before it.
+ * </li>
+ * </ul>
+ *
+ * Storing columns instead of records lets whole arrays be copied in one call,
+ * so loading does not need to look at entities one field at a time. Writing is
+ * done on a background thread so saving a large game does not stall the game.
+ *
+ * @see gamemanager.GameSnapshot
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class SaveGame {
+
+
+    /** The first four bytes of every save file: "UISV". */
+    private static final int MAGIC = 0x55495356;
+
+
+    /**
+     * The current version of the format. Increase this whenever the layout
+     * changes and keep reading the older versions in read().
+     */
+    public static final short VERSION = 2;
+
+
+    /** The size of everything before the enemy columns. */
+    private static final int HEADER_SIZE = 4 + 2 + 2 + 5 * 8 + 4 + 8 + 3 * 8 + 4 + 4;
+
+
+    /** The size of a single enemy: x, y, type, alive, health and time. */
+    private static final int ENEMY_SIZE = 8 + 8 + 1 + 1 + 4 + 8;
+
+
+    /** The size of a single bullet: x, y, r, rise, run, exploding, time and damage. */
+    private static final int BULLET_SIZE = 5 * 8 + 1 + 8 + 4;
+
+
+    /** The sizes in version 1, which had no weapon and bullet damage. */
+    private static final int HEADER_SIZE_V1 = HEADER_SIZE - 4, BULLET_SIZE_V1 = BULLET_SIZE - 4;
+
+
+    /** Writes snapshots one at a time, in the order they were taken. */
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "SaveGame Writer");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+
+    /** A private constructor so this class cannot be instantiated. */
+    private SaveGame() {}
+
+
+    /**
+     * Writes a snapshot on the background writer thread.
+     *
+     * @param snapshot  The snapshot to write. It must not be changed afterward.
+     * @param path      The file to write to.
+     * @return          A Future that completes once the file has been written.
+     */
+    public static Future<?> writeAsync(final GameSnapshot snapshot, final Path path) {
+        return WRITER.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    long start = System.nanoTime();
+                    write(snapshot, path);
+                    System.out.println("SaveGame:\tSaved "+snapshot.enemyCount
+                            +" enemies and "+snapshot.bulletCount+" bullets in "
+                            +(System.nanoTime() - start) / 1000000+" ms.");
+                } catch (IOException e) {
+                    System.out.println("SaveGame:\tCould not save: "+e.getMessage());
+                }
+            }
+        });
+    }
+
+
+    /**
+     * Writes a snapshot to a file. The snapshot is written to a temporary file
+     * first, then moved over the old save so a crash can never leave a half
+     * written save behind.
+     *
+     * @param snapshot  The snapshot to write.
+     * @param path      The file to write to.
+     * @throws IOException
+     */
+    public static void write(GameSnapshot snapshot, Path path) throws IOException {
+        ByteBuffer buffer = encode(snapshot);
+
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(path.getFileName()+".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp,
+                                    StandardOpenOption.CREATE,
+                                    StandardOpenOption.WRITE,
+                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(false);
+        }
+
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+                                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    /**
+     * Reads a snapshot from a file.
+     *
+     * @param path      The file to read.
+     * @return          The snapshot stored in the file.
+     * @throws IOException  If the file can't be read, was written by a newer
+     *                      version of the game, or is corrupt.
+     */
+    public static GameSnapshot read(Path path) throws IOException {
+        ByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE_V1 + 8 || size > Integer.MAX_VALUE)
+                throw new IOException("Save file has an invalid size: "+size);
+
+            buffer = ByteBuffer.allocate((int)size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0);
+            buffer.flip();
+        }
+
+        return decode(buffer);
+    }
+
+
+    /**
+     * Encodes a snapshot. The returned buffer is ready to be written.
+     *
+     * @param s     The snapshot to encode.
+     * @return      The encoded snapshot.
+     */
+    static ByteBuffer encode(GameSnapshot s) {
+        int size = HEADER_SIZE
+                + 4 + s.enemyCount * ENEMY_SIZE
+                + 4 + s.bulletCount * BULLET_SIZE
+                + 4;
+
+        ByteBuffer b = ByteBuffer.allocate(size);
+
+        b.putInt(MAGIC).putShort(VERSION).putShort((short)0);
+        b.putLong(s.gameTime)
+         .putLong(s.lastRefreshTime)
+         .putLong(s.lastSweepTime)
+         .putLong(s.lastSpawnTime)
+         .putLong(s.lastShotTime);
+        b.putInt(s.amountKilled);
+        b.putLong(s.randomState);
+        b.putDouble(s.playerX).putDouble(s.playerY).putDouble(s.playerR);
+        b.putInt(s.playerHealth);
+        b.putInt(s.playerWeapon);
+
+        b.putInt(s.enemyCount);
+        putDoubles(b, s.enemyX);
+        putDoubles(b, s.enemyY);
+        b.put(s.enemyType);
+        b.put(s.enemyAlive);
+        b.asIntBuffer().put(s.enemyHealth);
+        b.position(b.position() + s.enemyCount * 4);
+        putLongs(b, s.enemyPreviousTime);
+
+        b.putInt(s.bulletCount);
+        putDoubles(b, s.bulletX);
+        putDoubles(b, s.bulletY);
+        putDoubles(b, s.bulletR);
+        putDoubles(b, s.bulletRise);
+        putDoubles(b, s.bulletRun);
+        b.put(s.bulletExploding);
+        putLongs(b, s.bulletPreviousTime);
+        b.asIntBuffer().put(s.bulletDamage);
+        b.position(b.position() + s.bulletCount * 4);
+
+        CRC32 crc = new CRC32();
+        crc.update(b.array(), 0, b.position());
+        b.putInt((int)crc.getValue());
+
+        b.flip();
+        return b;
+    }
+
+
+    /**
+     * Decodes a snapshot.
+     *
+     * @param b     A buffer holding a whole save file.
+     * @return      The decoded snapshot.
+     * @throws IOException  If the buffer does not hold a valid save.
+     */
+    static GameSnapshot decode(ByteBuffer b) throws IOException {
+        if (b.getInt() != MAGIC)
+            throw new IOException("Not a save file.");
+
+        short version = b.getShort();
+        if (version < 1 || version > VERSION)
+            throw new IOException("Unsupported save version: "+version);
+        b.getShort();
+
+        CRC32 crc = new CRC32();
+        crc.update(b.array(), 0, b.limit() - 4);
+        if ((int)crc.getValue() != b.getInt(b.limit() - 4))
+            throw new IOException("Save file is corrupt.");
+
+        long gameTime       = b.getLong();
+        long lastRefresh    = b.getLong();
+        long lastSweep      = b.getLong();
+        long lastSpawn      = b.getLong();
+        long lastShot       = b.getLong();
+        int amountKilled    = b.getInt();
+        long randomState    = b.getLong();
+        double playerX      = b.getDouble();
+        double playerY      = b.getDouble();
+        double playerR      = b.getDouble();
+        int playerHealth    = b.getInt();
+        int playerWeapon    = version >= 2 ? b.getInt() : 0;
+
+        int enemyCount = readCount(b, ENEMY_SIZE);
+        double[] enemyX = getDoubles(b, enemyCount);
+        double[] enemyY = getDoubles(b, enemyCount);
+        byte[] enemyType = new byte[enemyCount];
+        b.get(enemyType);
+        byte[] enemyAlive = new byte[enemyCount];
+        b.get(enemyAlive);
+        int[] enemyHealth = new int[enemyCount];
+        b.asIntBuffer().get(enemyHealth);
+        b.position(b.position() + enemyCount * 4);
+        long[] enemyPreviousTime = getLongs(b, enemyCount);
+
+        int bulletCount = readCount(b, version >= 2 ? BULLET_SIZE : BULLET_SIZE_V1);
+
+        GameSnapshot s = new GameSnapshot(0, 0);
+        s.gameTime          = gameTime;
+        s.lastRefreshTime   = lastRefresh;
+        s.lastSweepTime     = lastSweep;
+        s.lastSpawnTime     = lastSpawn;
+        s.lastShotTime      = lastShot;
+        s.amountKilled      = amountKilled;
+        s.randomState       = randomState;
+        s.playerX           = playerX;
+        s.playerY           = playerY;
+        s.playerR           = playerR;
+        s.playerHealth      = playerHealth;
+        s.playerWeapon      = playerWeapon;
+
+        s.enemyCount        = enemyCount;
+        s.enemyX            = enemyX;
+        s.enemyY            = enemyY;
+        s.enemyType         = enemyType;
+        s.enemyAlive        = enemyAlive;
+        s.enemyHealth       = enemyHealth;
+        s.enemyPreviousTime = enemyPreviousTime;
+
+        s.bulletCount       = bulletCount;
+        s.bulletX           = getDoubles(b, bulletCount);
+        s.bulletY           = getDoubles(b, bulletCount);
+        s.bulletR           = getDoubles(b, bulletCount);
+        s.bulletRise        = getDoubles(b, bulletCount);
+        s.bulletRun         = getDoubles(b, bulletCount);
+        s.bulletExploding   = new byte[bulletCount];
+        b.get(s.bulletExploding);
+        s.bulletPreviousTime = getLongs(b, bulletCount);
+        s.bulletDamage      = new int[bulletCount];
+        if (version >= 2) {
+            b.asIntBuffer().get(s.bulletDamage);
+            b.position(b.position() + bulletCount * 4);
+        } else {
+            Arrays.fill(s.bulletDamage, 1);
+        }
+
+        if (b.remaining() != 4)
+            throw new IOException("Save file is corrupt.");
+
+        return s;
+    }
+
+
+    /**
+     * Reads the amount of entities in the next section and makes sure the
+     * buffer is big enough to hold them.
+     */
+    private static int readCount(ByteBuffer b, int entitySize) throws IOException {
+        if (b.remaining() < 8)
+            throw new IOException("Save file is corrupt.");
+        int count = b.getInt();
+        if (count < 0 || (long)count * entitySize > b.remaining() - 4)
+            throw new IOException("Save file is corrupt.");
+        return count;
+    }
+
+
+    /*
+        Bulk copies between arrays and the buffer. A view buffer does not move
+        the position of the buffer it was made from, so move it manually.
+    */
+    private static void putDoubles(ByteBuffer b, double[] values) {
+        b.asDoubleBuffer().put(values);
+        b.position(b.position() + values.length * 8);
+    }
+
+    private static void putLongs(ByteBuffer b, long[] values) {
+        b.asLongBuffer().put(values);
+        b.position(b.position() + values.length * 8);
+    }
+
+    private static double[] getDoubles(ByteBuffer b, int count) {
+        double[] values = new double[count];
+        b.asDoubleBuffer().get(values);
+        b.position(b.position() + count * 8);
+        return values;
+    }
+
+    private static long[] getLongs(ByteBuffer b, int count) {
+        long[] values = new long[count];
+        b.asLongBuffer().get(values);
+        b.position(b.position() + count * 8);
+        return values;
+    }
+}
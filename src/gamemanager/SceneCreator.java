@@ -8,10 +8,9 @@ import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.layout.BorderPane;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.layout.GridPane;
-import javafx.scene.layout.HBox;
-import javafx.scene.layout.Pane;
+import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
@@ -24,6 +23,11 @@ import javafx.scene.text.Text;
  * it much easier so there is less "Graphical" code in the GameManager and we can
  * better read the more "logical" code. In other words, there is less visual 
  * noise. 
+ * 
+ * The menu scenes are built once and then reused: getStartScene(), 
+ * getPauseMenu() and getGameOverScene() return the same Scene every time, so 
+ * pausing or dying doesn't build a new scene graph or parse its CSS again. 
+ * prewarm() builds them all up front, before the first one is shown.
  *
  * @author Jackie Chan
  * May 5, 2016
@@ -31,6 +35,114 @@ import javafx.scene.text.Text;
 public class SceneCreator {
 
 
+    /** The cached menu scenes. Null until first used or prewarmed. */
+    private static Scene startScene, pauseMenu, gameOverScene;
+    
+    
+    /** The start scene's Continue button. Only shown when there is a save. */
+    private static Button continueButton;
+    
+    
+    /** The start scene's Start button. */
+    private static Button startButton;
+    
+    
+    /** Shows how far the assets are loaded on the start scene. */
+    private static ProgressBar loadingBar;
+    
+    
+    /** A private constructor so this class cannot be instantiated. */
+    private SceneCreator() {}
+    
+    
+    /**
+     * Builds every menu scene and lays it out, so the first time each one is
+     * shown it is already styled and sized.
+     */
+    public static void prewarm() {
+        prewarm(getStartScene());
+        prewarm(getPauseMenu());
+        prewarm(getGameOverScene());
+    }
+    
+    
+    /**
+     * Applies a scene's CSS and lays it out without showing it.
+     * 
+     * @param scene     The scene to prewarm.
+     */
+    public static void prewarm(Scene scene) {
+        scene.getRoot().applyCss();
+        scene.getRoot().layout();
+    }
+    
+    
+    /**
+     * Returns the "Game Paused Scene", building it the first time.
+     * 
+     * @return  The pause menu.
+     */
+    public static Scene getPauseMenu() {
+        if (pauseMenu == null) pauseMenu = createPauseMenu();
+        return pauseMenu;
+    }
+    
+    
+    /**
+     * Returns the scene containing the Start button, building it the first 
+     * time. The Continue button is shown only if there is a saved game.
+     * 
+     * @return  The start scene.
+     */
+    public static Scene getStartScene() {
+        if (startScene == null) startScene = createStartScene();
+        
+        boolean hasSave = GameManager.hasSavedGame();
+        continueButton.setVisible(hasSave);
+        continueButton.setManaged(hasSave);
+        return startScene;
+    }
+    
+    
+    /**
+     * Shows the progress of a loader on the start scene, and disables the 
+     * start scene's buttons until finishLoading() is called.
+     * 
+     * @param loader    The loader whose progress to show.
+     */
+    public static void showLoading(AssetLoader loader) {
+        getStartScene();
+        loadingBar.progressProperty().bind(loader.progressProperty());
+        loadingBar.setVisible(true);
+        loadingBar.setManaged(true);
+        startButton.setDisable(true);
+        continueButton.setDisable(true);
+    }
+    
+    
+    /**
+     * Hides the progress bar on the start scene and enables its buttons.
+     */
+    public static void finishLoading() {
+        loadingBar.progressProperty().unbind();
+        loadingBar.setVisible(false);
+        loadingBar.setManaged(false);
+        startButton.setDisable(false);
+        continueButton.setDisable(false);
+    }
+    
+    
+    /**
+     * Returns the "Game Over" scene, building it the first time.
+     * 
+     * @return  The game over scene.
+     */
+    public static Scene getGameOverScene() {
+        if (gameOverScene == null) gameOverScene = createGameOverScene();
+        return gameOverScene;
+    }
+
+
     /**
      * Creates the "Game Paused Scene". The game paused scene only occurs when 
      * the user presses the key "T". It will give the user the options to resume
@@ -38,7 +150,7 @@ public class SceneCreator {
      * 
      * @return  A scene containing two buttons and the text "Paused".
      */
-    public static Scene createPauseMenu() {
+    private static Scene createPauseMenu() {
         
         Text paused = new Text("Paused");
         paused.setFont(new Font(50));
@@ -53,6 +165,15 @@ public class SceneCreator {
             }
         });
 
+        // Save button for when the user wants to continue the game later.
+        Button saveButton = new Button("Save");
+        saveButton.setOnAction(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent e) {
+                GameManager.saveGame();
+            }
+        });
+
         // Main menu button for when user wants to go to the main menu.
         Button mainMenuButton = new Button("Main Menu");
         mainMenuButton.setOnAction(new EventHandler<ActionEvent>() {
@@ -72,7 +193,10 @@ public class SceneCreator {
         gridPane.add(resumeButton, 0, 1);
         GridPane.setHalignment(resumeButton, HPos.CENTER);
         GridPane.setMargin(resumeButton, new Insets(5,7,5,7));
-        gridPane.add(mainMenuButton, 0, 2);
+        gridPane.add(saveButton, 0, 2);
+        GridPane.setHalignment(saveButton, HPos.CENTER);
+        GridPane.setMargin(saveButton, new Insets(5,7,5,7));
+        gridPane.add(mainMenuButton, 0, 3);
         GridPane.setHalignment(mainMenuButton, HPos.CENTER);
         GridPane.setMargin(mainMenuButton, new Insets(5,7,5,7));
         
@@ -85,17 +209,17 @@ public class SceneCreator {
 
 
     /**
-     * Creates a scene containing the Start button. 
+     * Creates a scene containing the Start and Continue buttons. 
      * @return 
      */
-    public static Scene createStartScene() {
+    private static Scene createStartScene() {
 
         Text zombieInvasion = new Text("Zombie Invasion");
         zombieInvasion.setFont(new Font(50));
         zombieInvasion.setFill(Color.WHITE);
         
-        Button btn = new Button("Start!");
-        btn.setOnAction(new EventHandler<ActionEvent>() {
+        startButton = new Button("Start!");
+        startButton.setOnAction(new EventHandler<ActionEvent>() {
             @Override
             public void handle(ActionEvent event) {
                 GameManager.loadGame();
@@ -109,13 +233,36 @@ public class SceneCreator {
         GridPane.setHalignment(zombieInvasion, HPos.CENTER);
         GridPane.setMargin(zombieInvasion, new Insets(5,7,5,7));
 
-        gridPane.add(btn, 0, 1);
-        GridPane.setHalignment(btn, HPos.CENTER);
-        GridPane.setMargin(btn, new Insets(5,7,5,7));        
+        gridPane.add(startButton, 0, 1);
+        GridPane.setHalignment(startButton, HPos.CENTER);
+        GridPane.setMargin(startButton, new Insets(5,7,5,7));        
+        
+        // Only offered when there is a saved game; see getStartScene().
+        continueButton = new Button("Continue");
+        continueButton.setOnAction(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent event) {
+                GameManager.continueGame();
+            }
+        });
+
+        gridPane.add(continueButton, 0, 2);
+        GridPane.setHalignment(continueButton, HPos.CENTER);
+        GridPane.setMargin(continueButton, new Insets(5,7,5,7));
+        
+        // Only shown while the assets are loading; see showLoading().
+        loadingBar = new ProgressBar(0);
+        loadingBar.setPrefWidth(200);
+        loadingBar.setVisible(false);
+        loadingBar.setManaged(false);
+        
+        gridPane.add(loadingBar, 0, 3);
+        GridPane.setHalignment(loadingBar, HPos.CENTER);
+        GridPane.setMargin(loadingBar, new Insets(5,7,5,7));
         
         gridPane.setStyle("-fx-background-image: url(\"/background.png\");");
         
-        Scene scene = new Scene(gridPane, 800, 600);
+        Scene scene = new Scene(gridPane, Settings.WORLD_WIDTH, Settings.WORLD_HEIGHT);
 
         return scene;
     }
@@ -125,39 +272,43 @@ public class SceneCreator {
      * Creates the main game play window (scene). It will return an object array
      * containing the following elements in the following order:
      * 1. The Scene that needs to be set to the primaryStage (Stage).
-     * 2. The Pane that holds the players and enemies.
+     * 2. The Viewport whose world holds the players and enemies.
      * 3. The Label that contains the player's health.
+     * 4. The Label of the performance overlay, see PerformanceOverlay.
+     * 
+     * The world is scaled to fit the window, and the labels are drawn over it
+     * at the window's resolution, so they stay sharp at any render scale.
      *
-     * @return      An object array containing the Scene to be set, the Pane that
-     *              holds the players and enemies, and the Label that displays
-     *              the player's health.
+     * @return      An object array containing the Scene to be set, the Viewport
+     *              that holds the players and enemies, the Label that 
+     *              displays the player's health and the overlay's Label.
      */
     public static Object[] createGamePlayScene() {
 
-        HBox statusBox = new HBox();
-        statusBox.setPadding(new Insets(15, 12, 15, 12));
-        statusBox.setSpacing(10);
-        statusBox.setStyle("-fx-background-color: #FFFFFF;");        
-
         Label stats = new Label("Health: ");
         stats.setPrefSize(400, 25);
         stats.setTextFill(Color.WHITE);
-        statusBox.getChildren().add(stats);        
 
-        Pane playerField = new Pane();
+        Viewport viewport = new Viewport(RuntimeSettings.getWidth(), 
+                                            RuntimeSettings.getHeight());
+
+        Label overlay = new Label();
+        overlay.setTextFill(Color.YELLOW);
+        overlay.setStyle("-fx-background-color: rgba(0, 0, 0, 0.5);");
+        overlay.setPadding(new Insets(4));
 
-        BorderPane borderPane = new BorderPane();
-        borderPane.setBottom(stats);
-        borderPane.setCenter(playerField);
+        StackPane stackPane = new StackPane(viewport.getView(), stats, overlay);
+        StackPane.setAlignment(stats, Pos.BOTTOM_LEFT);
+        StackPane.setAlignment(overlay, Pos.TOP_LEFT);
 
-        Scene scene = new Scene(borderPane,
+        Scene scene = new Scene(stackPane,
                                 RuntimeSettings.getWidth(),
                                 RuntimeSettings.getHeight(),
-                                Settings.BACKGROUND);
+                                Assets.BACKGROUND);
         
-        borderPane.setStyle("-fx-background-image: url(\"/background.png\");");
+        stackPane.setStyle("-fx-background-image: url(\"/background.png\");");
 
-        return new Object[]{scene, playerField, stats};
+        return new Object[]{scene, viewport, stats, overlay};
     }
 
 
@@ -169,7 +320,7 @@ public class SceneCreator {
      * @return  A scene containing the text "Game Over", and two buttons labeled
      *          restart and quit.
      */
-    public static Scene createGameOverScene() {
+    private static Scene createGameOverScene() {
         Text gameOver = new Text("Game Over");
         gameOver.setFont(new Font(50));
         gameOver.setFill(Color.WHITE);
@@ -1,11 +1,9 @@
 package gamemanager;
 
-import javafx.scene.image.Image;
-import javafx.scene.paint.Color;
-
-
 /**
- * These are the default settings for the game.
+ * These are the default settings for the game. Nothing in here uses JavaFX, so
+ * the settings can also be used by the headless server; the images live in the
+ * Assets class.
  *
  * @author Jackie Chan
  * Apr 17, 2016
@@ -19,8 +17,29 @@ public class Settings {
         be final in the future. These settings will need to be changed during 
         gameplay if the user is to spawn in a different place, or the map size
         is different.
+        
+        SPEED, SCALE_MAX, the bullet and explosion timings, REFRESH_RATE and
+        RENDER_SCALE are only defaults. The game reads the values in use from
+        RuntimeSettings, which can be changed with the profile file, see
+        PerformanceProfile.
     */
     
+    /**
+     * The size of the game world in world units. Everything in the game is
+     * placed and moved in world units; the Viewport scales them to the window,
+     * which starts out this many pixels big.
+     */
+    public static final int WORLD_WIDTH  = 800;
+    public static final int WORLD_HEIGHT = 600;
+    
+    
+    /**
+     * The fraction of the window's resolution the world is drawn at. See the
+     * Viewport class.
+     */
+    public static final double RENDER_SCALE = 1.0;
+    
+    
     /** The speed at which the player will move. */
     public static final int SPEED   = 3;              
     
@@ -38,31 +57,28 @@ public class Settings {
     
     
     /**
-     * The explosion's width. This is based off the size of the explosion gif.
+     * The bullet's width. This is based off the size of the bullet's image.
      */
-    public static final int EXPLOSION_WIDTH = 30;
+    public static final int BULLET_WIDTH = 7;
     
     
     /**
-     * The explosion's height. This is based off the size of the explosion gif.
+     * The bullet's height. This is based off the size of the bullet's image.
      */
-    public static final int EXPLOSION_HEIGHT = 30;
- 
+    public static final int BULLET_HEIGHT = 5;
     
-    /** The default background color for the game play scene. */
-    public static final Color BACKGROUND = Color.WHITE;                        
     
     /**
-     * This is the gif displayed when something explodes.
+     * The explosion's width. This is based off the size of the explosion gif.
      */
-    public static final Image EXPLOSION = new Image("/explosion.gif", true);
+    public static final int EXPLOSION_WIDTH = 30;
     
     
     /**
-     * This is the image that is displayed on the bullet.
+     * The explosion's height. This is based off the size of the explosion gif.
      */
-    public static final Image BULLET = new Image("/bullet.png", true);        
-    
+    public static final int EXPLOSION_HEIGHT = 30;
+ 
     
     /**
      * The amount a bullet can move at once would be large if going from (0,0)
@@ -100,15 +116,104 @@ public class Settings {
     public static final int REFRESH_RATE = 45;
     
     
-    public static Image getMainPlayerImage() {
-        return new Image("/main_player_icon.png",true);
-    }
+    /**
+     * The file the game is saved to and continued from. See the SaveGame class
+     * for the format of the file.
+     */
+    public static final String SAVE_FILE = System.getProperty("user.home")
+                                            + "/.undesirable_invasion/save.uisv";
+    
+    
+    /**
+     * The map file walls are read from, if it exists. It is in the uncompressed
+     * format described in MapUtilities.
+     */
+    public static final String MAP_FILE = System.getProperty("user.home")
+                                            + "/.undesirable_invasion/map.txt";
+    
+    
+    /**
+     * The file the PerformanceProfile is read from, if it exists. Changes to
+     * it are picked up while the game is running.
+     */
+    public static final String PROFILE_FILE = System.getProperty("user.home")
+                                            + "/.undesirable_invasion/profile.properties";
+    
+    
+    /** 
+     * The most explosions and muzzle flashes shown at once. When there are
+     * more, the oldest are dropped.
+     */
+    public static final int MAX_PARTICLES = 256;
+    
+    
+    /** 
+     * The most shots fired in one update. A weapon that fires faster than the
+     * game updates fires the shots it is due all at once, up to this many; the
+     * rest are dropped, so a long stall doesn't come back as a wall of bullets.
+     */
+    public static final int MAX_SHOTS_PER_UPDATE = 8;
+    
+    
+    /** 
+     * The amount of angles the players' images are drawn at when they are
+     * loaded. The nearest is shown, so more angles turn more smoothly but 
+     * take more memory; Assets prints how much.
+     */
+    public static final int ROTATION_ANGLES = 64;
+    
+    
+    /** How often the performance overlay shows new numbers, in milliseconds. */
+    public static final int OVERLAY_INTERVAL = 1000;
+    
+    
+    /** 
+     * The time the JobScheduler may spend on bulk work, like clearing dead
+     * bodies, every frame, in milliseconds.
+     */
+    public static final double JOB_BUDGET = 2;
+    
+    
+    /** 
+     * The frames a low priority job can wait behind higher ones before it is 
+     * run first. See JobScheduler.
+     */
+    public static final int JOB_STARVATION_FRAMES = 30;
+    
+    
+    /** The amount of dead bodies cleared in a slice of the sweep job. */
+    public static final int SWEEP_SLICE = 32;
+    
+    
+    /** The width and height of a map tile in pixels. */
+    public static final int TILE_SIZE = 20;
+    
+    
+    /** 
+     * The width and height, in pixels, of the chunks walls are drawn in. See
+     * TileLayer.
+     */
+    public static final int TILE_CHUNK_SIZE = 256;
+    
+    
+    /** The most memory the images of the wall chunks may take, in bytes. */
+    public static final long TILE_CACHE_BYTES = 16L * 1024 * 1024;
+    
+    
+    /**
+     * The file key bindings are read from, if it exists. See the KeyBindings
+     * class for the format of the file.
+     */
+    public static final String KEY_BINDINGS_FILE = System.getProperty("user.home")
+                                            + "/.undesirable_invasion/keys.properties";
+    
+    
+    /** The file the weapons are read from, if it exists. See Weapon. */
+    public static final String WEAPONS_FILE = System.getProperty("user.home")
+                                            + "/.undesirable_invasion/weapons.properties";
     
-    public static Image getEnemyImage(int type) {
-        return new Image("/enemy"+type+".gif", true);
-    }
     
-    public static Image getDeadPlayerImage() {
-        return new Image("/dead_player.png", true);
-    }
+    /** The file the enemy archetypes are read from, if it exists. See EnemyArchetype. */
+    public static final String ENEMIES_FILE = System.getProperty("user.home")
+                                            + "/.undesirable_invasion/enemies.properties";
 }
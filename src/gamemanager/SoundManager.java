@@ -1,19 +1,314 @@
 package gamemanager;
 
-import javafx.scene.media.AudioClip;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Plays the game's music and sound effects. Every sound is loaded once, when
+ * init() is called, so playing a sound never loads or creates anything.
  *
+ * Anything in the game can call play() at any time, from any thread; the
+ * request is put on a lock free CommandQueue and nothing else happens. Once per
+ * frame the game loop calls update(), which starts the queued sounds. A sound
+ * requested several times in one frame, like a shotgun's pellets all hitting,
+ * is only started once. At most MAX_VOICES effects play at the same time; when
+ * they are all busy, a new sound replaces the lowest priority one if it is at
+ * least as important, and is dropped otherwise.
+ *
+ * The sounds go to an AudioBackend. On machines without audio, and on the
+ * server, the backend is AudioBackend.NULL and nothing plays.
  *
  * @author Jackie Chan
  * May 9, 2016
  */
 public class SoundManager {
 
-    public SoundManager() {}
-    
-    public void playSound() {
-        AudioClip ac = new AudioClip(SoundManager.class.getResource("/theme.mp3").toString());
-        ac.play();
+
+    /** Sound ids. */
+    public static final int THEME = 0, GUNSHOT = 1, HIT = 2, ENEMY_DEATH = 3, PLAYER_HURT = 4;
+
+
+    /**
+     * The resource each sound is loaded from, indexed by id. The theme has
+     * never been part of the repository, so the music is silent unless a
+     * theme.mp3 is added.
+     */
+    private static final String[] RESOURCES = {
+        "/theme.mp3", "/gunshot.wav", "/hit.wav", "/enemy_death.wav", "/player_hurt.wav"
+    };
+
+
+    /** The priority of each sound. Higher priorities steal lower ones' voices. */
+    private static final int[] PRIORITIES = {0, 1, 2, 3, 4};
+
+
+    /** How long each sound plays, in milliseconds. Used to free its voice. */
+    private static final int[] DURATIONS = {0, 150, 200, 600, 400};
+
+
+    /** The most sound effects that can play at once. Music doesn't count. */
+    public static final int MAX_VOICES = 8;
+
+
+    /** The amount of recent calls a recording backend remembers. */
+    private static final int RECORDED_CALLS = 256;
+
+
+    /** The system property used to pick a backend: "fx", "null" or "recording". */
+    public static final String BACKEND_PROPERTY = "undesirable_invasion.audio";
+
+
+    /** Requests from play(), waiting for the next update(). */
+    private static final CommandQueue requests = new CommandQueue(256);
+
+
+    /** The sound in each voice, or -1 if the voice is free. */
+    private static final int[] voiceSound = new int[MAX_VOICES];
+
+
+    /** The game time each voice's sound ends. */
+    private static final long[] voiceEnd = new long[MAX_VOICES];
+
+
+    /** The game time each voice's sound started. Used to steal the oldest. */
+    private static final long[] voiceStart = new long[MAX_VOICES];
+
+
+    /** The update each sound was last started in. Used to play it only once. */
+    private static final long[] startedIn = new long[RESOURCES.length];
+
+
+    /** The backend sounds are played on. */
+    private static AudioBackend backend = AudioBackend.NULL;
+
+
+    /** The amount of update() calls so far. */
+    private static long updates = 0;
+
+
+    /** Counters for how the voices are doing. */
+    private static long started = 0, stolen = 0;
+
+
+    /** The amount of sounds dropped. play() counts too, from any thread. */
+    private static final AtomicLong dropped = new AtomicLong();
+
+
+    /**
+     * Plays the sounds for a batch of GameEvents: a hit, an enemy dying and
+     * the main player being hurt. Each sound is asked for once per batch.
+     */
+    public static final GameEvents.Listener EVENTS = new GameEvents.Listener() {
+        @Override
+        public void onEvents(GameEvents.Batch events) {
+            boolean hit = false, death = false, hurt = false;
+            for (int i = 0; i < events.size(); i++) {
+                switch (events.getType(i)) {
+                    case GameEvents.HIT:            hit = true; break;
+                    case GameEvents.KILL:           death = true; break;
+                    case GameEvents.PLAYER_DAMAGED: hurt = true; break;
+                    default: break;
+                }
+            }
+            if (hit) play(HIT);
+            if (death) play(ENEMY_DEATH);
+            if (hurt) play(PLAYER_HURT);
+        }
+    };
+
+
+    /** A private constructor so this class cannot be instantiated. */
+    private SoundManager() {}
+
+
+    /**
+     * Sets the backend and loads every sound. Call this once, before anything
+     * is played.
+     *
+     * @param audioBackend  The backend to play sounds on.
+     */
+    public static void init(AudioBackend audioBackend) {
+        backend = audioBackend;
+
+        for (int sound = 0; sound < RESOURCES.length; sound++) {
+            backend.load(sound, RESOURCES[sound]);
+            startedIn[sound] = -1;
+        }
+        for (int v = 0; v < MAX_VOICES; v++) voiceSound[v] = -1;
+    }
+
+
+    /**
+     * Frees every voice and forgets the sounds waiting to be started. Voices
+     * are freed by game time, so call this whenever the game clock is set back,
+     * like when a new game is started or a save is loaded; otherwise the
+     * voices of the last game stay busy until the new clock catches up.
+     */
+    public static void reset() {
+        while (requests.poll() >= 0) {
+            // Sounds asked for by the last game are not played in this one.
+        }
+        for (int v = 0; v < MAX_VOICES; v++) voiceSound[v] = -1;
+        for (int sound = 0; sound < RESOURCES.length; sound++) startedIn[sound] = -1;
+    }
+
+
+    /**
+     * Creates the backend picked by the BACKEND_PROPERTY system property:
+     * "fx", "null", or "recording" for a RecordingAudioBackend, which plays
+     * nothing but can be checked. When the property is not set, JavaFX audio
+     * is only used on Windows, since it is not reliable elsewhere.
+     *
+     * @return  The backend to pass to init().
+     */
+    public static AudioBackend createDefaultBackend() {
+        String choice = System.getProperty(BACKEND_PROPERTY);
+
+        if (choice == null) {
+            choice = System.getProperty("os.name").toLowerCase().contains("window")
+                        ? "fx" : "null";
+        }
+
+        if (choice.equals("fx")) {
+            return new FxAudioBackend(RESOURCES.length);
+        }
+        if (choice.equals("recording")) {
+            return new RecordingAudioBackend(RECORDED_CALLS);
+        }
+        System.out.println("SoundManager:\tSound is off on "+System.getProperty("os.name"));
+        return AudioBackend.NULL;
+    }
+
+
+    /**
+     * Asks for a sound effect to be played at the next update(). This can be
+     * called from any thread and never blocks.
+     *
+     * @param sound     The sound's id.
+     */
+    public static void play(int sound) {
+        if (!requests.offer(sound)) dropped.incrementAndGet();
+    }
+
+
+    /**
+     * Starts playing music on a loop. Music doesn't use a voice.
+     *
+     * @param sound     The sound's id.
+     */
+    public static void playMusic(int sound) {
+        backend.play(sound, 1.0, true);
+    }
+
+
+    /**
+     * Stops music started by playMusic().
+     *
+     * @param sound     The sound's id.
+     */
+    public static void stopMusic(int sound) {
+        backend.stop(sound);
+    }
+
+
+    /**
+     * Frees the voices whose sounds have ended and starts the requested sounds.
+     * Call this once per frame from the game loop.
+     *
+     * @param time  The current game time in milliseconds.
+     */
+    public static void update(long time) {
+        updates++;
+
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voiceSound[v] >= 0 && time >= voiceEnd[v]) voiceSound[v] = -1;
+        }
+
+        for (int sound = requests.poll(); sound >= 0; sound = requests.poll()) {
+            if (sound >= RESOURCES.length || startedIn[sound] == updates) continue;
+
+            int voice = pickVoice(PRIORITIES[sound]);
+            if (voice < 0) {
+                dropped.incrementAndGet();
+                continue;
+            }
+
+            int victim = voiceSound[voice];
+            voiceSound[voice]   = sound;
+            voiceStart[voice]   = time;
+            voiceEnd[voice]     = time + DURATIONS[sound];
+            startedIn[sound]    = updates;
+            started++;
+
+            if (victim >= 0) {
+                stolen++;
+                if (victim != sound && !isPlaying(victim)) backend.stop(victim);
+            }
+            backend.play(sound, 1.0, false);
+        }
+    }
+
+
+    /**
+     * Returns a free voice; or if there is none, the lowest priority voice,
+     * oldest first, as long as its priority is not above the given one.
+     *
+     * @param priority  The priority of the sound that needs a voice.
+     * @return          The voice to use, or -1 if the sound should be dropped.
+     */
+    private static int pickVoice(int priority) {
+        int victim = -1;
+
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voiceSound[v] < 0) return v;
+
+            if (victim < 0
+                    || PRIORITIES[voiceSound[v]] < PRIORITIES[voiceSound[victim]]
+                    || (PRIORITIES[voiceSound[v]] == PRIORITIES[voiceSound[victim]]
+                        && voiceStart[v] < voiceStart[victim])) {
+                victim = v;
+            }
+        }
+
+        return PRIORITIES[voiceSound[victim]] <= priority ? victim : -1;
+    }
+
+
+    /**
+     * Returns whether any voice is playing a sound. A backend can only stop
+     * every copy of a sound at once, so a stolen sound is only stopped when no
+     * other voice still has it.
+     *
+     * @param sound     The sound's id.
+     * @return          true if a voice is playing the sound.
+     */
+    private static boolean isPlaying(int sound) {
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voiceSound[v] == sound) return true;
+        }
+        return false;
+    }
+
+
+    /*
+        Counters for checking how the voices are doing.
+    */
+    public static int getActiveVoices() {
+        int active = 0;
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voiceSound[v] >= 0) active++;
+        }
+        return active;
+    }
+
+    public static long getStarted() {
+        return started;
+    }
+
+    public static long getStolen() {
+        return stolen;
+    }
+
+    public static long getDropped() {
+        return dropped.get();
     }
 }
@@ -0,0 +1,166 @@
+package gamemanager;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid that buckets points by the cell they are in. The grid is
+ * rebuilt from scratch whenever the points move, using a counting sort, so a
+ * rebuild costs two passes over the points and never allocates once the
+ * internal arrays are big enough. After a rebuild, the points in a cell are
+ * found with:
+ *
+ *      for (int i = grid.cellStart(c); i < grid.cellEnd(c); i++) {
+ *          int point = grid.item(i);
+ *      }
+ *
+ * Points outside the grid are clamped into the nearest edge cell, so nothing
+ * is ever lost.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class SpatialGrid {
+
+
+    /** The width and height of each cell. */
+    private final int cellSize;
+
+
+    /** The amount of columns and rows. */
+    private final int columns, rows;
+
+
+    /**
+     * cellStart[c] is the index in items of the first point in cell c, and
+     * cellStart[c + 1] is one past the last.
+     */
+    private final int[] cellStart;
+
+
+    /** The indices of the points, grouped by cell. */
+    private int[] items = new int[0];
+
+
+    /** The cell each point was put in during the last rebuild. */
+    private int[] cellOf = new int[0];
+
+
+    /**
+     * Creates a grid that covers (0,0) to (width,height).
+     *
+     * @param width     The width of the area covered.
+     * @param height    The height of the area covered.
+     * @param cellSize  The width and height of a cell.
+     */
+    public SpatialGrid(int width, int height, int cellSize) {
+        this.cellSize   = cellSize;
+        this.columns    = Math.max(1, (width + cellSize - 1) / cellSize);
+        this.rows       = Math.max(1, (height + cellSize - 1) / cellSize);
+        this.cellStart  = new int[columns * rows + 1];
+    }
+
+
+    /**
+     * Rebuilds the grid from the first count points in xs and ys.
+     *
+     * @param xs        The x-coordinates of the points.
+     * @param ys        The y-coordinates of the points.
+     * @param count     The amount of points.
+     */
+    public void rebuild(double[] xs, double[] ys, int count) {
+        if (items.length < count) {
+            items  = new int[Math.max(count, items.length * 2)];
+            cellOf = new int[items.length];
+        }
+
+        Arrays.fill(cellStart, 0);
+
+        // Count the points in each cell. cellStart is shifted by one for now.
+        for (int i = 0; i < count; i++) {
+            int c = cellAt(xs[i], ys[i]);
+            cellOf[i] = c;
+            cellStart[c + 1]++;
+        }
+
+        // Turn the counts into starting positions.
+        for (int c = 1; c < cellStart.length; c++) {
+            cellStart[c] += cellStart[c - 1];
+        }
+
+        // Place the points. This moves each start forward by the cell's count,
+        // which leaves cellStart[c] holding what cellStart[c + 1] should be.
+        for (int i = 0; i < count; i++) {
+            items[cellStart[cellOf[i]]++] = i;
+        }
+
+        // Shift the starts back into place.
+        for (int c = cellStart.length - 1; c > 0; c--) {
+            cellStart[c] = cellStart[c - 1];
+        }
+        cellStart[0] = 0;
+    }
+
+
+    /**
+     * Returns the cell that contains a point.
+     *
+     * @param x     The x-coordinate of the point.
+     * @param y     The y-coordinate of the point.
+     * @return      The cell the point is in.
+     */
+    public int cellAt(double x, double y) {
+        return row(y) * columns + column(x);
+    }
+
+
+    /**
+     * Returns the column that contains an x-coordinate, clamped into the grid.
+     *
+     * @param x     The x-coordinate.
+     * @return      The column.
+     */
+    public int column(double x) {
+        int c = (int)(x / cellSize);
+        return c < 0 ? 0 : (c >= columns ? columns - 1 : c);
+    }
+
+
+    /**
+     * Returns the row that contains a y-coordinate, clamped into the grid.
+     *
+     * @param y     The y-coordinate.
+     * @return      The row.
+     */
+    public int row(double y) {
+        int r = (int)(y / cellSize);
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+
+
+    /*
+        The methods below give access to the contents of the grid.
+    */
+    public int cellStart(int cell) {
+        return cellStart[cell];
+    }
+
+    public int cellEnd(int cell) {
+        return cellStart[cell + 1];
+    }
+
+    public int item(int index) {
+        return items[index];
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+}
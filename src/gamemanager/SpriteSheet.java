@@ -0,0 +1,432 @@
+package gamemanager;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * An animated gif decoded once into a single image with every frame side by
+ * side. An ImageView showing a gif animates it on its own, so ten thousand
+ * enemies would be ten thousand animations. Instead, each ImageView shows the
+ * sheet with its viewport set to one frame, and the frame is picked from the
+ * game clock by frameAt(), so the only thing an entity keeps for its animation
+ * is an int: its phase.
+ *
+ * Frames are in the order of the gif, left to right then top to bottom, and
+ * each one is the whole picture at that point of the animation, with the gif's
+ * partial frames and disposal methods already applied.
+ *
+ * A sheet can also be pre-rotated with rotated(), which draws every frame at a
+ * fixed number of angles once, at load time. Showing the nearest of those is
+ * as cheap as showing an unrotated frame, while ImageView.setRotate() makes
+ * JavaFX work out the node's transform and bounds again on every turn.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class SpriteSheet {
+
+
+    /** The delay used for a frame whose gif delay is missing or too short. */
+    private static final int DEFAULT_DELAY = 100;
+
+
+    /** The shortest delay a gif frame can have. Shorter ones use DEFAULT_DELAY. */
+    private static final int MIN_DELAY = 20;
+
+
+    /** The image holding every frame. */
+    private final Image image;
+
+
+    /** 
+     * The part of the image each frame is in. A rotated sheet has each frame
+     * at every angle, the angles of a frame next to each other.
+     */
+    private final Rectangle2D[] frames;
+
+
+    /** The time each frame ends, in milliseconds from the animation's start. */
+    private final int[] frameEnd;
+
+
+    /** The size of a frame. */
+    private final double frameWidth, frameHeight;
+
+
+    /** The amount of angles each frame is drawn at. 1 if not rotated. */
+    private final int angles;
+
+
+    /**
+     * How far left of and above the sprite's position a rotated frame starts.
+     * A rotated frame is bigger than the sprite, so its corners fit.
+     */
+    private final double offsetX, offsetY;
+
+
+    /**
+     * Creates a sprite sheet.
+     *
+     * @param image         The image holding every frame.
+     * @param frames        The part of the image each frame is in.
+     * @param frameEnd      The time each frame ends, in milliseconds.
+     * @param angles        The amount of angles each frame is drawn at.
+     * @param offsetX       How far left of the sprite the frames start.
+     * @param offsetY       How far above the sprite the frames start.
+     */
+    private SpriteSheet(Image image, Rectangle2D[] frames, int[] frameEnd,
+                        int angles, double offsetX, double offsetY) {
+        this.image          = image;
+        this.frames         = frames;
+        this.frameEnd       = frameEnd;
+        this.frameWidth     = frames[0].getWidth();
+        this.frameHeight    = frames[0].getHeight();
+        this.angles         = angles;
+        this.offsetX        = offsetX;
+        this.offsetY        = offsetY;
+    }
+
+
+    /**
+     * Creates an unrotated sprite sheet.
+     *
+     * @param image         The image holding every frame.
+     * @param frames        The part of the image each frame is in.
+     * @param delays        How long each frame is shown, in milliseconds.
+     */
+    private SpriteSheet(Image image, Rectangle2D[] frames, int[] delays) {
+        this(image, frames, new int[delays.length], 1, 0, 0);
+
+        int end = 0;
+        for (int i = 0; i < delays.length; i++) {
+            end += delays[i];
+            frameEnd[i] = end;
+        }
+    }
+
+
+    /**
+     * Decodes an image resource. A gif gets a frame for each of its images;
+     * anything else, or a gif the decoder can't read, is a single frame.
+     *
+     * @param resource      The resource, like "/enemy1.gif".
+     * @return              The sprite sheet.
+     */
+    public static SpriteSheet decode(String resource) {
+        if (resource.endsWith(".gif")) {
+            try (InputStream in = SpriteSheet.class.getResourceAsStream(resource)) {
+                if (in != null) return decodeGif(in);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("SpriteSheet:\tCould not decode the frames of "+resource+": "+e);
+            }
+        }
+        return of(new Image(resource, false));
+    }
+
+
+    /**
+     * Makes a sprite sheet of one frame.
+     *
+     * @param image     The frame.
+     * @return          The sprite sheet.
+     */
+    public static SpriteSheet of(Image image) {
+        return new SpriteSheet(image,
+                new Rectangle2D[]{new Rectangle2D(0, 0, image.getWidth(), image.getHeight())},
+                new int[]{DEFAULT_DELAY});
+    }
+
+
+    /**
+     * Reads every frame of a gif and lays them out on one image.
+     */
+    private static SpriteSheet decodeGif(InputStream in) throws IOException {
+        ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+        try (ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            reader.setInput(stream);
+            int count = reader.getNumImages(true);
+            if (count < 1) throw new IOException("no frames");
+
+            // The size of the picture, which partial frames are drawn onto.
+            int width = 0, height = 0;
+            IIOMetadataNode screen = child(reader.getStreamMetadata()
+                    .getAsTree("javax_imageio_gif_stream_1.0"), "LogicalScreenDescriptor");
+            if (screen != null) {
+                width   = Integer.parseInt(screen.getAttribute("logicalScreenWidth"));
+                height  = Integer.parseInt(screen.getAttribute("logicalScreenHeight"));
+            }
+
+            List<BufferedImage> parts = new ArrayList<>(count);
+            int[] left = new int[count], top = new int[count], delays = new int[count];
+            String[] disposal = new String[count];
+            for (int i = 0; i < count; i++) {
+                BufferedImage part = reader.read(i);
+                IIOMetadataNode metadata = (IIOMetadataNode)reader.getImageMetadata(i)
+                                            .getAsTree("javax_imageio_gif_image_1.0");
+                IIOMetadataNode descriptor = child(metadata, "ImageDescriptor");
+                IIOMetadataNode control = child(metadata, "GraphicControlExtension");
+
+                if (descriptor != null) {
+                    left[i] = Integer.parseInt(descriptor.getAttribute("imageLeftPosition"));
+                    top[i]  = Integer.parseInt(descriptor.getAttribute("imageTopPosition"));
+                }
+                int delay = control == null ? 0
+                        : Integer.parseInt(control.getAttribute("delayTime")) * 10;
+                delays[i]   = delay < MIN_DELAY ? DEFAULT_DELAY : delay;
+                disposal[i] = control == null ? "none" : control.getAttribute("disposalMethod");
+
+                width   = Math.max(width, left[i] + part.getWidth());
+                height  = Math.max(height, top[i] + part.getHeight());
+                parts.add(part);
+            }
+
+            // Frames go in rows, about as many as columns, so a long animation
+            // doesn't make an image too wide for the graphics card.
+            int columns = (int)Math.ceil(Math.sqrt(count));
+            int rows    = (count + columns - 1) / columns;
+            WritableImage sheet = new WritableImage(width * columns, height * rows);
+            Rectangle2D[] frames = new Rectangle2D[count];
+
+            BufferedImage picture = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = picture.createGraphics();
+            int[] pixels = new int[width * height];
+            for (int i = 0; i < count; i++) {
+                BufferedImage part = parts.get(i);
+                int[] previous = "restoreToPrevious".equals(disposal[i])
+                        ? picture.getRGB(0, 0, width, height, null, 0, width) : null;
+
+                g.drawImage(part, left[i], top[i], null);
+                picture.getRGB(0, 0, width, height, pixels, 0, width);
+
+                int x = (i % columns) * width, y = (i / columns) * height;
+                sheet.getPixelWriter().setPixels(x, y, width, height,
+                        PixelFormat.getIntArgbInstance(), pixels, 0, width);
+                frames[i] = new Rectangle2D(x, y, width, height);
+
+                // Get the picture ready for the next frame.
+                if ("restoreToBackgroundColor".equals(disposal[i])) {
+                    g.setComposite(AlphaComposite.Clear);
+                    g.fillRect(left[i], top[i], part.getWidth(), part.getHeight());
+                    g.setComposite(AlphaComposite.SrcOver);
+                } else if (previous != null) {
+                    picture.setRGB(0, 0, width, height, previous, 0, width);
+                }
+            }
+            g.dispose();
+
+            return new SpriteSheet(sheet, frames, delays);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+
+    /**
+     * Returns the first child of a metadata node with a name, or null.
+     */
+    private static IIOMetadataNode child(Node node, String name) {
+        NodeList children = ((IIOMetadataNode)node).getElementsByTagName(name);
+        return children.getLength() == 0 ? null : (IIOMetadataNode)children.item(0);
+    }
+
+
+    /**
+     * Returns the frame shown at a time when the animation loops forever.
+     *
+     * @param time      The game time in milliseconds.
+     * @param phase     How far into the animation this entity is at time 0,
+     *                  so entities don't all move in step.
+     * @return          The frame's index.
+     */
+    public int frameAt(long time, int phase) {
+        if (frameEnd.length == 1) return 0;
+        return frameAtAge((int)Math.floorMod(time + phase, (long)getDuration()));
+    }
+
+
+    /**
+     * Returns the frame shown a time after the animation started, when it
+     * plays once. The last frame is shown once it is over.
+     *
+     * @param age       The time since the animation started, in milliseconds.
+     * @return          The frame's index.
+     */
+    public int frameAtAge(long age) {
+        // There are only a few frames, so a search wouldn't be faster.
+        int i = 0;
+        while (i < frameEnd.length - 1 && age >= frameEnd[i]) i++;
+        return i;
+    }
+
+
+    /**
+     * Returns the part of the image a frame is in, for ImageView.setViewport()
+     * or GraphicsContext.drawImage().
+     *
+     * @param frame     The frame's index.
+     * @return          The frame's rectangle.
+     */
+    public Rectangle2D getFrame(int frame) {
+        return frames[frame * angles];
+    }
+
+
+    /**
+     * Returns the part of the image a frame is in, drawn at the angle nearest
+     * to one. The frame is offsetX and offsetY bigger on each side than the
+     * sprite, so it is placed that far up and left of the sprite's position.
+     *
+     * @param frame     The frame's index.
+     * @param degrees   The angle, clockwise, like ImageView.setRotate().
+     * @return          The frame's rectangle.
+     */
+    public Rectangle2D getFrame(int frame, double degrees) {
+        int angle = (int)Math.round(degrees * angles / 360);
+        return frames[frame * angles + Math.floorMod(angle, angles)];
+    }
+
+
+    /**
+     * Makes a sheet with every frame of this one drawn at a number of angles.
+     * Each is sampled from the frame with bilinear filtering, around its
+     * center, on a square that fits the frame at any angle.
+     *
+     * @param count     The amount of angles, evenly spread around the circle.
+     * @return          The rotated sheet.
+     */
+    public SpriteSheet rotated(int count) {
+        int sourceWidth = (int)frameWidth, sourceHeight = (int)frameHeight;
+        int size = (int)Math.ceil(Math.hypot(sourceWidth, sourceHeight));
+        int frameCount = frameEnd.length, cells = frameCount * count;
+        int columns = (int)Math.ceil(Math.sqrt(cells));
+        int rows = (cells + columns - 1) / columns;
+
+        WritableImage sheet = new WritableImage(columns * size, rows * size);
+        Rectangle2D[] rotatedFrames = new Rectangle2D[cells];
+        int[] source = new int[sourceWidth * sourceHeight];
+        int[] pixels = new int[size * size];
+
+        for (int frame = 0; frame < frameCount; frame++) {
+            Rectangle2D f = getFrame(frame);
+            image.getPixelReader().getPixels((int)f.getMinX(), (int)f.getMinY(),
+                    sourceWidth, sourceHeight, PixelFormat.getIntArgbInstance(),
+                    source, 0, sourceWidth);
+
+            for (int angle = 0; angle < count; angle++) {
+                double radians = Math.toRadians(360.0 * angle / count);
+                rotate(source, sourceWidth, sourceHeight, pixels, size,
+                        Math.cos(radians), Math.sin(radians));
+
+                int cell = frame * count + angle;
+                int x = (cell % columns) * size, y = (cell / columns) * size;
+                sheet.getPixelWriter().setPixels(x, y, size, size,
+                        PixelFormat.getIntArgbInstance(), pixels, 0, size);
+                rotatedFrames[cell] = new Rectangle2D(x, y, size, size);
+            }
+        }
+
+        return new SpriteSheet(sheet, rotatedFrames, frameEnd, count,
+                                (size - frameWidth) / 2, (size - frameHeight) / 2);
+    }
+
+
+    /**
+     * Draws a picture turned clockwise around its center onto a square with
+     * the same center. Each pixel of the square is blended from the four
+     * pixels of the picture nearest to where it comes from.
+     */
+    private static void rotate(int[] source, int width, int height,
+                                int[] target, int size, double cos, double sin) {
+        double centerX = width / 2.0, centerY = height / 2.0, half = size / 2.0;
+
+        for (int ty = 0; ty < size; ty++) {
+            for (int tx = 0; tx < size; tx++) {
+                // Turn the target pixel's center back to find it in the source.
+                double dx = tx + 0.5 - half, dy = ty + 0.5 - half;
+                double sx = cos * dx + sin * dy + centerX - 0.5;
+                double sy = -sin * dx + cos * dy + centerY - 0.5;
+
+                int x0 = (int)Math.floor(sx), y0 = (int)Math.floor(sy);
+                double fx = sx - x0, fy = sy - y0;
+
+                // Colors are weighted by alpha, so transparent pixels don't
+                // darken the edges.
+                double a = 0, red = 0, green = 0, blue = 0;
+                for (int n = 0; n < 4; n++) {
+                    int x = x0 + (n & 1), y = y0 + (n >> 1);
+                    if (x < 0 || y < 0 || x >= width || y >= height) continue;
+
+                    int argb = source[y * width + x];
+                    double weight = ((n & 1) == 0 ? 1 - fx : fx) * ((n >> 1) == 0 ? 1 - fy : fy);
+                    double alpha = (argb >>> 24) * weight;
+                    a       += alpha;
+                    red     += ((argb >> 16) & 0xFF) * alpha;
+                    green   += ((argb >> 8) & 0xFF) * alpha;
+                    blue    += (argb & 0xFF) * alpha;
+                }
+
+                target[ty * size + tx] = a < 0.5 ? 0
+                        : ((int)Math.round(a) << 24)
+                        | ((int)Math.round(red / a) << 16)
+                        | ((int)Math.round(green / a) << 8)
+                        | (int)Math.round(blue / a);
+            }
+        }
+    }
+
+
+    public Image getImage() {
+        return image;
+    }
+
+    /** Returns the amount of frames of the animation, not counting angles. */
+    public int getFrameCount() {
+        return frameEnd.length;
+    }
+
+    /** Returns the amount of angles each frame is drawn at; 1 if not rotated. */
+    public int getAngles() {
+        return angles;
+    }
+
+    public double getOffsetX() {
+        return offsetX;
+    }
+
+    public double getOffsetY() {
+        return offsetY;
+    }
+
+    /** Returns the memory the sheet's pixels take, in bytes. */
+    public long getBytes() {
+        return (long)image.getWidth() * (long)image.getHeight() * 4;
+    }
+
+    /** Returns how long the animation takes to play once, in milliseconds. */
+    public int getDuration() {
+        return frameEnd[frameEnd.length - 1];
+    }
+
+    public double getFrameWidth() {
+        return frameWidth;
+    }
+
+    public double getFrameHeight() {
+        return frameHeight;
+    }
+}
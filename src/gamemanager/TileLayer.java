@@ -0,0 +1,311 @@
+package gamemanager;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * Draws the walls of a TileMap. The map is cut into square chunks, and each
+ * chunk is drawn once into an image of its own; the area that is shown is then
+ * one drawImage() per chunk on a Canvas, however many walls there are. The
+ * Canvas keeps what was drawn on it, so as long as the shown area and its
+ * walls stay the same, nothing is drawn at all.
+ *
+ * Chunk images are kept in a least recently used cache with a memory cap, so
+ * a big map only keeps the chunks that were shown lately. A wall that is added
+ * or removed (see TileMap.setSolid()) only drops the images of the chunks it
+ * and its neighbours are drawn in, which are drawn again the next time they
+ * are shown.
+ *
+ * Must only be used on the JavaFX thread.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class TileLayer implements TileMap.Listener {
+
+
+    /** The map whose walls are drawn. */
+    private final TileMap map;
+
+
+    /** The width and height of a chunk in pixels. */
+    private final int chunkSize;
+
+
+    /** The amount of columns and rows of chunks. */
+    private final int chunkColumns, chunkRows;
+
+
+    /** The most memory the chunk images may take, in bytes. */
+    private final long maxBytes;
+
+
+    /** The chunk images, by chunk index, from least to most recently used. */
+    private final LinkedHashMap<Integer, WritableImage> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+
+    /** The memory the cached chunk images take, in bytes. */
+    private long cachedBytes = 0;
+
+
+    /** The chunks whose walls changed since the canvas was drawn. */
+    private final BitSet dirty = new BitSet();
+
+
+    /** The pixels of the chunk being drawn. Reused for every chunk. */
+    private final int[] pixels;
+
+
+    /** The colors of a wall and of a wall's edge, as ARGB. */
+    private final int wallColor, edgeColor;
+
+
+    /** The canvas the chunks are drawn on. */
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+
+
+    /** The area the canvas shows, in map pixels. NaN before the first render(). */
+    private double areaX = Double.NaN, areaY = Double.NaN;
+
+
+    /** Counters for how the cache is doing. */
+    private long rasterized = 0, evicted = 0, drawCalls = 0;
+
+
+    /**
+     * Creates a layer for a map. From now on it is told when the map's walls
+     * change.
+     *
+     * @param map       The map.
+     * @param chunkSize The width and height of a chunk in pixels.
+     * @param maxBytes  The most memory the chunk images may take.
+     * @param width     The width of the area shown.
+     * @param height    The height of the area shown.
+     */
+    public TileLayer(TileMap map, int chunkSize, long maxBytes, double width, double height) {
+        this.map            = map;
+        this.chunkSize      = chunkSize;
+        this.chunkColumns   = (map.getWidth() + chunkSize - 1) / chunkSize;
+        this.chunkRows      = (map.getHeight() + chunkSize - 1) / chunkSize;
+        this.maxBytes       = maxBytes;
+        this.pixels         = new int[chunkSize * chunkSize];
+        this.wallColor      = toArgb(Assets.WALL);
+        this.edgeColor      = toArgb(Assets.WALL_EDGE);
+
+        this.canvas         = new Canvas(width, height);
+        this.gc             = canvas.getGraphicsContext2D();
+
+        // Walls are only for looks here; they shouldn't take the mouse.
+        canvas.setMouseTransparent(true);
+        map.setListener(this);
+    }
+
+
+    /**
+     * Returns the canvas the walls are drawn on. Put it under the entities.
+     *
+     * @return  The canvas.
+     */
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+
+    /**
+     * Drops the images of the chunks a tile is drawn in, so they are drawn
+     * again. A tile can straddle chunks, and its neighbours' edges depend on
+     * it, so that is every chunk the tile and its neighbours overlap.
+     */
+    @Override
+    public void tileChanged(int col, int row) {
+        int tileSize = map.getTileSize();
+        int firstColumn = Math.max(0, (col - 1) * tileSize / chunkSize);
+        int firstRow    = Math.max(0, (row - 1) * tileSize / chunkSize);
+        int lastColumn  = Math.min(chunkColumns - 1, ((col + 2) * tileSize - 1) / chunkSize);
+        int lastRow     = Math.min(chunkRows - 1, ((row + 2) * tileSize - 1) / chunkSize);
+
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                int chunk = r * chunkColumns + c;
+                WritableImage image = cache.remove(chunk);
+                if (image != null) cachedBytes -= bytes(image);
+                dirty.set(chunk);
+            }
+        }
+    }
+
+
+    /**
+     * Shows an area of the map. Only the chunks in it are drawn, and only if
+     * the area moved or their walls changed; otherwise this does nothing.
+     * Call this once per frame.
+     *
+     * @param x     The x-coordinate of the area's top left corner on the map.
+     * @param y     The y-coordinate of the area's top left corner on the map.
+     */
+    public void render(double x, double y) {
+        double width = canvas.getWidth(), height = canvas.getHeight();
+        boolean moved = x != areaX || y != areaY;
+        if (!moved && dirty.isEmpty()) return;
+
+        int firstColumn = Math.max(0, (int)Math.floor(x / chunkSize));
+        int firstRow    = Math.max(0, (int)Math.floor(y / chunkSize));
+        int lastColumn  = Math.min(chunkColumns - 1, (int)Math.floor((x + width - 1) / chunkSize));
+        int lastRow     = Math.min(chunkRows - 1, (int)Math.floor((y + height - 1) / chunkSize));
+
+        if (moved) gc.clearRect(0, 0, width, height);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstColumn; col <= lastColumn; col++) {
+                int chunk = row * chunkColumns + col;
+                if (!moved && !dirty.get(chunk)) continue;
+
+                double drawX = col * chunkSize - x, drawY = row * chunkSize - y;
+                WritableImage image = getChunk(chunk);
+                if (!moved) gc.clearRect(drawX, drawY, image.getWidth(), image.getHeight());
+                gc.drawImage(image, drawX, drawY);
+                drawCalls++;
+            }
+        }
+
+        // Chunks that changed out of sight were dropped from the cache, and
+        // are drawn again when the area moves to them.
+        dirty.clear();
+        areaX = x;
+        areaY = y;
+    }
+
+
+    /**
+     * Returns a chunk's image from the cache, drawing it if it isn't there
+     * and dropping the least recently used images if the cache is too big.
+     * The image asked for is kept even if it alone is over the cap.
+     */
+    private WritableImage getChunk(int chunk) {
+        WritableImage image = cache.get(chunk);
+        if (image != null) return image;
+
+        image = rasterize(chunk % chunkColumns, chunk / chunkColumns);
+        cache.put(chunk, image);
+        cachedBytes += bytes(image);
+
+        Iterator<Map.Entry<Integer, WritableImage>> eldest = cache.entrySet().iterator();
+        while (cachedBytes > maxBytes && cache.size() > 1) {
+            cachedBytes -= bytes(eldest.next().getValue());
+            eldest.remove();
+            evicted++;
+        }
+        return image;
+    }
+
+
+    /**
+     * Draws the walls of a chunk into a new image. Open ground is left
+     * transparent, and a wall's sides that face open ground get an edge.
+     */
+    private WritableImage rasterize(int chunkColumn, int chunkRow) {
+        int tileSize = map.getTileSize();
+        int left = chunkColumn * chunkSize, top = chunkRow * chunkSize;
+        int width = Math.min(chunkSize, map.getWidth() - left);
+        int height = Math.min(chunkSize, map.getHeight() - top);
+
+        Arrays.fill(pixels, 0, width * height, 0);
+
+        int firstColumn = left / tileSize, lastColumn = (left + width - 1) / tileSize;
+        int firstRow    = top / tileSize,  lastRow    = (top + height - 1) / tileSize;
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstColumn; col <= lastColumn; col++) {
+                if (!map.isSolid(col, row)) continue;
+
+                // The tile's pixels, relative to the chunk.
+                int x0 = col * tileSize - left, y0 = row * tileSize - top;
+                int x1 = x0 + tileSize - 1,     y1 = y0 + tileSize - 1;
+
+                fill(x0, y0, x1, y1, width, height, wallColor);
+                if (!map.isSolid(col, row - 1)) fill(x0, y0, x1, y0, width, height, edgeColor);
+                if (!map.isSolid(col, row + 1)) fill(x0, y1, x1, y1, width, height, edgeColor);
+                if (!map.isSolid(col - 1, row)) fill(x0, y0, x0, y1, width, height, edgeColor);
+                if (!map.isSolid(col + 1, row)) fill(x1, y0, x1, y1, width, height, edgeColor);
+            }
+        }
+
+        WritableImage image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height,
+                PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        rasterized++;
+        return image;
+    }
+
+
+    /**
+     * Fills a rectangle of the chunk's pixels, from (x0, y0) to (x1, y1)
+     * inclusive, clipped to the chunk.
+     */
+    private void fill(int x0, int y0, int x1, int y1, int width, int height, int argb) {
+        x0 = Math.max(0, x0);
+        y0 = Math.max(0, y0);
+        x1 = Math.min(width - 1, x1);
+        y1 = Math.min(height - 1, y1);
+        if (x0 > x1) return;
+
+        for (int y = y0; y <= y1; y++) {
+            int row = y * width;
+            Arrays.fill(pixels, row + x0, row + x1 + 1, argb);
+        }
+    }
+
+
+    /**
+     * Returns the memory an image's pixels take.
+     */
+    private static long bytes(WritableImage image) {
+        return (long)image.getWidth() * (long)image.getHeight() * 4;
+    }
+
+
+    /**
+     * Converts a color to ARGB.
+     */
+    private static int toArgb(Color color) {
+        return (int)Math.round(color.getOpacity() * 255) << 24
+                | (int)Math.round(color.getRed() * 255) << 16
+                | (int)Math.round(color.getGreen() * 255) << 8
+                | (int)Math.round(color.getBlue() * 255);
+    }
+
+
+    /*
+        The methods below report how the cache is doing.
+    */
+    public int getCachedChunks() {
+        return cache.size();
+    }
+
+    public long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    /** Returns the amount of times a chunk was drawn into an image. */
+    public long getRasterized() {
+        return rasterized;
+    }
+
+    public long getEvicted() {
+        return evicted;
+    }
+
+    /** Returns the amount of chunk images drawn on the canvas. */
+    public long getDrawCalls() {
+        return drawCalls;
+    }
+}
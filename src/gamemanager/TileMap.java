@@ -0,0 +1,242 @@
+package gamemanager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A grid of square tiles that are either open or solid (a wall). One bit is
+ * kept per tile, so even a big map is small and a row of tiles can be checked
+ * a word at a time.
+ *
+ * Maps are read from the uncompressed format described in MapUtilities: one
+ * line per row of tiles, a 1 for a wall and a 0 for open ground.
+ *
+ * @see maputilities.MapUtilities
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class TileMap {
+
+
+    /** The amount of columns and rows of tiles. */
+    private final int columns, rows;
+
+
+    /** The width and height of a tile in pixels. */
+    private final int tileSize;
+
+
+    /** One bit per tile, row by row. A set bit is a wall. */
+    private final long[] solid;
+
+
+    /**
+     * Is told about a tile that became a wall or open ground, like a
+     * TileLayer that has to draw it again.
+     */
+    public interface Listener {
+
+        /**
+         * Called after a tile changed.
+         *
+         * @param col   The tile's column.
+         * @param row   The tile's row.
+         */
+        void tileChanged(int col, int row);
+    }
+
+
+    /** Told about every tile that changes, or null. */
+    private Listener listener;
+
+
+    /**
+     * Creates a map with no walls.
+     *
+     * @param columns   The amount of columns of tiles.
+     * @param rows      The amount of rows of tiles.
+     * @param tileSize  The width and height of a tile in pixels.
+     */
+    public TileMap(int columns, int rows, int tileSize) {
+        this.columns    = columns;
+        this.rows       = rows;
+        this.tileSize   = tileSize;
+        this.solid      = new long[(columns * rows + 63) >>> 6];
+    }
+
+
+    /**
+     * Creates a map from rows of ones and zeros.
+     *
+     * @param lines     The rows of the map.
+     * @param tileSize  The width and height of a tile in pixels.
+     * @return          The map.
+     * @throws IllegalArgumentException if the rows are empty, are not all the
+     *                                  same length, or contain anything but
+     *                                  ones and zeros.
+     */
+    public static TileMap fromRows(List<String> lines, int tileSize) {
+        if (lines.isEmpty()) throw new IllegalArgumentException("The map is empty.");
+
+        TileMap map = new TileMap(lines.get(0).length(), lines.size(), tileSize);
+
+        for (int row = 0; row < map.rows; row++) {
+            String line = lines.get(row);
+            if (line.length() != map.columns) {
+                throw new IllegalArgumentException("Row "+row+" has length "+line.length()
+                                                    +", expected "+map.columns+".");
+            }
+
+            for (int col = 0; col < map.columns; col++) {
+                char c = line.charAt(col);
+                if (c != '0' && c != '1') {
+                    throw new IllegalArgumentException("Row "+row+" contains '"+c+"'.");
+                }
+                if (c == '1') map.setSolid(col, row, true);
+            }
+        }
+        return map;
+    }
+
+
+    /**
+     * Reads a map file in the uncompressed MapUtilities format.
+     *
+     * @param file      The map file.
+     * @param tileSize  The width and height of a tile in pixels.
+     * @return          The map.
+     * @throws IOException  If the file can't be read or is not a valid map.
+     */
+    public static TileMap load(Path file, int tileSize) throws IOException {
+        try {
+            return fromRows(Files.readAllLines(file, StandardCharsets.US_ASCII), tileSize);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file+": "+e.getMessage(), e);
+        }
+    }
+
+
+    /**
+     * Returns if a tile is a wall. Tiles outside the map are not walls.
+     *
+     * @param col   The tile's column.
+     * @param row   The tile's row.
+     * @return      True if the tile is a wall.
+     */
+    public boolean isSolid(int col, int row) {
+        if (col < 0 || row < 0 || col >= columns || row >= rows) return false;
+        int i = row * columns + col;
+        return (solid[i >>> 6] & (1L << i)) != 0;
+    }
+
+
+    /**
+     * Makes a tile a wall or open ground.
+     *
+     * @param col       The tile's column.
+     * @param row       The tile's row.
+     * @param isSolid   True to make the tile a wall.
+     */
+    public void setSolid(int col, int row, boolean isSolid) {
+        int i = row * columns + col;
+        long word = solid[i >>> 6];
+        if (isSolid) solid[i >>> 6] |= 1L << i;
+        else solid[i >>> 6] &= ~(1L << i);
+
+        if (listener != null && solid[i >>> 6] != word) listener.tileChanged(col, row);
+    }
+
+
+    /**
+     * Sets what is told about the tiles that change from now on.
+     *
+     * @param listener  The listener, or null for none.
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+
+    /**
+     * Finds the first wall a point moving in a straight line runs into. The
+     * tiles the line passes through are visited in order with a DDA (digital
+     * differential analyzer): for each axis it keeps how far along the line
+     * the next tile border is, and always steps across whichever border is
+     * closer. Only the tiles on the line are looked at, however long it is.
+     *
+     * @param x     The x-coordinate the point starts at.
+     * @param y     The y-coordinate the point starts at.
+     * @param dx    How far the point moves along the x axis.
+     * @param dy    How far the point moves along the y axis.
+     * @return      How far along the movement the point enters a wall, from 0
+     *              to 1, or -1 if it doesn't.
+     */
+    public double raycast(double x, double y, double dx, double dy) {
+        int col = (int)Math.floor(x / tileSize);
+        int row = (int)Math.floor(y / tileSize);
+
+        if (isSolid(col, row)) return 0;
+
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+
+        // How far along the line the next vertical and horizontal borders are,
+        // and how far apart the borders are along the line.
+        double nextX  = dx == 0 ? Double.MAX_VALUE
+                        : ((col + (dx > 0 ? 1 : 0)) * tileSize - x) / dx;
+        double nextY  = dy == 0 ? Double.MAX_VALUE
+                        : ((row + (dy > 0 ? 1 : 0)) * tileSize - y) / dy;
+        double deltaX = dx == 0 ? Double.MAX_VALUE : tileSize / Math.abs(dx);
+        double deltaY = dy == 0 ? Double.MAX_VALUE : tileSize / Math.abs(dy);
+
+        while (true) {
+            double t;
+            if (nextX < nextY) {
+                t = nextX;
+                col += stepX;
+                nextX += deltaX;
+            } else {
+                t = nextY;
+                row += stepY;
+                nextY += deltaY;
+            }
+
+            if (t > 1) return -1;
+            if (col < 0 || row < 0 || col >= columns || row >= rows) {
+                // Once outside, moving further out never comes back in.
+                if ((col < 0 && stepX < 0) || (col >= columns && stepX > 0)
+                        || (row < 0 && stepY < 0) || (row >= rows && stepY > 0)) return -1;
+                continue;
+            }
+            if (isSolid(col, row)) return t;
+        }
+    }
+
+
+    /*
+        The methods below give access to the size of the map.
+    */
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public int getWidth() {
+        return columns * tileSize;
+    }
+
+    public int getHeight() {
+        return rows * tileSize;
+    }
+}
@@ -0,0 +1,264 @@
+package gamemanager;
+
+import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.transform.Scale;
+
+/**
+ * Shows the game world, which is measured in world units, in a window of any
+ * size. The world is scaled by the same amount along both axes to be as big as
+ * fits, and centered, so the game plays the same at every window size; only
+ * the picture changes.
+ *
+ * The render scale is the fraction of the window's resolution the world is
+ * drawn at. At 1 the world's nodes are drawn straight into the window. Below 1
+ * the world is drawn into a smaller image every frame with snapshot(), and the
+ * image is stretched to fill the same space. That is less work for a slow
+ * graphics card, and on a high DPI display it keeps the world from being drawn
+ * at several times the pixels of a normal one. The snapshot has a fixed cost
+ * of its own, since the detached world gets its own CSS, layout and render
+ * pass and the image is drawn again, so it only pays off with many entities;
+ * see RenderBenchmark's --scales option.
+ *
+ * Call render() once at the end of every update.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class Viewport {
+
+
+    /** The smallest render scale allowed. */
+    public static final double MIN_RENDER_SCALE = 0.25;
+
+
+    /** The size of the world in world units. */
+    private final double worldWidth, worldHeight;
+
+
+    /** Holds the entities. Its coordinates are world units. */
+    private final Pane world = new Pane();
+
+
+    /**
+     * Holds the world and the layers drawn over it, like the particles. This
+     * is what gets scaled, clipped and drawn into the snapshot.
+     */
+    private final Pane layers = new Pane(world);
+
+
+    /** The node put in the window. It takes whatever space it is given. */
+    private final Pane view = new Pane();
+
+
+    /** Scales the world to the window when it is drawn straight in. */
+    private final Scale fitTransform = new Scale(1, 1, 0, 0);
+
+
+    /** Shows the snapshot when the render scale is below 1. */
+    private final ImageView output = new ImageView();
+
+
+    /** The snapshot's transform and size. Reused every frame. */
+    private final SnapshotParameters parameters = new SnapshotParameters();
+    private final Scale renderTransform = new Scale(1, 1, 0, 0);
+
+
+    /** The world drawn at the render scale. Replaced only when its size changes. */
+    private WritableImage frame;
+
+
+    /** The fraction of the window's resolution the world is drawn at. */
+    private double renderScale = 1;
+
+
+    /** Window pixels per world unit, and where the world starts in the scene. */
+    private double fit = 1, originX = 0, originY = 0;
+
+
+    /**
+     * Creates a viewport.
+     *
+     * @param worldWidth    The width of the world in world units.
+     * @param worldHeight   The height of the world in world units.
+     */
+    public Viewport(double worldWidth, double worldHeight) {
+        this.worldWidth     = worldWidth;
+        this.worldHeight    = worldHeight;
+
+        // The world is placed by hand, and nothing is drawn outside of it.
+        world.setManaged(false);
+        world.resize(worldWidth, worldHeight);
+        layers.setManaged(false);
+        layers.resize(worldWidth, worldHeight);
+        layers.setClip(new Rectangle(worldWidth, worldHeight));
+        layers.getTransforms().add(fitTransform);
+
+        output.setManaged(false);
+        output.setSmooth(true);
+
+        parameters.setFill(Color.TRANSPARENT);
+        parameters.setTransform(renderTransform);
+
+        view.setMinSize(0, 0);
+        view.getChildren().add(layers);
+        view.layoutBoundsProperty().addListener((o, oldBounds, newBounds) -> layout());
+        view.localToSceneTransformProperty().addListener((o, oldTransform, newTransform) -> layout());
+    }
+
+
+    /**
+     * Returns the node to put in the window.
+     *
+     * @return  The view.
+     */
+    public Pane getView() {
+        return view;
+    }
+
+
+    /**
+     * Returns the pane the entities are added to. Its coordinates are world
+     * units no matter how big the window is.
+     *
+     * @return  The world.
+     */
+    public Pane getWorld() {
+        return world;
+    }
+
+
+    /**
+     * Adds a node over the world, like a Canvas of effects. It is scaled and
+     * drawn along with the world, in world units, but isn't part of the 
+     * world's children.
+     *
+     * @param layer     The node. Layers added later are drawn on top.
+     */
+    public void addLayer(Node layer) {
+        layers.getChildren().add(layer);
+    }
+
+
+    /**
+     * Adds a node under the world, like the walls. It is scaled and drawn
+     * along with the world, in world units.
+     *
+     * @param layer     The node. Layers added later are drawn on top of the
+     *                  earlier ones, but still under the world.
+     */
+    public void addBackground(Node layer) {
+        layers.getChildren().add(layers.getChildren().indexOf(world), layer);
+    }
+
+
+    /**
+     * Sets the fraction of the window's resolution the world is drawn at.
+     *
+     * @param scale     From MIN_RENDER_SCALE to 1.
+     */
+    public void setRenderScale(double scale) {
+        scale = Math.max(MIN_RENDER_SCALE, Math.min(1, scale));
+        if (scale == renderScale) return;
+
+        renderScale = scale;
+        if (scale < 1) {
+            view.getChildren().setAll(output);
+        } else {
+            view.getChildren().setAll(layers);
+            frame = null;
+            output.setImage(null);
+        }
+        layout();
+    }
+
+
+    public double getRenderScale() {
+        return renderScale;
+    }
+
+
+    /**
+     * Draws the world into the snapshot if the render scale is below 1. Does
+     * nothing otherwise, since the window draws the world itself.
+     */
+    public void render() {
+        if (frame != null) layers.snapshot(parameters, frame);
+    }
+
+
+    /**
+     * Converts a scene x-coordinate, like MouseEvent.getSceneX(), to world
+     * units.
+     *
+     * @param sceneX    The scene x-coordinate.
+     * @return          The x-coordinate in the world.
+     */
+    public double toWorldX(double sceneX) {
+        return (sceneX - originX) / fit;
+    }
+
+
+    /**
+     * Converts a scene y-coordinate to world units.
+     *
+     * @param sceneY    The scene y-coordinate.
+     * @return          The y-coordinate in the world.
+     */
+    public double toWorldY(double sceneY) {
+        return (sceneY - originY) / fit;
+    }
+
+
+    /**
+     * Fits the world to the view's current size.
+     */
+    private void layout() {
+        double width = view.getWidth(), height = view.getHeight();
+        if (width <= 0 || height <= 0) return;
+
+        fit = Math.min(width / worldWidth, height / worldHeight);
+        double x = Math.floor((width - worldWidth * fit) / 2);
+        double y = Math.floor((height - worldHeight * fit) / 2);
+
+        if (renderScale < 1) {
+            layers.relocate(0, 0);
+            fitTransform.setX(1);
+            fitTransform.setY(1);
+
+            double pixels = fit * renderScale;
+            int frameWidth  = Math.max(1, (int)Math.ceil(worldWidth * pixels));
+            int frameHeight = Math.max(1, (int)Math.ceil(worldHeight * pixels));
+            renderTransform.setX(pixels);
+            renderTransform.setY(pixels);
+
+            if (frame == null || frame.getWidth() != frameWidth || frame.getHeight() != frameHeight) {
+                frame = new WritableImage(frameWidth, frameHeight);
+                parameters.setViewport(new Rectangle2D(0, 0, frameWidth, frameHeight));
+                output.setImage(frame);
+            }
+
+            output.setFitWidth(worldWidth * fit);
+            output.setFitHeight(worldHeight * fit);
+            output.relocate(x, y);
+            render();
+        } else {
+            fitTransform.setX(fit);
+            fitTransform.setY(fit);
+            layers.relocate(x, y);
+        }
+
+        // Worked out here, when the view moves or is resized, instead of for
+        // every mouse event.
+        Point2D origin = view.localToScene(x, y);
+        originX = origin.getX();
+        originY = origin.getY();
+    }
+}
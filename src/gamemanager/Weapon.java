@@ -0,0 +1,237 @@
+package gamemanager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A kind of gun: how fast it fires, how many pellets a shot has and how far
+ * they spread, and how fast and hard they hit. Weapons are read from the
+ * weapons.properties resource, and from Settings.WEAPONS_FILE if it exists,
+ * which can change them or add more. The file lists the weapons in the order
+ * they are switched through, then gives each weapon's values:
+ *
+ *      weapons=rifle,shotgun
+ *      shotgun.fire_delay=700
+ *      shotgun.pellets=12
+ *      shotgun.spread=30
+ *
+ * The keys are fire_delay (milliseconds between shots), pellets, spread (the
+ * width of the cone the pellets fly in, in degrees), speed (the distance a
+ * pellet moves at once, see Settings.SCALE_MAX) and damage (the health a
+ * pellet takes from an enemy). Every key is optional; a fire_delay or speed
+ * of 0 uses the performance profile's bullet_firing_delay or scale_max. A
+ * weapon with an invalid value is left out with a message.
+ *
+ * A weapon never changes once created.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public final class Weapon {
+
+
+    /** The keys of a weapon, in the order of MIN and MAX. */
+    private static final String[] KEYS = {"fire_delay", "pellets", "spread", "speed", "damage"};
+
+
+    /** The smallest and largest value allowed for each key. */
+    private static final double[] MIN = {0,     1,   0,   0,   1};
+    private static final double[] MAX = {60000, 100, 360, 200, 1000};
+
+
+    /** The values of a key a weapon leaves out. */
+    private static final double[] DEFAULTS = {0, 1, 0, 0, 1};
+
+
+    /** The weapon used when none could be read: the profile's rifle. */
+    public static final Weapon DEFAULT = new Weapon("rifle", 0, 1, 0, 0, 1);
+
+
+    /** The weapon's name in the file. */
+    public final String name;
+
+
+    /** The time between shots in milliseconds, or 0 for the profile's. */
+    public final int fireDelay;
+
+
+    /** The amount of pellets a shot fires at once. */
+    public final int pellets;
+
+
+    /** The width of the cone the pellets fly in, in degrees. */
+    public final double spread;
+
+
+    /** The distance a pellet moves at once, or 0 for the profile's. */
+    public final double speed;
+
+
+    /** The health a pellet takes from an enemy it hits. */
+    public final int damage;
+
+
+    public Weapon(String name, int fireDelay, int pellets, double spread, double speed, int damage) {
+        this.name       = name;
+        this.fireDelay  = fireDelay;
+        this.pellets    = pellets;
+        this.spread     = spread;
+        this.speed      = speed;
+        this.damage     = damage;
+    }
+
+
+    /**
+     * Returns the time between shots, from the profile if the weapon has none.
+     *
+     * @return  The time in milliseconds.
+     */
+    public int getFireDelay() {
+        return fireDelay > 0 ? fireDelay : RuntimeSettings.getBulletFiringDelay();
+    }
+
+
+    /**
+     * Returns the distance a pellet moves at once, from the profile if the
+     * weapon has none.
+     *
+     * @return  The distance in pixels.
+     */
+    public double getSpeed() {
+        return speed > 0 ? speed : RuntimeSettings.getScaleMax();
+    }
+
+
+    /**
+     * Works out how far a pellet moves each step, the same way as
+     * GameMath.calculateSlope(): the longer of the rise and run is the speed.
+     * The pellets of a shot are spread evenly across the cone. A weapon that
+     * fires one pellet at a time with a spread moves it around the cone from
+     * shot to shot instead, in an order that doesn't repeat and needs no
+     * random numbers.
+     *
+     * @param pellet    The pellet's number in its shot.
+     * @param shot      The shot's number, counted by whoever fires.
+     * @param dx        The x-distance to the point aimed at.
+     * @param dy        The y-distance to the point aimed at.
+     * @param slope     Set to the rise and run of a step.
+     * @return          The slope array.
+     */
+    public double[] pelletSlope(int pellet, long shot, double dx, double dy, double[] slope) {
+        double offset;
+        if (pellets > 1) {
+            offset = (pellet / (double)(pellets - 1) - 0.5) * spread;
+        } else {
+            // The golden ratio spreads the shots evenly however many there are.
+            double f = shot * 0.6180339887498949;
+            offset = (f - Math.floor(f) - 0.5) * spread;
+        }
+
+        double angle = Math.atan2(dy, dx) + Math.toRadians(offset);
+        double run = Math.cos(angle), rise = Math.sin(angle);
+        double scale = getSpeed() / Math.max(Math.abs(run), Math.abs(rise));
+
+        slope[0] = rise * scale;
+        slope[1] = run * scale;
+        return slope;
+    }
+
+
+    /**
+     * Reads the weapons from the resource and the weapons file in Settings.
+     * The resource's weapons are used if the file can't be read, and the
+     * rifle if neither can.
+     *
+     * @return  The weapons, in the order they are switched through.
+     */
+    public static Weapon[] loadAll() {
+        Properties p = new Properties();
+        try (InputStream in = Weapon.class.getResourceAsStream("/weapons.properties")) {
+            if (in != null) p.load(in);
+        } catch (IOException e) {
+            System.out.println("Weapon:\tCould not read the weapons resource: "+e.getMessage());
+        }
+
+        Path file = Paths.get(Settings.WEAPONS_FILE);
+        if (Files.isRegularFile(file)) {
+            Properties custom = new Properties(p);
+            try (InputStream in = Files.newInputStream(file)) {
+                custom.load(in);
+                p = custom;
+            } catch (IOException e) {
+                System.out.println("Weapon:\tCould not read "+file+": "+e.getMessage());
+            }
+        }
+
+        List<String> errors = new ArrayList<>();
+        Weapon[] weapons = parse(p, errors);
+        for (String error : errors) System.out.println("Weapon:\t"+error);
+        return weapons;
+    }
+
+
+    /**
+     * Builds the weapons listed in properties, checking every value.
+     *
+     * @param p         The keys and values.
+     * @param errors    A message for each problem found is added here.
+     * @return          The valid weapons, or the rifle if there are none.
+     */
+    public static Weapon[] parse(Properties p, List<String> errors) {
+        List<Weapon> weapons = new ArrayList<>();
+
+        for (String name : p.getProperty("weapons", DEFAULT.name).split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) continue;
+
+            double[] values = Arrays.copyOf(DEFAULTS, DEFAULTS.length);
+            boolean valid = true;
+
+            for (int key = 0; key < KEYS.length; key++) {
+                String text = p.getProperty(name+"."+KEYS[key]);
+                if (text == null) continue;
+
+                double value;
+                try {
+                    value = key == 2 || key == 3 ? Double.parseDouble(text.trim())
+                                                 : Integer.parseInt(text.trim());
+                } catch (NumberFormatException e) {
+                    errors.add(name+"."+KEYS[key]+" is not a number: "+text);
+                    valid = false;
+                    continue;
+                }
+
+                if (!(value >= MIN[key] && value <= MAX[key])) {
+                    errors.add(name+"."+KEYS[key]+" must be from "+MIN[key]+" to "+MAX[key]+": "+text);
+                    valid = false;
+                    continue;
+                }
+                values[key] = value;
+            }
+
+            if (valid) {
+                weapons.add(new Weapon(name, (int)values[0], (int)values[1],
+                                        values[2], values[3], (int)values[4]));
+            } else {
+                errors.add(name+" is left out");
+            }
+        }
+
+        if (weapons.isEmpty()) weapons.add(DEFAULT);
+        return weapons.toArray(new Weapon[weapons.size()]);
+    }
+
+
+    @Override
+    public String toString() {
+        return name+": fire_delay="+fireDelay+", pellets="+pellets+", spread="+spread
+                +", speed="+speed+", damage="+damage;
+    }
+}
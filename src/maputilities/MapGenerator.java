@@ -0,0 +1,515 @@
+package maputilities;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Makes maps that obey the conventions in MapUtilities, for testing the game
+ * on maps far bigger than anyone would draw by hand. There are three layouts:
+ * <ul>
+ * <li>caves: random walls smoothed into caves by a cellular automaton.</li>
+ * <li>rooms: rooms on a grid, each joined to its right and lower neighbor by
+ *     an L-shaped corridor, so every room can be reached.</li>
+ * <li>arena: open ground with scattered pillars.</li>
+ * </ul>
+ * Each is drawn with a border of walls. The map is written in the
+ * uncompressed format, or straight to the compressed .cmpre format.
+ *
+ * The map is made in bands of BAND_ROWS rows on every processor at once, and
+ * written band by band as they are finished, so only a few bands are ever in
+ * memory, however big the map. Every tile is worked out from the seed and its
+ * own position, never from a shared generator, so the same seed always makes
+ * the same map, whatever the amount of threads. For example:
+ *
+ *      java maputilities.MapGenerator --layout caves --width 16384
+ *                                     --height 16384 --seed 7 --out map.txt
+ *                                     --compress true
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class MapGenerator {
+
+
+    /** The layouts. */
+    public static final int CAVES = 0, ROOMS = 1, ARENA = 2;
+
+
+    /** The layouts' names on the command line, indexed by layout. */
+    private static final String[] LAYOUTS = {"caves", "rooms", "arena"};
+
+
+    /** The amount of rows made at once by one thread. */
+    private static final int BAND_ROWS = 256;
+
+
+    /** The chance a tile starts as a wall in a cave, and how often it is smoothed. */
+    private static final double CAVE_FILL = 0.45;
+    private static final int CAVE_STEPS = 4;
+
+
+    /** The size of a room's grid cell, and of the smallest room, in tiles. */
+    private static final int ROOM_CELL = 24, ROOM_MIN = 6;
+
+
+    /** The spacing of an arena's pillars, their size, and the chance of one. */
+    private static final int PILLAR_CELL = 12, PILLAR_SIZE = 3;
+    private static final double PILLAR_CHANCE = 0.35;
+
+
+    /** The map's size, layout and seed. */
+    private final int width, height, layout;
+    private final long seed;
+
+
+    /**
+     * Creates a generator.
+     *
+     * @param width     The amount of columns, at least 3.
+     * @param height    The amount of rows, at least 3.
+     * @param layout    CAVES, ROOMS or ARENA.
+     * @param seed      The seed. The same seed makes the same map.
+     */
+    public MapGenerator(int width, int height, int layout, long seed) {
+        if (width < 3 || height < 3)
+            throw new IllegalArgumentException("A map must be at least 3 by 3: "+width+" by "+height);
+        if (layout < CAVES || layout > ARENA)
+            throw new IllegalArgumentException("Unknown layout: "+layout);
+
+        this.width  = width;
+        this.height = height;
+        this.layout = layout;
+        this.seed   = seed;
+    }
+
+
+    /**
+     * Makes the map and writes it. The rows are written in order as soon as
+     * they are made.
+     *
+     * @param out       Where to write the map. It is not closed.
+     * @param compress  True for the compressed format, false for uncompressed.
+     * @param threads   The amount of threads to make the map with.
+     * @throws IOException  If the map can't be written.
+     */
+    public void write(OutputStream out, boolean compress, int threads) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "MapGenerator");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // A few bands ahead are made while the oldest is written.
+        ArrayDeque<Future<Band>> pending = new ArrayDeque<>();
+        int nextBand = 0, bands = (height + BAND_ROWS - 1) / BAND_ROWS;
+        Band previous = null;
+
+        try {
+            while (nextBand < bands || !pending.isEmpty()) {
+                while (nextBand < bands && pending.size() < threads * 2) {
+                    final int first = nextBand++ * BAND_ROWS;
+                    pending.add(pool.submit(new Callable<Band>() {
+                        @Override
+                        public Band call() {
+                            return makeBand(first, Math.min(height, first + BAND_ROWS), compress);
+                        }
+                    }));
+                }
+
+                Band band = pending.poll().get();
+                if (compress) {
+                    previous = writeCompressed(out, previous, band);
+                } else {
+                    out.write(band.tiles, 0, band.tiles.length);
+                }
+            }
+
+            if (previous != null) {
+                out.write((previous.line(previous.lineCount - 1)+System.lineSeparator())
+                            .getBytes(StandardCharsets.US_ASCII));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while making the map.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not make the map.", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Writes a band's compressed lines. MapUtilities joins equal rows that
+     * follow each other into one line, even across bands, so a band's last
+     * line is held back until the next band shows whether it goes on.
+     *
+     * @param previous  The band before, whose last line is still to be
+     *                  written, or null.
+     * @param band      The band to write.
+     * @return          The band, whose last line is still to be written.
+     */
+    private static Band writeCompressed(OutputStream out, Band previous, Band band) throws IOException {
+        StringBuilder text = new StringBuilder();
+
+        if (previous != null) {
+            int last = previous.lineCount - 1;
+            if (Arrays.equals(previous.lastRow, band.firstRow)) {
+                // The held back line goes on into this band.
+                band.amounts[0] += previous.amounts[last];
+            } else {
+                text.append(previous.line(last)).append(System.lineSeparator());
+            }
+        }
+
+        for (int i = 0; i < band.lineCount - 1; i++) {
+            text.append(band.line(i)).append(System.lineSeparator());
+        }
+
+        out.write(text.toString().getBytes(StandardCharsets.US_ASCII));
+        return band;
+    }
+
+
+    /**
+     * Makes the rows of a band.
+     *
+     * @param from      The band's first row.
+     * @param to        The row after the band's last.
+     * @param compress  True to compress the rows as well.
+     * @return          The band.
+     */
+    private Band makeBand(int from, int to, boolean compress) {
+        int rows = to - from, stride = width + 1;
+        byte[] tiles = new byte[rows * stride];
+
+        switch (layout) {
+            case CAVES: makeCaves(from, rows, tiles); break;
+            case ROOMS: makeRooms(from, rows, tiles); break;
+            default:    makeArena(from, rows, tiles); break;
+        }
+
+        // The border, and the end of every row.
+        for (int r = 0; r < rows; r++) {
+            int row = from + r, start = r * stride;
+            if (row == 0 || row == height - 1) Arrays.fill(tiles, start, start + width, (byte)'1');
+            tiles[start] = '1';
+            tiles[start + width - 1] = '1';
+            tiles[start + width] = '\n';
+        }
+
+        Band band = new Band(tiles);
+        if (compress) band.compress(rows, width, stride);
+        return band;
+    }
+
+
+    /**
+     * Fills a band with caves. Smoothing a row needs the rows next to it from
+     * the step before, so CAVE_STEPS extra rows are made on each side of the
+     * band and thrown away; that way no band waits for another.
+     */
+    private void makeCaves(int from, int rows, byte[] tiles) {
+        int halo = CAVE_STEPS, total = rows + 2 * halo;
+        byte[] cells = new byte[total * width], next = new byte[total * width];
+        int[] columns = new int[width + 2];
+        long threshold = (long)(CAVE_FILL * (1L << 32));
+
+        for (int r = 0; r < total; r++) {
+            int row = from - halo + r;
+            for (int col = 0; col < width; col++) {
+                boolean wall = isOutside(col, row) || (hash(col, row, 0) >>> 32) < threshold;
+                cells[r * width + col] = (byte)(wall ? 1 : 0);
+            }
+        }
+
+        // A tile becomes a wall if at least 5 of the 9 tiles around it,
+        // itself included, are walls. Tiles outside the map count as walls.
+        // Every step, the rows at the edges are less right, so only the
+        // rows that are still right are smoothed. The walls of each column
+        // of three are added up first, so each tile is only added once.
+        columns[0] = columns[width + 1] = 3;
+        for (int step = 1; step <= CAVE_STEPS; step++) {
+            for (int r = step; r < total - step; r++) {
+                int row = from - halo + r, above = (r - 1) * width, here = r * width, below = (r + 1) * width;
+
+                for (int col = 0; col < width; col++) {
+                    columns[col + 1] = cells[above + col] + cells[here + col] + cells[below + col];
+                }
+                for (int col = 0; col < width; col++) {
+                    int walls = columns[col] + columns[col + 1] + columns[col + 2];
+                    next[here + col] = (byte)(walls >= 5 || isOutside(col, row) ? 1 : 0);
+                }
+            }
+            byte[] swap = cells;
+            cells = next;
+            next = swap;
+        }
+
+        for (int r = 0; r < rows; r++) {
+            int source = (r + halo) * width, target = r * (width + 1);
+            for (int col = 0; col < width; col++) {
+                tiles[target + col] = (byte)('0' + cells[source + col]);
+            }
+        }
+    }
+
+
+    /**
+     * Fills a band with rooms and corridors. Each cell of a grid has a room
+     * and a center, both worked out from the cell's position, and a corridor
+     * runs from each center to the centers to its right and below. A row only
+     * meets the rooms of its own cells, and the corridors of its own cells and
+     * the cells above them, so those are all that are looked at.
+     */
+    private void makeRooms(int from, int rows, byte[] tiles) {
+        int stride = width + 1, cellColumns = (width + ROOM_CELL - 1) / ROOM_CELL;
+        Arrays.fill(tiles, (byte)'1');
+
+        for (int r = 0; r < rows; r++) {
+            int row = from + r, start = r * stride;
+            int cellRow = row / ROOM_CELL;
+
+            for (int cell = 0; cell < cellColumns; cell++) {
+                // The room.
+                int[] room = room(cell, cellRow);
+                if (row >= room[1] && row < room[3]) carve(tiles, start, room[0], room[2] - 1);
+
+                // The corridors from this cell and the one above.
+                for (int cr = cellRow - 1; cr <= cellRow; cr++) {
+                    if (cr < 0) continue;
+                    int x = centerX(cell, cr), y = centerY(cell, cr);
+
+                    if (cell + 1 < cellColumns) {
+                        int x2 = centerX(cell + 1, cr), y2 = centerY(cell + 1, cr);
+                        if (row == y) carve(tiles, start, x, x2);
+                        if (row >= Math.min(y, y2) && row <= Math.max(y, y2)) carve(tiles, start, x2, x2);
+                    }
+
+                    // The last row of cells has nothing below it.
+                    if ((cr + 1) * ROOM_CELL >= height - 1) continue;
+                    int y2 = centerY(cell, cr + 1);
+                    if (row >= y && row <= y2) carve(tiles, start, x, x);
+                    if (row == y2) carve(tiles, start, x, centerX(cell, cr + 1));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Returns a cell's room as {left, top, right, bottom}, right and bottom
+     * not included. It is put around the cell's center, as far as it fits in
+     * the cell.
+     */
+    private int[] room(int cell, int cellRow) {
+        long h = hash(cell, cellRow, 1);
+        int size = ROOM_CELL - 2 - ROOM_MIN;
+        int w = ROOM_MIN + (int)((h & 0xFFFF) % (size + 1));
+        int t = ROOM_MIN + (int)((h >>> 16 & 0xFFFF) % (size + 1));
+        int x = centerX(cell, cellRow), y = centerY(cell, cellRow);
+
+        // Put the room around the center, inside its cell.
+        int left = Math.max(cell * ROOM_CELL + 1, Math.min(x - w / 2, (cell + 1) * ROOM_CELL - 1 - w));
+        int top = Math.max(cellRow * ROOM_CELL + 1, Math.min(y - t / 2, (cellRow + 1) * ROOM_CELL - 1 - t));
+        return new int[] {left, top, left + w, top + t};
+    }
+
+
+    /**
+     * Returns the column of a cell's center. It is somewhere in the middle of
+     * the cell, and always on the map.
+     */
+    private int centerX(int cell, int cellRow) {
+        int x = cell * ROOM_CELL + ROOM_CELL / 4
+                + (int)((hash(cell, cellRow, 2) >>> 33) % (ROOM_CELL / 2));
+        return Math.min(width - 2, x);
+    }
+
+
+    /**
+     * Returns the row of a cell's center.
+     */
+    private int centerY(int cell, int cellRow) {
+        int y = cellRow * ROOM_CELL + ROOM_CELL / 4
+                + (int)((hash(cell, cellRow, 3) >>> 33) % (ROOM_CELL / 2));
+        return Math.min(height - 2, y);
+    }
+
+
+    /**
+     * Makes the tiles of a row from one column to another open ground.
+     */
+    private void carve(byte[] tiles, int start, int from, int to) {
+        int left = Math.max(1, Math.min(from, to)), right = Math.min(width - 2, Math.max(from, to));
+        if (left <= right) Arrays.fill(tiles, start + left, start + right + 1, (byte)'0');
+    }
+
+
+    /**
+     * Fills a band with an arena: open ground, and a pillar in some of the
+     * cells of a grid.
+     */
+    private void makeArena(int from, int rows, byte[] tiles) {
+        int stride = width + 1, cellColumns = (width + PILLAR_CELL - 1) / PILLAR_CELL;
+        long threshold = (long)(PILLAR_CHANCE * (1L << 32));
+        Arrays.fill(tiles, (byte)'0');
+
+        for (int r = 0; r < rows; r++) {
+            int row = from + r, start = r * stride;
+            int cellRow = row / PILLAR_CELL, offset = row - cellRow * PILLAR_CELL;
+
+            // Pillars sit in the middle of their cell.
+            int first = (PILLAR_CELL - PILLAR_SIZE) / 2;
+            if (offset < first || offset >= first + PILLAR_SIZE) continue;
+
+            for (int cell = 0; cell < cellColumns; cell++) {
+                if ((hash(cell, cellRow, 4) >>> 32) >= threshold) continue;
+                int left = cell * PILLAR_CELL + first;
+                carveWall(tiles, start, left, left + PILLAR_SIZE - 1);
+            }
+        }
+    }
+
+
+    /**
+     * Makes the tiles of a row from one column to another walls.
+     */
+    private void carveWall(byte[] tiles, int start, int from, int to) {
+        int right = Math.min(width - 1, to);
+        if (from <= right) Arrays.fill(tiles, start + from, start + right + 1, (byte)'1');
+    }
+
+
+    /**
+     * Returns if a tile is outside the map or on its border.
+     */
+    private boolean isOutside(int col, int row) {
+        return row <= 0 || row >= height - 1 || col <= 0 || col >= width - 1;
+    }
+
+
+    /**
+     * Mixes the seed, a position and a purpose into a random looking number.
+     * It is the finalizer of SplitMix64, which spreads every bit of its input
+     * over the whole output.
+     */
+    private long hash(int x, int y, int purpose) {
+        long z = seed + 0x9E3779B97F4A7C15L * (((long)y << 32 | (x & 0xFFFFFFFFL)) * 8 + purpose + 1);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+
+    /**
+     * The rows of a band: as text, and compressed if asked for.
+     */
+    private static final class Band {
+
+        /** The rows as '0' and '1', each ending with a new line. */
+        final byte[] tiles;
+
+        /** The first and last row, to join equal rows across bands. */
+        byte[] firstRow, lastRow;
+
+        /** The compressed lines without their amounts, and the amounts. */
+        String[] lines;
+        int[] amounts;
+        int lineCount;
+
+        Band(byte[] tiles) {
+            this.tiles = tiles;
+        }
+
+        /**
+         * Compresses the rows, joining equal rows that follow each other.
+         */
+        void compress(int rows, int width, int stride) {
+            lines   = new String[rows];
+            amounts = new int[rows];
+
+            StringBuilder line = new StringBuilder();
+            for (int r = 0; r < rows; r++) {
+                int start = r * stride;
+                if (r > 0 && equalRows(start - stride, start, width)) {
+                    amounts[lineCount - 1]++;
+                    continue;
+                }
+
+                line.setLength(0);
+                MapUtilities.appendCompressedLine(tiles, start, width, 1, line);
+                // The amount is added once it is known.
+                lines[lineCount] = line.substring(0, line.lastIndexOf("+"));
+                amounts[lineCount++] = 1;
+            }
+
+            firstRow = Arrays.copyOfRange(tiles, 0, width);
+            lastRow = Arrays.copyOfRange(tiles, (rows - 1) * stride, (rows - 1) * stride + width);
+        }
+
+        /**
+         * Returns a compressed line with its amount.
+         */
+        String line(int i) {
+            return lines[i]+"+"+amounts[i];
+        }
+
+        private boolean equalRows(int a, int b, int width) {
+            for (int i = 0; i < width; i++) {
+                if (tiles[a + i] != tiles[b + i]) return false;
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * Makes a map from the command line options and writes it to a file.
+     *
+     * @param args  --layout, --width, --height, --seed, --out, --compress
+     *              and --threads; see the class description.
+     * @throws IOException  If the map can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int width = 256, height = 256, layout = CAVES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        String out = "map.txt";
+        boolean compress = false;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--layout":    layout = Arrays.asList(LAYOUTS).indexOf(value); break;
+                case "--width":     width = Integer.parseInt(value); break;
+                case "--height":    height = Integer.parseInt(value); break;
+                case "--seed":      seed = Long.parseLong(value); break;
+                case "--out":       out = value; break;
+                case "--compress":  compress = Boolean.parseBoolean(value); break;
+                case "--threads":   threads = Math.max(1, Integer.parseInt(value)); break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: "+args[i]);
+            }
+        }
+
+        MapGenerator generator = new MapGenerator(width, height, layout, seed);
+        long start = System.nanoTime();
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(Paths.get(out)), 1 << 16)) {
+            generator.write(stream, compress, threads);
+        }
+        System.out.printf("MapGenerator:\tWrote a %d by %d %s map to %s in %.2f s%n",
+                            width, height, LAYOUTS[layout], out, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -266,4 +266,65 @@ public class MapUtilities {
         
         return compressedLine.substring(0, compressedLine.length()-1)+"+"+amount;
     }    
+    
+    
+    /**
+     * Compresses a line the same way as getCompressedLine(), without building
+     * any strings or running the patterns, so a map generator can compress 
+     * lines as fast as it makes them. The line is a row of '0' and '1' bytes,
+     * and must contain a one.
+     * 
+     * @param line      The bytes holding the line.
+     * @param from      The index of the line's first byte.
+     * @param length    The length of the line.
+     * @param amount    The amount of times the line occurs.
+     * @param out       The compressed line is added to this.
+     */
+    public static void appendCompressedLine(byte[] line, int from, int length, 
+                                                int amount, StringBuilder out) {
+        int end = from + length;
+        int i = from;
+        boolean first = true;
+        
+        while(i < end) {
+            int index = i - from + 1;
+            
+            if(startsWith101(line, i, end)) {
+                // P101 is greedy: "101" then as many "01" as there are, as
+                // many times as the line allows.
+                int j = i;
+                while(startsWith101(line, j, end)) {
+                    j += 3;
+                    while(j + 1 < end && line[j] == '0' && line[j + 1] == '1') j += 2;
+                }
+                if(!first) out.append(',');
+                out.append(index).append(';').append(j - from);
+                i = j;
+            } else if(line[i] == '1' && i + 1 < end && line[i + 1] == '1') {
+                int j = i;
+                while(j < end && line[j] == '1') j++;
+                if(!first) out.append(',');
+                out.append(index).append('-').append(j - from);
+                i = j;
+            } else if(line[i] == '1') {
+                if(!first) out.append(',');
+                out.append(index);
+                i++;
+            } else {
+                i++;
+                continue;
+            }
+            first = false;
+        }
+        
+        out.append('+').append(amount);
+    }
+    
+    
+    /**
+     * Returns if "101" starts at a position of a line.
+     */
+    private static boolean startsWith101(byte[] line, int i, int end) {
+        return i + 2 < end && line[i] == '1' && line[i + 1] == '0' && line[i + 2] == '1';
+    }
 }
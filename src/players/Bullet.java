@@ -1,16 +1,27 @@
 package players;
 
+import gamemanager.Assets;
 import gamemanager.GameManager;
 import gamemanager.GameMath;
+import gamemanager.ParticleSystem;
 import gamemanager.RuntimeSettings;
 import gamemanager.Settings;
-import javafx.animation.AnimationTimer;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 
 /**
- * The bullet class will contain an animation timer that will move an image view
- * until it has hit an object or gone off the map.
+ * The bullet class will move an image view until it has hit an object or gone 
+ * off the map. The GameManager calls update() once per game update; a bullet
+ * then makes every move it was due since the previous update at once, and the
+ * whole path is swept against the enemies, the walls and the edge of the map,
+ * so the first thing on the path is hit no matter how far the bullet went.
+ * 
+ * A bullet that hits something is removed right away, and its explosion is 
+ * left to the GameManager's ParticleSystem.
+ * 
+ * Bullets are pooled: a bullet that is removed keeps its ImageView, hidden, in
+ * the pane, and is fired again with fire(). So a burst of pellets creates no
+ * objects and doesn't change the pane's children.
  *
  * @author Jackie Chan
  * Apr 20, 2016
@@ -23,117 +34,205 @@ public class Bullet {
     
     
     /** The angle this bullet should be rotated at. */
-    private final double r;
+    private double r;
     
     
     /** The first index contains the rise of the line; the second, run. */
-    private final double[] slope;
+    private final double[] slope = new double[2];
+    
+    
+    /** The health this bullet takes from the enemy it hits. */
+    private int damage = 1;
     
     
     /** Contains an image of the bullet. */
     private final ImageView bulletView;    
     
     
+    /** The game time, in milliseconds, this bullet last moved. */
+    private long previousTime;
+    
+    
+    /** The pane this bullet is drawn in. */
+    private Pane pane;
+    
+    
     /**
-     * Constructs a new Bullet object that has a specified (x,y) coordinate,
-     * a destination (x,y) coordinate, and an angle of rotation.
-     * 
-     * @param x     The starting x-coordinate of the bullet.
-     * @param y     The starting y-coordinate of the bullet.
-     * @param dX    The destination x coordinate of the bullet.
-     * @param dY    The destination y coordinate of the bullet.
-     * @param r     The angle the bullet should be at.
+     * Creates a bullet that isn't in the game yet. See fire().
      */
-    public Bullet(double x, double y, double dX, double dY, double r) {
-        this.x      = x; 
-        this.y      = y;
-        
-        this.slope  = GameMath.calculateSlope(x, dX, y, dY);
-        
-        this.bulletView = new ImageView(Settings.BULLET);
-        
-        this.r = r;
+    public Bullet() {
+        this.bulletView = new ImageView(Assets.getBulletImage());
+        this.bulletView.setVisible(false);
     }
     
     
     /**
-     * Will animate the bullet.
+     * Adds the bullet to the game. From now on it is moved by update(), until
+     * it returns true.
      * 
-     * @param pane      The pane to draw the bullet in.
+     * @param pane          The pane to draw the bullet in.
+     * @param x             The bullet's x-coordinate.
+     * @param y             The bullet's y-coordinate.
+     * @param rise          How far the bullet moves down each step.
+     * @param run           How far the bullet moves right each step.
+     * @param r             The angle the bullet should be at.
+     * @param damage        The health the bullet takes from what it hits.
+     * @param previousTime  The game time the bullet last moved. A step 
+     *                      before the time it was fired, so it moves at once.
      */
-    public void start(Pane pane) {
+    public void fire(Pane pane, double x, double y, double rise, double run, 
+                        double r, int damage, long previousTime) {
+        this.x              = x;
+        this.y              = y;
+        this.slope[0]       = rise;
+        this.slope[1]       = run;
+        this.r              = r;
+        this.damage         = damage;
+        this.previousTime   = previousTime;
         
-        pane.getChildren().add(this.bulletView);
+        // The view stays in the pane between uses, unless the pane was 
+        // cleared for a new game.
+        if (this.pane != pane || bulletView.getParent() != pane) {
+            this.pane = pane;
+            pane.getChildren().add(this.bulletView);
+        }
+        GameManager.bullets.add(this);
 
         // Roate the bullet and move it to the starting position.
         this.bulletView.setRotate(r);
         this.bulletView.relocate(x,y);        
+        this.bulletView.setVisible(true);
+    }
+    
+    
+    /**
+     * Moves the bullet by every step it was due since it last moved, and blows
+     * it up on the first enemy, wall or map edge along the way. A bullet that
+     * blows up is hidden and leaves an explosion particle; the caller then
+     * takes it out of GameManager.bullets and puts it back in the pool. The 
+     * game clock is used so bullets freeze while the game is paused.
+     * 
+     * @param time  The current game time in milliseconds.
+     * @return      true if the bullet blew up.
+     */
+    public boolean update(long time) {
+        long steps = (time - previousTime) / RuntimeSettings.getBulletMovementDelay();
+        if (steps <= 0) return false;
+        previousTime += steps * RuntimeSettings.getBulletMovementDelay();
+        
+        double dx = slope[1] * steps, dy = slope[0] * steps;
+        
+        // The first hit along the path, as a fraction of the path.
+        double first = 2;
+        Enemy target = null;
+        boolean wall = false;
         
         /*
-            Use the AnimationTimer to animate the bullet. Since multithreading
-            would be too complicated, just manually manage your time. Also, 
-            time is managed manually because you can't use Thread.sleep() or 
-            wait() on a JavaFX thread, unless you are crazy jimmy.
+            The bullet's top left corner is swept against each enemy's box 
+            grown by the bullet's size, which is the same as sweeping the 
+            bullet's box against the enemy's. An enemy's box is the square 
+            around its collision circle, so its archetype's radius decides 
+            how easy it is to hit.
         */
-        AnimationTimer timer = new AnimationTimer() {
-
-            long previousTime = 0;
+        double minX = Math.min(x, x + dx), maxX = Math.max(x, x + dx);
+        double minY = Math.min(y, y + dy), maxY = Math.max(y, y + dy);
+        
+        for (Enemy e : GameManager.enemies) {
+            // Killed earlier in this update, but not yet moved off the list.
+            if (e.isDead()) continue;
             
-            /*
-                onDestroy is only true when this bullet has collided with
-                something.
-            */
-            boolean onDestroy = false;
+            double r = e.getRadius();
+            double left = e.getCenterX() - r - Settings.BULLET_WIDTH, right = e.getCenterX() + r;
+            double top = e.getCenterY() - r - Settings.BULLET_HEIGHT, bottom = e.getCenterY() + r;
+            if (right < minX || left > maxX || bottom < minY || top > maxY) continue;
             
-            @Override
-            public void handle(long now) {
-                
-                long time = now / 1000000;
-                
-                if (!onDestroy) {
-
-                    if (time - previousTime >= Settings.BULLET_MOVEMENT_DELAY
-                            || previousTime == 0) {
-                                                                                               
-                        x += slope[1]; y += slope[0];
-                        
-                        if (x > 0 && x < RuntimeSettings.getMaxBulletX()
-                                && y > 0 && y < RuntimeSettings.getMaxBulletY()) {
-
-                            bulletView.relocate(x,y);
-                            previousTime = time;
-
-                            for (Enemy e : GameManager.enemies) {
-                                if (bulletView.getBoundsInParent().intersects(e.getImageView().getBoundsInParent())) {
-                                    this.onDestroy = true;
-                                    bulletView.relocate(e.getCenterX()-15, e.getCenterY()-15);
-                                    bulletView.setImage(Settings.EXPLOSION);
-                                    e.deductHealth();
-                                }
-                            }                            
-                        } else {
-
-                            this.onDestroy = true;
-
-                            if(y >= RuntimeSettings.getMaxBulletY()) {
-                                bulletView.relocate(x, RuntimeSettings.getMaxBulletY()-30);
-                            } else if(x >= RuntimeSettings.getMaxBulletX()) {
-                                bulletView.relocate(RuntimeSettings.getMaxBulletX()-30, y);
-                            }
-                            bulletView.setImage(Settings.EXPLOSION);
-                        }
-                    }
-
-                } else if (time - previousTime >= Settings.EXPLOSION_DURATION) {
-                    this.stop();
-                    pane.getChildren().remove(bulletView);
-                }
+            double t = GameMath.sweepBox(x, y, dx, dy, left, top, right, bottom);
+            if (t >= 0 && t < first) {
+                first = t;
+                target = e;
+            }
+        }
+        
+        double t = GameManager.tileMap.raycast(x + Settings.BULLET_WIDTH / 2.0, 
+                                                y + Settings.BULLET_HEIGHT / 2.0, dx, dy);
+        if (t >= 0 && t < first) {
+            first = t;
+            target = null;
+            wall = true;
+        }
+        
+        double edge = GameMath.sweepExit(x, y, dx, dy, 0, 0, 
+                                            RuntimeSettings.getMaxBulletX(), 
+                                            RuntimeSettings.getMaxBulletY());
+        boolean offMap = edge >= 0 && edge < first;
+        if (offMap) first = edge;
+        
+        if (first > 1) {
+            x += dx; y += dy;
+            bulletView.relocate(x, y);
+            return false;
+        }
+        
+        if (offMap) {
+            x += dx * first; y += dy * first;
 
+            if(y >= RuntimeSettings.getMaxBulletY()) {
+                y = RuntimeSettings.getMaxBulletY()-30;
+            } else if(x >= RuntimeSettings.getMaxBulletX()) {
+                x = RuntimeSettings.getMaxBulletX()-30;
             }
-        };
+        } else if (wall) {
+            x += dx * first + (Settings.BULLET_WIDTH - Settings.EXPLOSION_WIDTH) / 2.0;
+            y += dy * first + (Settings.BULLET_HEIGHT - Settings.EXPLOSION_HEIGHT) / 2.0;
+        } else {
+            x = target.getCenterX()-15; y = target.getCenterY()-15;
+            target.deductHealth(damage);
+        }
         
-        System.out.println("Bullet fired");
-        timer.start();
+        GameManager.particles.emit(ParticleSystem.EXPLOSION, x, y, time);
+        hide();
+        return true;
+    }
+    
+    
+    /**
+     * Stops showing this bullet. Its view stays in the pane, so it can be
+     * fired again.
+     */
+    public void hide() {
+        bulletView.setVisible(false);
+    }
+    
+    
+    /*
+        The methods below are used when saving the game.
+    */
+    public double getX() {
+        return x;
+    }
+    
+    public double getY() {
+        return y;
+    }
+    
+    public double getR() {
+        return r;
+    }
+    
+    public double getRise() {
+        return slope[0];
+    }
+    
+    public double getRun() {
+        return slope[1];
+    }
+    
+    public int getDamage() {
+        return damage;
+    }
+    
+    public long getPreviousTime() {
+        return previousTime;
     }
     
 }
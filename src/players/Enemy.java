@@ -1,27 +1,43 @@
 package players;
 
+import gamemanager.Assets;
+import gamemanager.EnemyArchetype;
+import gamemanager.GameEvents;
 import gamemanager.GameManager;
 import gamemanager.GameMath;
 import gamemanager.Settings;
-import javafx.scene.image.Image;
 import javafx.scene.layout.Pane;
 
 /**
  * This is the Enemy class. When shot, the bullet that collided with the enemy
  * will call the deductHealth() method to reduct this enemy's health.
+ * 
+ * What doesn't change between enemies of a kind, like their speed, damage and
+ * image, is kept in their shared EnemyArchetype. An enemy only keeps where it
+ * is and what it is doing.
  *
  * @author Jackie Chan
  * Apr 25, 2016
  */
 public class Enemy extends Player {
     
+    // The kind of enemy this is.
+    private EnemyArchetype archetype;
+    
     // The health of this enemy. 
-    private int currentHealth = 5;
+    private int currentHealth;
     
     // The previous time this enemy attacked.
     private long previousTime = 0;
-    private int scaledDistance = 0;
-    private int damage = 0;    
+    
+    // How far into its animation this enemy is at time 0.
+    private int phase = 0;
+    
+    // Where this enemy last saw the main player, which it walks to.
+    private double targetX, targetY;
+    
+    // The rise and run to the next point. See calculateNextPoint().
+    private final double[] nextPoint = new double[2];
     
    
     /**
@@ -29,43 +45,100 @@ public class Enemy extends Player {
      * 
      * @see players.Player
      * 
-     * @param speed     The speed of this enemy. 
-     * @param damage    The damage this enemy causes. 
+     * @param archetype The kind of enemy.
      */
     public Enemy(Pane pane, 
-                    Image img, 
+                    EnemyArchetype archetype, 
                     double x, 
                     double y, 
                     double r, 
                     double velX,
                     double velY,
-                    double velR, 
-                    int speed,
-                    int damage) {
+                    double velR) {
         
-        super(pane, img, x, y, r, velX, velY, velR);        
-        this.scaledDistance = speed;
-        this.damage = damage;
+        super(pane, Assets.getEnemySprites(archetype).getImage(), x, y, r, velX, velY, velR);        
+        this.targetX = x;
+        this.targetY = y;
+        setArchetype(archetype);
     }
 
     
     /**
-     * Moves this enemy and then attacks the main player if possible. 
-     * @param now 
+     * Turns this enemy into a new one, so enemies that died can be used again
+     * instead of creating new ones. The image view is kept.
+     * 
+     * @param archetype The kind of enemy.
+     * @param x         The enemy's x-coordinate.
+     * @param y         The enemy's y-coordinate.
      */
-    public void attackPlayer(long now) {
-        
-        long time = now / 1000000;
+    public void reset(EnemyArchetype archetype, double x, double y) {
+        this.x              = x;
+        this.y              = y;
+        this.r              = 0;
+        this.previousTime   = 0;
+        this.targetX        = x;
+        this.targetY        = y;
+        setArchetype(archetype);
+    }
+    
+    
+    /**
+     * Makes this enemy a new one of a kind, with full health, and shows its
+     * animation. The phase comes from where the enemy is, so enemies spawned
+     * together don't all move in step, and a loaded game looks the same as 
+     * when it was saved.
+     */
+    private void setArchetype(EnemyArchetype archetype) {
+        this.archetype      = archetype;
+        this.currentHealth  = archetype.health;
+        this.radius         = archetype.radius;
+        this.phase          = (int)(x * 31 + y);
+        setSprites(Assets.getEnemySprites(archetype));
+    }
+    
+    
+    /**
+     * Returns the frame of the animation for the current game time. Setting
+     * the frame the ImageView already shows costs nothing.
+     */
+    @Override
+    protected int getAnimationFrame() {
+        return sprites.frameAt(GameManager.getGameTime(), phase);
+    }
+    
+    
+    /**
+     * Shows this enemy's body instead of its animation. The body never moves,
+     * so it is turned with setRotate() once.
+     */
+    public void showDead() {
+        this.image = Assets.getDeadPlayerImage();
+        this.imageView.setImage(image);
+        setSprites(null);
+    }
 
+    
+    /**
+     * Attacks the main player if possible, or moves this enemy toward it. Only
+     * this enemy's numbers are changed, not its ImageView, so this can run on
+     * any thread as long as the main player doesn't move meanwhile; call 
+     * updateUI() on the JavaFX thread afterwards. The damage is returned
+     * instead of taken from the main player, so the caller can add up the
+     * damage of many enemies and deduct it once.
+     * 
+     * @param time  The current game time in milliseconds.
+     * @return      The damage done to the main player, or 0.
+     */
+    public int attackPlayer(long time) {
+        
         if(previousTime == 0) previousTime = time;
-        if(imageView.getBoundsInParent().intersects(GameManager.mainPlayer.getImageView().getBoundsInParent())
-                && time - previousTime >= 500) {
-            GameManager.mainPlayer.deductHealth(damage);
-            System.out.println("Enemy:\tAttacking Main Player");
+        if(touches(GameManager.mainPlayer) && time - previousTime >= 500) {
             previousTime = time;            
-        } else {
-            changeLocation();
-        }       
+            return archetype.damage;
+        }
+        
+        updateLocation();
+        return 0;
     }
     
     
@@ -74,72 +147,91 @@ public class Enemy extends Player {
      */
     public void changeLocation() {
         updateLocation();
-        this.imageView.relocate(x, y);
-        this.imageView.setRotate(GameMath.calculateAngle(
-                                    x, y, 
-                                    GameManager.mainPlayer.getCenterX(), 
-                                    GameManager.mainPlayer.getCenterY()));
+        updateUI();
     }
     
     
     /** 
-     * Calculate the rise and run to the main player. This is individualized for
-     * each Enemy to avoid threading issues. 
+     * Calculate the rise and run to where the main player was last seen. This 
+     * is individualized for each Enemy to avoid threading issues. 
      * 
      * @return 
      */
     private double[] calculateNextPoint() {
-        double rise = GameManager.mainPlayer.getCenterY() - y,
-                run = GameManager.mainPlayer.getCenterX() - x;
-        
-        boolean nRise = false, nRun = false;
-        
-        if (rise < 0) {
-            rise *= -1;
-            nRise = true;
-        }
-        
-        if (run < 0) {
-            run *= -1;
-            nRun = true;
-        }
-        
-        if (Math.max(rise, run) == rise) {
-            run = (scaledDistance * run) / rise;
-            rise = scaledDistance;
-        } else {
-            rise = (scaledDistance * rise) / run;
-            run = scaledDistance;
-        }
-        
-        if (nRise) rise *= -1;
-        if (nRun) run *= -1;
-        
-        return new double[]{rise,run};
+        return GameMath.calculateSlope(x, targetX, y, targetY, archetype.speed, nextPoint);
     }
     
     
     /**
-     * Updates this enemies location. 
+     * Updates this enemies location, and turns it to face the main player. An
+     * enemy that can't see the main player past the walls goes to where it 
+     * last saw it, and waits there.
      */
     private void updateLocation() {
+        boolean sees = GameManager.lineOfSight.canSee(getCenterX(), getCenterY());
+        if (sees) {
+            targetX = GameManager.mainPlayer.getCenterX();
+            targetY = GameManager.mainPlayer.getCenterY();
+        } else if (GameMath.calculateDistance(x, y, targetX, targetY) < archetype.speed) {
+            return;
+        }
+        
         double[] temp = calculateNextPoint();
         x += temp[1];
         y += temp[0];
+        r = GameMath.calculateAngle(x, y, targetX, targetY);
     }    
     
     
     /**
-     * Deducts this enemy's health. If the health is at zero, it will remove this
-     * enemy from the living enemies list and add it to the dead enemies list. 
+     * Deducts this enemy's health and posts a GameEvents.HIT event. If the 
+     * health is gone, it also posts a GameEvents.KILL event; the GameManager
+     * moves this enemy to the dead enemies list when the events are dispatched.
+     * 
+     * @param amount    The health to take, like a weapon's damage.
      */
-    public void deductHealth() {
-        this.currentHealth--;
-        if (this.currentHealth == 0) {
-            this.imageView.setImage(Settings.getDeadPlayerImage());
-            GameManager.amountKilled++;
-            GameManager.removePlayer(this);
-            GameManager.deadEnemies.add(this);
+    public void deductHealth(int amount) {
+        if (isDead()) return;
+        this.currentHealth -= amount;
+        GameEvents.post(GameEvents.HIT, this, amount, getCenterX(), getCenterY());
+        if (this.currentHealth <= 0) {
+            showDead();
+            GameEvents.post(GameEvents.KILL, this, 0, getCenterX(), getCenterY());
         }
     }            
+    
+    
+    /**
+     * Returns true once this enemy's health is gone, even before the kill is
+     * dispatched, so nothing hits or moves it in the meantime.
+     * 
+     * @return  true if this enemy is dead.
+     */
+    public boolean isDead() {
+        return currentHealth <= 0;
+    }
+    
+    
+    /*
+        The methods below are used when saving and loading the game.
+    */
+    public EnemyArchetype getArchetype() {
+        return archetype;
+    }
+    
+    public int getCurrentHealth() {
+        return currentHealth;
+    }
+    
+    public void setCurrentHealth(int currentHealth) {
+        this.currentHealth = currentHealth;
+    }
+    
+    public long getPreviousTime() {
+        return previousTime;
+    }
+    
+    public void setPreviousTime(long previousTime) {
+        this.previousTime = previousTime;
+    }
 }
@@ -1,10 +1,10 @@
 package players;
 
+import gamemanager.Assets;
+import gamemanager.GameEvents;
 import gamemanager.Input;
 import gamemanager.RuntimeSettings;
-import gamemanager.Settings;
 import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 
 
@@ -29,8 +29,7 @@ public class MainPlayer extends Player {
     public MainPlayer(Pane pane, Image img, double x, double y, double r, double velX, double velY, double velR, Input input) {
         super(pane, img, x, y, r, velX, velY, velR);
         this.input = input;
-        this.imageView = new ImageView(Settings.getMainPlayerImage());
-        this.imageView.relocate(x, y);
+        setSprites(Assets.getMainPlayerSprites());
     }
 
     
@@ -39,17 +38,17 @@ public class MainPlayer extends Player {
      */
     public void changeValues() {
         if(input.isMoveDown() && y < RuntimeSettings.getMaxPlayerSpawnY()) {
-            velY = Settings.SPEED;
+            velY = RuntimeSettings.getSpeed();
         } else if(input.isMoveUp() && y > 0) {
-            velY = -Settings.SPEED;
+            velY = -RuntimeSettings.getSpeed();
         } else {
             velY = 0;
         }
         
         if(input.isMoveLeft() && x > 0) {
-            velX = -Settings.SPEED;
+            velX = -RuntimeSettings.getSpeed();
         } else if(input.isMoveRight() && x < RuntimeSettings.getMaxPlayerSpawnX()) {
-            velX = Settings.SPEED;
+            velX = RuntimeSettings.getSpeed();
         } else {
             velX = 0;
         }
@@ -57,12 +56,40 @@ public class MainPlayer extends Player {
         r = input.getAngle();
     }        
     
+    /**
+     * Puts the main player back at full health at a new place, so a restarted
+     * game can keep using the same player and image view.
+     * 
+     * @param x     The new x-coordinate.
+     * @param y     The new y-coordinate.
+     */
+    public void reset(double x, double y) {
+        this.x      = x;
+        this.y      = y;
+        this.r      = 0;
+        this.velX   = 0;
+        this.velY   = 0;
+        this.health = 50;
+        updateUI();
+    }
+    
+    /**
+     * Deducts the main player's health and posts a GameEvents.PLAYER_DAMAGED
+     * event.
+     * 
+     * @param amount    The damage done.
+     */
     public void deductHealth(int amount) {
         health -= amount;
+        GameEvents.post(GameEvents.PLAYER_DAMAGED, this, amount, getCenterX(), getCenterY());
     }
     
     public int getHealth() {
         return health;
     }
     
+    public void setHealth(int health) {
+        this.health = health;
+    }
+    
 }
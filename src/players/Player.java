@@ -1,6 +1,8 @@
 package players;
 
+import gamemanager.GameMath;
 import gamemanager.Settings;
+import gamemanager.SpriteSheet;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
@@ -21,6 +23,12 @@ public abstract class Player {
     /** The image of this player. */
     public Image image;
     
+    /** 
+     * The player's pre-rotated frames, or null to show the image turned with
+     * setRotate(). See setSprites().
+     */
+    protected SpriteSheet sprites;
+    
     /** The x coordinate of the player. */
     public double x;
     
@@ -45,6 +53,13 @@ public abstract class Player {
     /** The player's height. */
     public double h;
     
+    
+    /** 
+     * The radius of the circle used for collisions, centered on the player's
+     * center. It is kept as a number, so collisions don't need the ImageView.
+     */
+    public double radius;
+    
     /** The pane that the player is in. */
     public Pane pane;    
     
@@ -76,6 +91,7 @@ public abstract class Player {
         
         this.w              = Settings.PLAYER_WIDTH;
         this.h              = Settings.PLAYER_HEIGHT;
+        this.radius         = Math.min(w, h) / 2;
         
         this.imageView = new ImageView();
         this.imageView.setImage(this.image);        
@@ -83,11 +99,48 @@ public abstract class Player {
     
     
     /**
-     * Relocates the ImageView for this class to it's new x and y location.    
+     * Relocates the ImageView for this class to it's new x and y location, and
+     * turns it to the player's angle. With sprites, the frame drawn nearest
+     * the angle is shown instead of turning the ImageView.
      */
     public void updateUI() {
-        this.imageView.relocate(x, y);
-        this.imageView.setRotate(r);
+        if (sprites == null) {
+            this.imageView.relocate(x, y);
+            this.imageView.setRotate(r);
+            return;
+        }
+        
+        this.imageView.relocate(x - sprites.getOffsetX(), y - sprites.getOffsetY());
+        this.imageView.setViewport(sprites.getFrame(getAnimationFrame(), r));
+    }
+    
+    
+    /**
+     * Shows pre-rotated frames from now on, or the plain image again if
+     * sprites is null.
+     * 
+     * @param sprites   The frames, see SpriteSheet.rotated().
+     */
+    protected void setSprites(SpriteSheet sprites) {
+        this.sprites = sprites;
+        if (sprites != null) {
+            this.image = sprites.getImage();
+            this.imageView.setImage(image);
+            this.imageView.setRotate(0);
+        } else {
+            this.imageView.setViewport(null);
+        }
+        updateUI();
+    }
+    
+    
+    /**
+     * Returns the frame of the sprites' animation to show now.
+     * 
+     * @return  The frame's index.
+     */
+    protected int getAnimationFrame() {
+        return 0;
     }
     
     
@@ -100,6 +153,19 @@ public abstract class Player {
     }
     
 
+    /**
+     * Returns true if this player's collision circle overlaps another's. Only
+     * the numbers in each player are used, so this works without a scene.
+     * 
+     * @param other     The other player.
+     * @return          true if the two touch.
+     */
+    public boolean touches(Player other) {
+        return GameMath.circlesOverlap(getCenterX(), getCenterY(), radius,
+                                        other.getCenterX(), other.getCenterY(), other.radius);
+    }
+    
+
     /*
         Most of the methods below set and return values in this class.
     */
@@ -111,6 +177,10 @@ public abstract class Player {
         return h;
     }
     
+    public double getRadius() {
+        return radius;
+    }
+    
     public double getCenterX() {
         return x + (Settings.PLAYER_WIDTH / 2);
     }
@@ -0,0 +1,95 @@
+package server;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The server's side of one connected client: its socket, its buffers, and the
+ * frames it was recently sent.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+final class ClientSession {
+
+
+    /**
+     * The amount of frames remembered per client. A client that acknowledges a
+     * frame older than this gets a full snapshot instead of a delta.
+     */
+    static final int HISTORY = 32;
+
+
+    /** The least and most enemies and bullets a snapshot may contain. */
+    static final int MIN_ENTITIES = 32, MAX_ENTITIES = 4096;
+
+
+    /** The client's socket. */
+    final SocketChannel channel;
+
+
+    /** The id of the client's player in the ServerWorld. */
+    final int player;
+
+
+    /** Holds bytes read from the client until a whole frame has arrived. */
+    final ByteBuffer in = ByteBuffer.allocate(4096);
+
+
+    /**
+     * Holds bytes waiting to be sent. Between ticks it is in read mode: the
+     * bytes from position to limit have not been sent yet.
+     */
+    final ByteBuffer out = ByteBuffer.allocateDirect(Protocol.MAX_FRAME + Protocol.HEADER_SIZE + 64);
+
+
+    /** The frames most recently sent, indexed by tick % HISTORY. */
+    final ViewFrame[] history = new ViewFrame[HISTORY];
+
+
+    /** The latest tick the client said it received, or -1. */
+    int ackTick = -1;
+
+
+    /** The sequence number of the latest input, used to drop old inputs. */
+    int inputSequence = -1;
+
+
+    /**
+     * The most enemies and bullets this client's snapshots may contain. This
+     * shrinks when snapshots go over the bandwidth budget and grows again when
+     * they are well under it.
+     */
+    int entityCap = 512;
+
+
+    /** The total bytes queued for this client, and snapshots skipped. */
+    long bytesSent, snapshotsSkipped;
+
+
+    /**
+     * Creates a session.
+     *
+     * @param channel   The client's socket.
+     * @param player    The id of the client's player.
+     */
+    ClientSession(SocketChannel channel, int player) {
+        this.channel    = channel;
+        this.player     = player;
+        for (int i = 0; i < HISTORY; i++) history[i] = new ViewFrame();
+        out.flip();
+    }
+
+
+    /**
+     * Returns the frame the client acknowledged, or null if it is no longer
+     * remembered.
+     *
+     * @return  The baseline for the next snapshot, or null.
+     */
+    ViewFrame baseline() {
+        if (ackTick < 0) return null;
+        ViewFrame frame = history[ackTick % HISTORY];
+        return frame.tick == ackTick ? frame : null;
+    }
+}
@@ -0,0 +1,570 @@
+package server;
+
+import gamemanager.PerformanceProfile;
+import gamemanager.ProfileWatcher;
+import gamemanager.RuntimeSettings;
+import gamemanager.Settings;
+import gamemanager.SpatialGrid;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * A headless, authoritative game server. One thread does everything: it waits
+ * on a Selector for network traffic between ticks, applies the inputs clients
+ * send, ticks the ServerWorld at a fixed rate, and sends every client a
+ * snapshot of what is near its player. Because only one thread touches the
+ * world, nothing needs to be locked.
+ *
+ * Snapshots are encoded against the newest frame the client acknowledged (see
+ * SnapshotCodec), and only contain the enemies and bullets inside the area the
+ * client can see, closest first. If a client's snapshots go over the bandwidth
+ * budget, the amount of entities it is sent is reduced until they fit. A client
+ * that has not finished receiving its previous snapshot skips a tick instead of
+ * letting data pile up; since snapshots are deltas against acknowledged frames,
+ * a skipped snapshot never needs to be resent.
+ *
+ * Run a dedicated server with:
+ *
+ *      java server.GameServer [port] [enemies] [width] [height]
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class GameServer implements Runnable {
+
+
+    /**
+     * How far, in pixels, a client can see from its player's center. This is
+     * the 800 by 600 game window with a margin, so things that are about to
+     * walk on screen are already known.
+     */
+    private static final int VIEW_HALF_WIDTH = 400 + 200, VIEW_HALF_HEIGHT = 300 + 200;
+
+
+    /** The amount of tick times remembered for getTickTimes(). */
+    private static final int TICK_SAMPLES = 1 << 16;
+
+
+    /** The world being simulated. */
+    private final ServerWorld world;
+
+
+    /** The requested port. Zero picks any free port. */
+    private final int requestedPort;
+
+
+    /** The amount of ticks per second, and the length of a tick. */
+    private final int tickRate, tickMillis;
+
+
+    /** The most bytes a single snapshot should take. */
+    private final int snapshotBudget;
+
+
+    /** The sessions, indexed by player id. */
+    private final ClientSession[] sessions = new ClientSession[ServerWorld.MAX_PLAYERS];
+
+
+    /** Scratch space for sorting the entities in a view. */
+    private long[] keys = new long[ClientSession.MAX_ENTITIES];
+
+
+    /** The duration of recent ticks in nanoseconds. */
+    private final long[] tickTimes = new long[TICK_SAMPLES];
+
+
+    /** The current tick and the amount of ticks recorded in tickTimes. */
+    private int tick = 0, tickCount = 0;
+
+
+    /** Hands out a changed PerformanceProfile between ticks. May be null. */
+    private ProfileWatcher profileWatcher;
+
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private volatile boolean running;
+
+
+    /**
+     * Creates a server. Call start() to start it.
+     *
+     * @param world             The world to simulate.
+     * @param port              The port to listen on, or zero for any port.
+     * @param tickRate          The amount of ticks per second.
+     * @param bytesPerSecond    The bandwidth budget of each client.
+     */
+    public GameServer(ServerWorld world, int port, int tickRate, int bytesPerSecond) {
+        this.world          = world;
+        this.requestedPort  = port;
+        this.tickRate       = tickRate;
+        this.tickMillis     = 1000 / tickRate;
+        this.snapshotBudget = bytesPerSecond / tickRate;
+    }
+
+
+    /**
+     * Opens the server socket and starts the server thread.
+     *
+     * @throws IOException  If the port can't be opened.
+     */
+    public void start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(new InetSocketAddress(requestedPort));
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+        thread = new Thread(this, "GameServer");
+        thread.start();
+        System.out.println("GameServer:\tListening on port "+getPort()+".");
+    }
+
+
+    /**
+     * Stops the server and waits for the server thread to finish.
+     *
+     * @throws InterruptedException
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        selector.wakeup();
+        thread.join();
+    }
+
+
+    @Override
+    public void run() {
+        long period = 1000000000L / tickRate;
+        long nextTick = System.nanoTime() + period;
+
+        try {
+            while (running) {
+                long wait = (nextTick - System.nanoTime()) / 1000000;
+                if (wait > 0) selector.select(wait);
+                else selector.selectNow();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handleKey(key);
+                }
+
+                long now = System.nanoTime();
+                if (now >= nextTick) {
+                    tick();
+                    nextTick += period;
+
+                    // Don't try to catch up after a long stall; just carry on.
+                    if (now - nextTick > 5 * period) nextTick = now + period;
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("GameServer:\tStopped: "+e.getMessage());
+        } finally {
+            for (ClientSession s : sessions) {
+                if (s != null) disconnect(s);
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                System.out.println("GameServer:\t"+e.getMessage());
+            }
+        }
+    }
+
+
+    /**
+     * Handles a key the selector picked.
+     */
+    private void handleKey(SelectionKey key) throws IOException {
+        if (!key.isValid()) return;
+
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+
+        ClientSession s = (ClientSession)key.attachment();
+        try {
+            if (key.isReadable()) read(s);
+            if (key.isValid() && key.isWritable()) flush(s);
+        } catch (IOException e) {
+            disconnect(s);
+        }
+    }
+
+
+    /**
+     * Accepts a new client, adds its player and welcomes it.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) return;
+
+        int player = world.addPlayer();
+        if (player < 0) {
+            System.out.println("GameServer:\tServer full; refused "+channel.getRemoteAddress());
+            channel.close();
+            return;
+        }
+
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+
+        ClientSession s = new ClientSession(channel, player);
+        sessions[player] = s;
+        channel.register(selector, SelectionKey.OP_READ, s);
+
+        s.out.clear();
+        int start = Protocol.beginFrame(s.out, Protocol.WELCOME);
+        s.out.put((byte)player);
+        s.out.putShort((short)tickRate);
+        s.out.putInt(world.getWidth());
+        s.out.putInt(world.getHeight());
+        Protocol.endFrame(s.out, start);
+        s.out.flip();
+
+        try {
+            flush(s);
+        } catch (IOException e) {
+            disconnect(s);
+        }
+        System.out.println("GameServer:\tPlayer "+player+" joined.");
+    }
+
+
+    /**
+     * Reads whatever the client sent and handles every whole frame.
+     */
+    private void read(ClientSession s) throws IOException {
+        if (s.channel.read(s.in) < 0) {
+            disconnect(s);
+            return;
+        }
+
+        s.in.flip();
+        while (s.in.remaining() >= 2) {
+            int length = s.in.getShort(s.in.position()) & 0xFFFF;
+
+            // A frame that can't fit in the buffer would never be completed,
+            // and the full buffer would keep the key readable forever.
+            if (length == 0 || length > s.in.capacity() - 2) {
+                System.out.println("GameServer:\tPlayer "+s.player+" sent a bad frame length: "+length);
+                disconnect(s);
+                return;
+            }
+            if (s.in.remaining() < 2 + length) break;
+
+            s.in.position(s.in.position() + 2);
+            int end = s.in.position() + length;
+            byte type = s.in.get();
+
+            if (type == Protocol.INPUT && length - 1 == Protocol.INPUT_SIZE) {
+                handleInput(s, s.in);
+            }
+            s.in.position(end);
+        }
+        s.in.compact();
+    }
+
+
+    /**
+     * Applies an INPUT payload.
+     */
+    private void handleInput(ClientSession s, ByteBuffer b) {
+        int sequence    = b.getInt();
+        int ack         = b.getInt();
+        int buttons     = b.get();
+        int aimX        = b.getShort();
+        int aimY        = b.getShort();
+
+        if (ack > s.ackTick && ack <= tick) s.ackTick = ack;
+
+        // Inputs can't arrive out of order over TCP, but a client that
+        // reconnects with an old counter shouldn't be able to go backwards.
+        if (sequence > s.inputSequence) {
+            s.inputSequence = sequence;
+            world.setInput(s.player, buttons, aimX, aimY);
+        }
+    }
+
+
+    /**
+     * Writes as much of the pending output as the socket will take, and asks
+     * to be told when it can take more.
+     */
+    private void flush(ClientSession s) throws IOException {
+        s.channel.write(s.out);
+
+        SelectionKey key = s.channel.keyFor(selector);
+        if (key != null) {
+            key.interestOps(s.out.hasRemaining()
+                    ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                    : SelectionKey.OP_READ);
+        }
+    }
+
+
+    /**
+     * Closes a client's connection and removes its player.
+     */
+    private void disconnect(ClientSession s) {
+        if (sessions[s.player] != s) return;
+
+        sessions[s.player] = null;
+        world.removePlayer(s.player);
+        try {
+            s.channel.close();
+        } catch (IOException e) {
+            // Nothing else can be done with a socket that won't close.
+        }
+        System.out.println("GameServer:\tPlayer "+s.player+" left.");
+    }
+
+
+    /**
+     * Ticks the world and sends the snapshots.
+     */
+    private void tick() {
+        long start = System.nanoTime();
+
+        PerformanceProfile profile = profileWatcher != null ? profileWatcher.poll() : null;
+        if (profile != null) {
+            RuntimeSettings.setProfile(profile);
+            System.out.println("GameServer:\tUsing profile "+profile);
+        }
+
+        world.tick(tickMillis);
+        tick++;
+
+        for (ClientSession s : sessions) {
+            if (s != null) sendSnapshot(s);
+        }
+
+        tickTimes[tickCount++ % TICK_SAMPLES] = System.nanoTime() - start;
+    }
+
+
+    /**
+     * Builds and sends a client's snapshot for this tick.
+     */
+    private void sendSnapshot(ClientSession s) {
+        if (s.out.hasRemaining()) {
+            s.snapshotsSkipped++;
+            return;
+        }
+
+        ViewFrame frame = s.history[tick % ClientSession.HISTORY];
+        ViewFrame base = s.baseline();
+        if (base == frame) base = null;
+
+        for (int attempt = 0; ; attempt++) {
+            collectView(s.player, s.entityCap, frame);
+            frame.tick = tick;
+
+            boolean fits, encoded;
+            s.out.clear();
+            try {
+                int frameStart = Protocol.beginFrame(s.out, Protocol.SNAPSHOT);
+                SnapshotCodec.encode(s.out, base, frame);
+                Protocol.endFrame(s.out, frameStart);
+                encoded = true;
+                fits = s.out.position() <= snapshotBudget;
+            } catch (BufferOverflowException | IllegalStateException e) {
+                encoded = fits = false;
+            }
+
+            if (!fits && s.entityCap > ClientSession.MIN_ENTITIES && attempt < 3) {
+                s.entityCap = Math.max(ClientSession.MIN_ENTITIES, s.entityCap * 3 / 4);
+                continue;
+            }
+
+            // Half a frame would corrupt the stream, so nothing is sent.
+            if (!encoded) {
+                s.out.clear().flip();
+                s.snapshotsSkipped++;
+                return;
+            }
+
+            if (fits && s.out.position() < snapshotBudget / 2) {
+                s.entityCap = Math.min(ClientSession.MAX_ENTITIES, s.entityCap + s.entityCap / 8 + 1);
+            }
+            break;
+        }
+
+        s.out.flip();
+        s.bytesSent += s.out.remaining();
+
+        try {
+            flush(s);
+        } catch (IOException e) {
+            disconnect(s);
+        }
+    }
+
+
+    /**
+     * Fills a frame with what a player can see: every player, and up to cap
+     * enemies and bullets inside the player's view. Enemies are gathered one
+     * ring of grid cells at a time, starting at the player's cell, so when
+     * there are more than cap the closest ones are kept.
+     */
+    private void collectView(int player, int cap, ViewFrame frame) {
+        frame.clear();
+
+        for (int p = 0; p < ServerWorld.MAX_PLAYERS; p++) {
+            if (!world.playerActive[p]) continue;
+            frame.players.add(p,
+                    Protocol.quantize(world.playerX[p]),
+                    Protocol.quantize(world.playerY[p]),
+                    Math.max(0, world.playerHealth[p]) | world.playerKills[p] << 8);
+        }
+
+        double cx = world.playerX[player], cy = world.playerY[player];
+        double left = cx - VIEW_HALF_WIDTH, right = cx + VIEW_HALF_WIDTH;
+        double top = cy - VIEW_HALF_HEIGHT, bottom = cy + VIEW_HALF_HEIGHT;
+
+        if (keys.length < cap) keys = new long[cap];
+
+        SpatialGrid grid = world.getEnemyGrid();
+        int pc = grid.column(cx), pr = grid.row(cy);
+        int c0 = grid.column(left), c1 = grid.column(right);
+        int r0 = grid.row(top), r1 = grid.row(bottom);
+        int rings = Math.max(Math.max(pc - c0, c1 - pc), Math.max(pr - r0, r1 - pr));
+
+        int n = 0;
+        rings:
+        for (int ring = 0; ring <= rings; ring++) {
+            for (int row = Math.max(r0, pr - ring); row <= Math.min(r1, pr + ring); row++) {
+                boolean edgeRow = row == pr - ring || row == pr + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+
+                for (int col = pc - ring; col <= pc + ring; col += step) {
+                    if (col < c0 || col > c1) continue;
+
+                    int cell = row * grid.getColumns() + col;
+                    for (int i = grid.cellStart(cell); i < grid.cellEnd(cell); i++) {
+                        int e = grid.item(i);
+                        double x = world.enemyX[e], y = world.enemyY[e];
+                        if (x < left || x > right || y < top || y > bottom) continue;
+
+                        keys[n++] = (long)world.enemyId[e] << 32 | e;
+                        if (n == cap) break rings;
+                    }
+                }
+            }
+        }
+
+        Arrays.sort(keys, 0, n);
+        for (int k = 0; k < n; k++) {
+            int e = (int)keys[k];
+            frame.enemies.add(world.enemyId[e],
+                    Protocol.quantize(world.enemyX[e]),
+                    Protocol.quantize(world.enemyY[e]),
+                    world.enemyType[e] | world.enemyHealth[e] << 8);
+        }
+
+        // Bullets are few and short lived, so they are simply scanned.
+        int bullets = 0, bulletCap = cap - n;
+        for (int b = 0; b < world.bulletCount && bullets < bulletCap; b++) {
+            double x = world.bulletX[b], y = world.bulletY[b];
+            if (x < left || x > right || y < top || y > bottom) continue;
+            keys[bullets++] = (long)world.bulletId[b] << 32 | b;
+        }
+
+        Arrays.sort(keys, 0, bullets);
+        for (int k = 0; k < bullets; k++) {
+            int b = (int)keys[k];
+            frame.bullets.add(world.bulletId[b],
+                    Protocol.quantize(world.bulletX[b]),
+                    Protocol.quantize(world.bulletY[b]),
+                    world.bulletOwner[b]);
+        }
+    }
+
+
+    /**
+     * Returns the duration of the most recent ticks, oldest first.
+     *
+     * @return  The duration of recent ticks in nanoseconds.
+     */
+    public long[] getTickTimes() {
+        int n = Math.min(tickCount, TICK_SAMPLES);
+        long[] times = new long[n];
+        for (int i = 0; i < n; i++) {
+            times[i] = tickTimes[(tickCount - n + i) % TICK_SAMPLES];
+        }
+        return times;
+    }
+
+
+    /**
+     * Returns the total bytes queued for all clients that are still connected.
+     *
+     * @return  The total bytes queued.
+     */
+    public long getBytesSent() {
+        long total = 0;
+        for (ClientSession s : sessions) {
+            if (s != null) total += s.bytesSent;
+        }
+        return total;
+    }
+
+
+    /**
+     * Makes the server switch to the watcher's new profiles at the start of a
+     * tick. Call before start().
+     *
+     * @param watcher   The started watcher.
+     */
+    public void setProfileWatcher(ProfileWatcher watcher) {
+        this.profileWatcher = watcher;
+    }
+
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return  The port the server is listening on.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+
+    /**
+     * Starts a dedicated server.
+     *
+     * @param args  The port, amount of enemies, and world width and height.
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        int port    = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        int enemies = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int width   = args.length > 2 ? Integer.parseInt(args[2]) : 8000;
+        int height  = args.length > 3 ? Integer.parseInt(args[3]) : 8000;
+
+        ProfileWatcher watcher = new ProfileWatcher(Paths.get(Settings.PROFILE_FILE), "GameServer");
+        watcher.start();
+
+        GameServer server = new GameServer(new ServerWorld(width, height, enemies, System.nanoTime()),
+                                            port, 30, 96 * 1024);
+        server.setProfileWatcher(watcher);
+        server.start();
+    }
+}
@@ -0,0 +1,108 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+
+/**
+ * Runs a GameServer and a crowd of SimulatedClients in one process over
+ * loopback, then reports how the server held up. Run it with:
+ *
+ *      java server.LoadTest [players] [enemies] [seconds] [bytesPerSecond]
+ *
+ * The defaults are 32 players, 10000 enemies, 20 seconds and a budget of 96 KB
+ * per second per client at 30 ticks per second. The exit status is 1 if any
+ * client could not rebuild a snapshot, if a client went over the bandwidth
+ * budget, or if the 99th percentile tick took longer than a tick is allowed to.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class LoadTest {
+
+
+    /** The tick rate the server is tested at. */
+    private static final int TICK_RATE = 30;
+
+
+    /** A private constructor so this class cannot be instantiated. */
+    private LoadTest() {}
+
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int players         = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int enemies         = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int seconds         = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int bytesPerSecond  = args.length > 3 ? Integer.parseInt(args[3]) : 96 * 1024;
+
+        ServerWorld world = new ServerWorld(4000, 4000, enemies, 1);
+        GameServer server = new GameServer(world, 0, TICK_RATE, bytesPerSecond);
+        server.start();
+
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.getPort());
+        SimulatedClient[] clients = new SimulatedClient[players];
+        for (int i = 0; i < players; i++) {
+            clients[i] = new SimulatedClient(address, i + 1);
+            clients[i].start();
+        }
+
+        // Let everyone connect and get a full snapshot before measuring.
+        Thread.sleep(2000);
+        long[] startBytes = new long[players];
+        for (int i = 0; i < players; i++) startBytes[i] = clients[i].getBytesReceived();
+        long start = System.nanoTime();
+
+        Thread.sleep(seconds * 1000L);
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long[] received = new long[players];
+        for (int i = 0; i < players; i++) {
+            received[i] = clients[i].getBytesReceived() - startBytes[i];
+        }
+
+        for (SimulatedClient c : clients) c.stop();
+        server.stop();
+
+        long[] ticks = server.getTickTimes();
+        Arrays.sort(ticks);
+        double p50 = percentile(ticks, 0.50), p99 = percentile(ticks, 0.99);
+        double max = ticks.length == 0 ? 0 : ticks[ticks.length - 1] / 1e6;
+
+        long desyncs = 0, snapshots = 0, full = 0;
+        int maxEntities = 0;
+        double minRate = Double.MAX_VALUE, maxRate = 0, totalRate = 0;
+        for (int i = 0; i < players; i++) {
+            double rate = received[i] / elapsed;
+            minRate = Math.min(minRate, rate);
+            maxRate = Math.max(maxRate, rate);
+            totalRate += rate;
+            desyncs += clients[i].getDesyncs();
+            snapshots += clients[i].getSnapshots();
+            full += clients[i].getFullSnapshots();
+            maxEntities = Math.max(maxEntities, clients[i].getMaxEntities());
+        }
+
+        System.out.println();
+        System.out.println("players, enemies, tick rate:   "+players+", "+world.getEnemyCount()+", "+TICK_RATE);
+        System.out.printf("tick time p50/p99/max (ms):    %.3f / %.3f / %.3f%n", p50, p99, max);
+        System.out.printf("client bytes/s min/avg/max:    %.0f / %.0f / %.0f (budget %d)%n",
+                            minRate, totalRate / players, maxRate, bytesPerSecond);
+        System.out.println("snapshots (full), desyncs:     "+snapshots+" ("+full+"), "+desyncs);
+        System.out.println("most entities in a snapshot:   "+maxEntities);
+
+        boolean failed = desyncs > 0
+                || maxRate > bytesPerSecond
+                || p99 > 1000.0 / TICK_RATE;
+        System.out.println(failed ? "FAILED" : "PASSED");
+        System.exit(failed ? 1 : 0);
+    }
+
+
+    /**
+     * Returns a percentile of sorted nanosecond times in milliseconds.
+     */
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[(int)Math.min(sorted.length - 1, Math.floor(p * sorted.length))] / 1e6;
+    }
+}
@@ -0,0 +1,164 @@
+package server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The constants and helpers shared by the server and its clients. Every message
+ * sent in either direction is framed the same way:
+ *
+ *      [length: unsigned short][type: byte][payload: length - 1 bytes]
+ *
+ * The messages are:
+ * <ul>
+ * <li>
+ *      WELCOME, server to client. Sent once after connecting. Contains the
+ *      client's player id (byte), the tick rate (short), and the world's width
+ *      and height (ints).
+ * </li>
+ * <li>
+ *      SNAPSHOT, server to client. Sent every tick. See SnapshotCodec.
+ * </li>
+ * <li>
+ *      INPUT, client to server. Contains the input's sequence number (int), the
+ *      last snapshot tick the client received (int), the pressed buttons (byte)
+ *      and where the player is aiming relative to its center (two shorts). The
+ *      payload is always INPUT_SIZE bytes.
+ * </li>
+ * </ul>
+ *
+ * Numbers that are usually small are written as variable length integers: seven
+ * bits per byte, lowest bits first, with the top bit set on every byte except
+ * the last. Signed values are zigzag encoded first so small negative numbers
+ * stay small.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public final class Protocol {
+
+
+    /** Message types. */
+    public static final byte WELCOME = 1, SNAPSHOT = 2, INPUT = 3;
+
+
+    /** The size of an INPUT payload, not counting the type. */
+    public static final int INPUT_SIZE = 4 + 4 + 1 + 2 + 2;
+
+
+    /** The size of the frame header: the length and the type. */
+    public static final int HEADER_SIZE = 3;
+
+
+    /** The biggest payload a frame can hold. */
+    public static final int MAX_FRAME = 0xFFFF - 1;
+
+
+    /** Input buttons. These are bits of the buttons byte in an INPUT. */
+    public static final int UP = 1, DOWN = 2, LEFT = 4, RIGHT = 8, FIRE = 16;
+
+
+    /**
+     * Positions are sent in fixed point with this many steps per pixel, which
+     * is plenty for sprites that are drawn at whole pixels anyway.
+     */
+    public static final int POSITION_SCALE = 8;
+
+
+    /** A private constructor so this class cannot be instantiated. */
+    private Protocol() {}
+
+
+    /**
+     * Converts a position to fixed point.
+     *
+     * @param value     The position in pixels.
+     * @return          The position in fixed point.
+     */
+    public static int quantize(double value) {
+        return (int)Math.round(value * POSITION_SCALE);
+    }
+
+
+    /**
+     * Writes an unsigned variable length integer.
+     *
+     * @param b         The buffer to write to.
+     * @param value     The value; treated as unsigned.
+     */
+    public static void putVarInt(ByteBuffer b, int value) {
+        while ((value & ~0x7F) != 0) {
+            b.put((byte)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        b.put((byte)value);
+    }
+
+
+    /**
+     * Reads an unsigned variable length integer.
+     *
+     * @param b     The buffer to read from.
+     * @return      The value.
+     */
+    public static int getVarInt(ByteBuffer b) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int next = b.get();
+            value |= (next & 0x7F) << shift;
+            if ((next & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed variable length integer.");
+    }
+
+
+    /**
+     * Writes a signed variable length integer.
+     *
+     * @param b         The buffer to write to.
+     * @param value     The value.
+     */
+    public static void putSignedVarInt(ByteBuffer b, int value) {
+        putVarInt(b, (value << 1) ^ (value >> 31));
+    }
+
+
+    /**
+     * Reads a signed variable length integer.
+     *
+     * @param b     The buffer to read from.
+     * @return      The value.
+     */
+    public static int getSignedVarInt(ByteBuffer b) {
+        int value = getVarInt(b);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+
+    /**
+     * Starts a frame by leaving room for its length and writing its type.
+     *
+     * @param b     The buffer to write to.
+     * @param type  The type of message.
+     * @return      The position of the frame, to be passed to endFrame().
+     */
+    public static int beginFrame(ByteBuffer b, byte type) {
+        int start = b.position();
+        b.putShort((short)0);
+        b.put(type);
+        return start;
+    }
+
+
+    /**
+     * Ends a frame started with beginFrame() by filling in its length.
+     *
+     * @param b         The buffer the frame was written to.
+     * @param start     The value returned by beginFrame().
+     */
+    public static void endFrame(ByteBuffer b, int start) {
+        int length = b.position() - start - 2;
+        if (length > MAX_FRAME + 1)
+            throw new IllegalStateException("Frame too large: "+length);
+        b.putShort(start, (short)length);
+    }
+}
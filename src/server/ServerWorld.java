@@ -0,0 +1,774 @@
+package server;
+
+import gamemanager.EnemyArchetype;
+import gamemanager.GameMath;
+import gamemanager.GameRandom;
+import gamemanager.MovementKernel;
+import gamemanager.ParallelPhase;
+import gamemanager.RuntimeSettings;
+import gamemanager.Settings;
+import gamemanager.SpatialGrid;
+import gamemanager.Weapon;
+import java.util.Arrays;
+
+/**
+ * The game simulation run by the server. It follows the same rules as the
+ * single player game (see the GameManager and the players package): enemies
+ * walk toward a player and attack it when their collision circles touch, the
+ * way Player.touches() tests them, bullets fly in a straight line and take
+ * their weapon's damage from the enemy they hit, and new enemies are spawned
+ * every few seconds. The differences are that there can be many players,
+ * that enemies chase the closest living player, and that dead players respawn.
+ *
+ * Nothing here uses JavaFX. The entities are kept in parallel arrays of
+ * primitives, one array per field, so a server can hold tens of thousands of
+ * zombies without creating an object for each one. Removing an entity moves the
+ * last entity into its place, so array indices change but ids do not.
+ *
+ * Speeds in the single player game are per update, which happen at different
+ * rates for different things. Here every speed is converted to pixels per
+ * millisecond so a tick can be any length.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class ServerWorld {
+
+
+    /** The most players a world can hold. Player ids are 0 to MAX_PLAYERS-1. */
+    public static final int MAX_PLAYERS = 32;
+
+
+    /** The health a player spawns with. Matches MainPlayer. */
+    public static final int PLAYER_HEALTH = 50;
+
+
+    /** The radius of a player's collision circle. Matches Player. */
+    private static final double PLAYER_RADIUS = Math.min(Settings.PLAYER_WIDTH, Settings.PLAYER_HEIGHT) / 2.0;
+
+
+    /** The time between two attacks from the same enemy. Matches Enemy. */
+    private static final long ATTACK_DELAY = 500;
+
+
+    /** The time a dead player waits before respawning. */
+    private static final long RESPAWN_DELAY = 3000;
+
+
+    /** The amount of frames a second the player's speed is given for. */
+    private static final double FRAME_RATE = 60;
+
+
+    /** The cell size of the enemy grid. Bigger than an enemy, but not by much. */
+    private static final int CELL_SIZE = 64;
+
+
+    /** The size of the world. */
+    private final int width, height;
+
+
+    /** The amount of enemies the world is topped up to every wave. */
+    private int targetEnemies;
+
+
+    /** The current time in milliseconds and the time of the last wave. */
+    private long time = 0, lastSpawnTime = 0;
+
+
+    /** Used for spawning. */
+    private final GameRandom random;
+
+
+    /** 
+     * The enemies bucketed by the location of their top left corner. Rebuilt 
+     * every time enemies move, and always up to date between ticks.
+     */
+    private final SpatialGrid enemyGrid;
+
+
+    /** Scratch space for GameMath.calculateSlope(). */
+    private final double[] slope = new double[2];
+
+
+    /** The id given to the next enemy or bullet. */
+    private int nextId = MAX_PLAYERS;
+
+
+    /*
+        The players. A player is in the game when playerActive is true, and is
+        alive when its health is above zero.
+    */
+    final boolean[] playerActive  = new boolean[MAX_PLAYERS];
+    final double[] playerX        = new double[MAX_PLAYERS];
+    final double[] playerY        = new double[MAX_PLAYERS];
+    final int[] playerHealth      = new int[MAX_PLAYERS];
+    final int[] playerKills       = new int[MAX_PLAYERS];
+    final int[] playerButtons     = new int[MAX_PLAYERS];
+    final double[] playerAimX     = new double[MAX_PLAYERS];
+    final double[] playerAimY     = new double[MAX_PLAYERS];
+    final long[] playerLastShot   = new long[MAX_PLAYERS];
+    final long[] playerShots      = new long[MAX_PLAYERS];
+    final Weapon[] playerWeapon   = new Weapon[MAX_PLAYERS];
+    final long[] playerRespawn    = new long[MAX_PLAYERS];
+
+
+    /*
+        The enemies. Positions are the top left corner, like Player's x and y.
+        The speed, damage and starting health come from the EnemyArchetype of
+        enemyType.
+    */
+    int enemyCount;
+    int[] enemyId;
+    double[] enemyX, enemyY;
+    byte[] enemyType;
+    int[] enemyHealth;
+    long[] enemyLastAttack;
+
+
+    /*
+        Scratch space for moving the enemies with the MovementKernel: where
+        each enemy is heading, how far it moves this tick, and its velocity.
+        These are not part of the world's state.
+    */
+    private double[] enemyGoalX, enemyGoalY, enemySpeed, enemyVelX, enemyVelY;
+
+
+    /** The amount of enemies in a partition of the enemy update. */
+    private static final int ENEMY_PARTITION = 2048;
+
+
+    /** Runs the enemy update over partitions of the enemies, see updateEnemies(). */
+    private final ParallelPhase enemyPhase = new ParallelPhase(ENEMY_PARTITION);
+    private final ParallelPhase.Body enemyBody = this::updateEnemies;
+
+
+    /**
+     * The damage each partition of the enemy update did to each player,
+     * indexed by partition * MAX_PLAYERS + player. Grown, never shrunk.
+     */
+    private int[] partitionDamage = new int[MAX_PLAYERS];
+
+
+    /** How far the enemies move this tick, in units of their speed. */
+    private double enemyScale;
+
+
+    /*
+        The bullets. The rise and run are the distance moved every
+        RuntimeSettings.getBulletMovementDelay() milliseconds, like in Bullet.
+        bulletOutside is scratch space for the MovementKernel's bounds check.
+    */
+    int bulletCount;
+    int[] bulletId, bulletDamage;
+    double[] bulletX, bulletY, bulletRise, bulletRun;
+    byte[] bulletOwner, bulletOutside;
+
+
+    /**
+     * Creates an empty world.
+     *
+     * @param width         The width of the world.
+     * @param height        The height of the world.
+     * @param targetEnemies The amount of enemies to keep in the world.
+     * @param seed          The seed for spawning.
+     */
+    public ServerWorld(int width, int height, int targetEnemies, long seed) {
+        this.width          = width;
+        this.height         = height;
+        this.targetEnemies  = targetEnemies;
+        this.random         = new GameRandom(seed);
+        this.enemyGrid      = new SpatialGrid(width, height, CELL_SIZE);
+
+        int enemyCapacity   = Math.max(16, targetEnemies);
+        enemyId             = new int[enemyCapacity];
+        enemyX              = new double[enemyCapacity];
+        enemyY              = new double[enemyCapacity];
+        enemyType           = new byte[enemyCapacity];
+        enemyHealth         = new int[enemyCapacity];
+        enemyLastAttack     = new long[enemyCapacity];
+        enemyGoalX          = new double[enemyCapacity];
+        enemyGoalY          = new double[enemyCapacity];
+        enemySpeed          = new double[enemyCapacity];
+        enemyVelX           = new double[enemyCapacity];
+        enemyVelY           = new double[enemyCapacity];
+
+        int bulletCapacity  = 256;
+        bulletId            = new int[bulletCapacity];
+        bulletX             = new double[bulletCapacity];
+        bulletY             = new double[bulletCapacity];
+        bulletRise          = new double[bulletCapacity];
+        bulletRun           = new double[bulletCapacity];
+        bulletOwner         = new byte[bulletCapacity];
+        bulletDamage        = new int[bulletCapacity];
+        bulletOutside       = new byte[bulletCapacity];
+
+        spawnEnemies(targetEnemies);
+        enemyGrid.rebuild(enemyX, enemyY, enemyCount);
+    }
+
+
+    /**
+     * Adds a player at a random location.
+     *
+     * @return  The new player's id, or -1 if the world is full.
+     */
+    public int addPlayer() {
+        for (int p = 0; p < MAX_PLAYERS; p++) {
+            if (!playerActive[p]) {
+                playerActive[p]     = true;
+                playerKills[p]      = 0;
+                playerButtons[p]    = 0;
+                playerShots[p]      = 0;
+                playerWeapon[p]     = Weapon.DEFAULT;
+                playerLastShot[p]   = time - playerWeapon[p].getFireDelay();
+                spawnPlayer(p);
+                return p;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Removes a player from the world.
+     *
+     * @param player    The player's id.
+     */
+    public void removePlayer(int player) {
+        playerActive[player] = false;
+    }
+
+
+    /**
+     * Sets the input a player will use until its next input arrives.
+     *
+     * @param player    The player's id.
+     * @param buttons   The pressed buttons. See Protocol.
+     * @param aimX      The x-coordinate the player is aiming at, relative to
+     *                  the player's center.
+     * @param aimY      The y-coordinate the player is aiming at, relative to
+     *                  the player's center.
+     */
+    public void setInput(int player, int buttons, int aimX, int aimY) {
+        playerButtons[player]   = buttons;
+        playerAimX[player]      = aimX;
+        playerAimY[player]      = aimY;
+    }
+
+
+    /**
+     * Sets the weapon a player fires. See Weapon.
+     *
+     * @param player    The player's id.
+     * @param weapon    The weapon.
+     */
+    public void setPlayerWeapon(int player, Weapon weapon) {
+        playerWeapon[player] = weapon;
+    }
+
+
+    /**
+     * Moves the world forward.
+     *
+     * @param dt    The length of the tick in milliseconds.
+     */
+    public void tick(int dt) {
+        time += dt;
+
+        updatePlayers(dt);
+        updateEnemies(dt);
+
+        enemyGrid.rebuild(enemyX, enemyY, enemyCount);
+        updateBullets(dt);
+        removeDeadEnemies();
+
+        if (time - lastSpawnTime >= RuntimeSettings.getSpawnInterval()) {
+            spawnEnemies(targetEnemies - enemyCount);
+            lastSpawnTime = time;
+        }
+
+        // Removing and spawning enemies moved them around in the arrays, so
+        // rebuild the grid for anyone who looks at the world between ticks.
+        enemyGrid.rebuild(enemyX, enemyY, enemyCount);
+    }
+
+
+    /**
+     * Moves the players, fires their bullets and respawns dead players.
+     */
+    private void updatePlayers(int dt) {
+        int maxX = width - Settings.PLAYER_WIDTH, maxY = height - Settings.PLAYER_HEIGHT;
+
+        for (int p = 0; p < MAX_PLAYERS; p++) {
+            if (!playerActive[p]) continue;
+
+            if (playerHealth[p] <= 0) {
+                if (time >= playerRespawn[p]) spawnPlayer(p);
+                continue;
+            }
+
+            int buttons = playerButtons[p];
+            // The player moves RuntimeSettings.getSpeed() pixels every frame.
+            double step = RuntimeSettings.getSpeed() * FRAME_RATE / 1000.0 * dt;
+            double vx = 0, vy = 0;
+
+            if ((buttons & Protocol.DOWN) != 0 && (buttons & Protocol.UP) == 0) vy = step;
+            else if ((buttons & Protocol.UP) != 0 && (buttons & Protocol.DOWN) == 0) vy = -step;
+            if ((buttons & Protocol.RIGHT) != 0 && (buttons & Protocol.LEFT) == 0) vx = step;
+            else if ((buttons & Protocol.LEFT) != 0 && (buttons & Protocol.RIGHT) == 0) vx = -step;
+
+            playerX[p] = Math.max(0, Math.min(maxX, playerX[p] + vx));
+            playerY[p] = Math.max(0, Math.min(maxY, playerY[p] + vy));
+
+            fire(p, (buttons & Protocol.FIRE) != 0 && (playerAimX[p] != 0 || playerAimY[p] != 0));
+        }
+    }
+
+
+    /**
+     * Fires the shots of a player's weapon that are due, the same way as the
+     * single player game's Input: every shot since the previous tick, up to
+     * Settings.MAX_SHOTS_PER_UPDATE, each with all of its pellets.
+     *
+     * @param p         The player's id.
+     * @param firing    True if the player is firing.
+     */
+    private void fire(int p, boolean firing) {
+        Weapon w = playerWeapon[p];
+        long delay = Math.max(1, w.getFireDelay());
+
+        // A player that isn't firing can't save up shots for later.
+        if (!firing) {
+            playerLastShot[p] = Math.max(playerLastShot[p], time - delay);
+            return;
+        }
+
+        long due = (time - playerLastShot[p]) / delay;
+        if (due <= 0) return;
+        int count = (int)Math.min(due, Settings.MAX_SHOTS_PER_UPDATE);
+
+        double cx = playerX[p] + Settings.PLAYER_WIDTH / 2;
+        double cy = playerY[p] + Settings.PLAYER_HEIGHT / 2;
+        for (int shot = 0; shot < count; shot++) {
+            for (int pellet = 0; pellet < w.pellets; pellet++) {
+                w.pelletSlope(pellet, playerShots[p], playerAimX[p], playerAimY[p], slope);
+                addBullet(p, cx, cy, slope[0], slope[1], w.damage);
+            }
+            playerShots[p]++;
+        }
+        playerLastShot[p] += due * delay;
+    }
+
+
+    /**
+     * Moves every enemy toward the closest living player, or attacks that
+     * player if it is touching it.
+     *
+     * The enemies are split into partitions that are updated in parallel. A
+     * partition only writes its own enemies, and adds the damage it does up in
+     * its own part of partitionDamage, which is applied to the players once
+     * every partition is done. The players don't change while the enemies are
+     * updated, so the results are the same in parallel and serial mode.
+     */
+    private void updateEnemies(int dt) {
+        enemyScale = (double)dt / RuntimeSettings.getRefreshRate();
+
+        int partitions = enemyPhase.partitions(enemyCount);
+        if (partitionDamage.length < partitions * MAX_PLAYERS) {
+            partitionDamage = new int[partitions * MAX_PLAYERS];
+        } else {
+            Arrays.fill(partitionDamage, 0, partitions * MAX_PLAYERS, 0);
+        }
+
+        enemyPhase.run(enemyCount, enemyBody);
+
+        for (int p = 0; p < MAX_PLAYERS; p++) {
+            int damage = 0;
+            for (int part = 0; part < partitions; part++) {
+                damage += partitionDamage[part * MAX_PLAYERS + p];
+            }
+            if (damage > 0) damagePlayer(p, damage);
+        }
+    }
+
+
+    /**
+     * Updates one partition of the enemies. See updateEnemies(int).
+     *
+     * @param partition     The partition's number.
+     * @param from          The first enemy.
+     * @param to            One past the last enemy.
+     */
+    private void updateEnemies(int partition, int from, int to) {
+        int damage = partition * MAX_PLAYERS;
+
+        // Pick each enemy's target and attack. Enemies that attack, or have
+        // no one to chase, get a speed of zero and stay where they are.
+        for (int e = from; e < to; e++) {
+            enemySpeed[e] = 0;
+
+            int target = closestLivingPlayer(enemyX[e], enemyY[e]);
+            if (target < 0) continue;
+
+            // The same collision circles as Player.touches(), centered on
+            // each entity's box.
+            if (GameMath.circlesOverlap(enemyX[e] + Settings.PLAYER_WIDTH / 2,
+                                        enemyY[e] + Settings.PLAYER_HEIGHT / 2,
+                                        EnemyArchetype.get(enemyType[e]).radius,
+                                        playerX[target] + Settings.PLAYER_WIDTH / 2,
+                                        playerY[target] + Settings.PLAYER_HEIGHT / 2, PLAYER_RADIUS)) {
+                if (time - enemyLastAttack[e] >= ATTACK_DELAY) {
+                    partitionDamage[damage + target] += EnemyArchetype.get(enemyType[e]).damage;
+                    enemyLastAttack[e] = time;
+                }
+            } else {
+                enemyGoalX[e] = playerX[target] + Settings.PLAYER_WIDTH / 2;
+                enemyGoalY[e] = playerY[target] + Settings.PLAYER_HEIGHT / 2;
+                enemySpeed[e] = EnemyArchetype.get(enemyType[e]).speed * enemyScale;
+            }
+        }
+
+        // Then move them all at once.
+        MovementKernel.steer(enemyX, enemyY, enemyGoalX, enemyGoalY, enemySpeed,
+                                enemyVelX, enemyVelY, from, to);
+        MovementKernel.integrate(enemyX, enemyY, enemyVelX, enemyVelY, 1, from, to);
+    }
+
+
+    /**
+     * Moves every bullet. A bullet makes all of the tick's steps at once, and
+     * its whole path is swept against the enemies in the grid cells around it,
+     * so the first enemy on the path is hit however far the bullet moved. The
+     * bullets that hit nothing are then moved, and checked for leaving the
+     * world, all at once by the MovementKernel.
+     */
+    private void updateBullets(int dt) {
+        int steps = Math.max(1, dt / RuntimeSettings.getBulletMovementDelay());
+        double reach = Settings.PLAYER_WIDTH / 2 + EnemyArchetype.maxRadius();
+
+        for (int b = 0; b < bulletCount;) {
+            double x = bulletX[b], y = bulletY[b];
+            double dx = bulletRun[b] * steps, dy = bulletRise[b] * steps;
+
+            // The first enemy along the path, as a fraction of the path.
+            double first = 2;
+            int target = -1;
+
+            // Enemies are bucketed by their top left corner, so look at the
+            // cells an enemy of any radius touching this path could have its
+            // corner in.
+            int c0 = enemyGrid.column(Math.min(x, x + dx) - reach);
+            int c1 = enemyGrid.column(Math.max(x, x + dx) + Settings.BULLET_WIDTH + reach);
+            int r0 = enemyGrid.row(Math.min(y, y + dy) - reach);
+            int r1 = enemyGrid.row(Math.max(y, y + dy) + Settings.BULLET_HEIGHT + reach);
+
+            for (int row = r0; row <= r1; row++) {
+                for (int col = c0; col <= c1; col++) {
+                    int cell = row * enemyGrid.getColumns() + col;
+                    for (int i = enemyGrid.cellStart(cell); i < enemyGrid.cellEnd(cell); i++) {
+                        int e = enemyGrid.item(i);
+                        if (enemyHealth[e] <= 0) continue;
+
+                        // The square around the enemy's collision circle,
+                        // grown by the bullet's size, like Bullet.update().
+                        double r = EnemyArchetype.get(enemyType[e]).radius;
+                        double cx = enemyX[e] + Settings.PLAYER_WIDTH / 2;
+                        double cy = enemyY[e] + Settings.PLAYER_HEIGHT / 2;
+                        double t = GameMath.sweepBox(x, y, dx, dy,
+                                        cx - r - Settings.BULLET_WIDTH, cy - r - Settings.BULLET_HEIGHT,
+                                        cx + r, cy + r);
+                        if (t >= 0 && (t < first || (t == first && e < target))) {
+                            first = t;
+                            target = e;
+                        }
+                    }
+                }
+            }
+
+            if (target < 0) {
+                b++;
+                continue;
+            }
+
+            // The enemy is only hit if the bullet doesn't leave the world on
+            // the way; either way, the bullet is gone.
+            double edge = GameMath.sweepExit(x, y, dx, dy, 0, 0, width, height);
+            if (edge < 0 || first <= edge) {
+                int health = enemyHealth[target];
+                enemyHealth[target] = health - bulletDamage[b];
+                if (health > 0 && enemyHealth[target] <= 0) playerKills[bulletOwner[b]]++;
+            }
+            removeBullet(b);
+        }
+
+        MovementKernel.integrate(bulletX, bulletY, bulletRun, bulletRise, steps, bulletCount);
+        if (MovementKernel.flagOutside(bulletX, bulletY, width, height, bulletOutside, bulletCount) == 0) return;
+
+        for (int b = 0; b < bulletCount;) {
+            if (bulletOutside[b] == 0) {
+                b++;
+                continue;
+            }
+            removeBullet(b);
+            bulletOutside[b] = bulletOutside[bulletCount];
+        }
+    }
+
+
+    /**
+     * Removes the enemies whose health reached zero.
+     */
+    private void removeDeadEnemies() {
+        for (int e = 0; e < enemyCount;) {
+            if (enemyHealth[e] <= 0) removeEnemy(e);
+            else e++;
+        }
+    }
+
+
+    /**
+     * Returns the living player closest to a point, or -1 if every player is
+     * dead.
+     */
+    private int closestLivingPlayer(double x, double y) {
+        int closest = -1;
+        double best = Double.MAX_VALUE;
+
+        for (int p = 0; p < MAX_PLAYERS; p++) {
+            if (!playerActive[p] || playerHealth[p] <= 0) continue;
+            double dx = playerX[p] - x, dy = playerY[p] - y;
+            double d = dx * dx + dy * dy;
+            if (d < best) {
+                best = d;
+                closest = p;
+            }
+        }
+        return closest;
+    }
+
+
+    /**
+     * Takes health from a player. A player whose health runs out will respawn
+     * after RESPAWN_DELAY.
+     */
+    private void damagePlayer(int player, int amount) {
+        playerHealth[player] -= amount;
+        if (playerHealth[player] <= 0) playerRespawn[player] = time + RESPAWN_DELAY;
+    }
+
+
+    /**
+     * Puts a player at a random location with full health.
+     */
+    private void spawnPlayer(int player) {
+        playerX[player]         = random.nextInt(width - Settings.PLAYER_WIDTH);
+        playerY[player]         = random.nextInt(height - Settings.PLAYER_HEIGHT);
+        playerHealth[player]    = PLAYER_HEALTH;
+    }
+
+
+    /**
+     * Spawns enemies of random types at random locations.
+     *
+     * @param amount    The amount of enemies to spawn.
+     */
+    private void spawnEnemies(int amount) {
+        for (int i = 0; i < amount; i++) {
+            addEnemy(random.nextInt(EnemyArchetype.count()) + 1,
+                     random.nextInt(width - Settings.PLAYER_WIDTH),
+                     random.nextInt(height - Settings.PLAYER_HEIGHT));
+        }
+    }
+
+
+    /**
+     * Adds an enemy.
+     */
+    private void addEnemy(int type, double x, double y) {
+        if (enemyCount == enemyId.length) {
+            int size = enemyCount * 2;
+            enemyId         = Arrays.copyOf(enemyId, size);
+            enemyX          = Arrays.copyOf(enemyX, size);
+            enemyY          = Arrays.copyOf(enemyY, size);
+            enemyType       = Arrays.copyOf(enemyType, size);
+            enemyHealth     = Arrays.copyOf(enemyHealth, size);
+            enemyLastAttack = Arrays.copyOf(enemyLastAttack, size);
+            enemyGoalX      = new double[size];
+            enemyGoalY      = new double[size];
+            enemySpeed      = new double[size];
+            enemyVelX       = new double[size];
+            enemyVelY       = new double[size];
+        }
+
+        int e = enemyCount++;
+        enemyId[e]          = nextId++;
+        enemyX[e]           = x;
+        enemyY[e]           = y;
+        enemyType[e]        = (byte)type;
+        enemyHealth[e]      = EnemyArchetype.get(type).health;
+        enemyLastAttack[e]  = time;
+    }
+
+
+    /**
+     * Removes an enemy by moving the last enemy into its place.
+     */
+    private void removeEnemy(int e) {
+        int last = --enemyCount;
+        enemyId[e]          = enemyId[last];
+        enemyX[e]           = enemyX[last];
+        enemyY[e]           = enemyY[last];
+        enemyType[e]        = enemyType[last];
+        enemyHealth[e]      = enemyHealth[last];
+        enemyLastAttack[e]  = enemyLastAttack[last];
+    }
+
+
+    /**
+     * Adds a bullet fired by a player toward a point. Players fire on their own
+     * when their FIRE button is held; this is for anything else that needs to
+     * put bullets in the world, such as the stress harness.
+     *
+     * @param owner     The id of the player that gets the kills.
+     * @param x         The starting x-coordinate of the bullet.
+     * @param y         The starting y-coordinate of the bullet.
+     * @param dX        The x-coordinate the bullet flies toward.
+     * @param dY        The y-coordinate the bullet flies toward.
+     */
+    public void addBullet(int owner, double x, double y, double dX, double dY) {
+        GameMath.calculateSlope(x, dX, y, dY, RuntimeSettings.getScaleMax(), slope);
+        addBullet(owner, x, y, slope[0], slope[1], 1);
+    }
+
+
+    /**
+     * Adds a bullet that moves a given distance each step.
+     *
+     * @param owner     The id of the player that gets the kills.
+     * @param x         The starting x-coordinate of the bullet.
+     * @param y         The starting y-coordinate of the bullet.
+     * @param rise      How far the bullet moves down each step.
+     * @param run       How far the bullet moves right each step.
+     * @param damage    The health the bullet takes from the enemy it hits.
+     */
+    private void addBullet(int owner, double x, double y, double rise, double run, int damage) {
+        if (bulletCount == bulletId.length) {
+            int size = bulletCount * 2;
+            bulletId    = Arrays.copyOf(bulletId, size);
+            bulletX     = Arrays.copyOf(bulletX, size);
+            bulletY     = Arrays.copyOf(bulletY, size);
+            bulletRise  = Arrays.copyOf(bulletRise, size);
+            bulletRun   = Arrays.copyOf(bulletRun, size);
+            bulletOwner = Arrays.copyOf(bulletOwner, size);
+            bulletDamage = Arrays.copyOf(bulletDamage, size);
+            bulletOutside = new byte[size];
+        }
+
+        int b = bulletCount++;
+        bulletId[b]     = nextId++;
+        bulletX[b]      = x;
+        bulletY[b]      = y;
+        bulletRise[b]   = rise;
+        bulletRun[b]    = run;
+        bulletOwner[b]  = (byte)owner;
+        bulletDamage[b] = damage;
+    }
+
+
+    /**
+     * Removes a bullet by moving the last bullet into its place.
+     */
+    private void removeBullet(int b) {
+        int last = --bulletCount;
+        bulletId[b]     = bulletId[last];
+        bulletX[b]      = bulletX[last];
+        bulletY[b]      = bulletY[last];
+        bulletRise[b]   = bulletRise[last];
+        bulletRun[b]    = bulletRun[last];
+        bulletOwner[b]  = bulletOwner[last];
+        bulletDamage[b] = bulletDamage[last];
+    }
+
+
+    /*
+        The methods below give access to the world.
+    */
+    /**
+     * Returns a hash of everything that changes as the world is ticked: the
+     * players, enemies and bullets. Two worlds that were ticked the same way
+     * have the same checksum, which is used to check that the parallel and
+     * serial enemy updates agree.
+     *
+     * @return  The checksum.
+     */
+    public long checksum() {
+        long hash = time;
+        for (int p = 0; p < MAX_PLAYERS; p++) {
+            hash = hash * 31 + Double.doubleToLongBits(playerX[p]);
+            hash = hash * 31 + Double.doubleToLongBits(playerY[p]);
+            hash = hash * 31 + playerHealth[p];
+            hash = hash * 31 + playerKills[p];
+        }
+        for (int e = 0; e < enemyCount; e++) {
+            hash = hash * 31 + enemyId[e];
+            hash = hash * 31 + Double.doubleToLongBits(enemyX[e]);
+            hash = hash * 31 + Double.doubleToLongBits(enemyY[e]);
+            hash = hash * 31 + enemyHealth[e];
+            hash = hash * 31 + enemyLastAttack[e];
+        }
+        for (int b = 0; b < bulletCount; b++) {
+            hash = hash * 31 + Double.doubleToLongBits(bulletX[b]);
+            hash = hash * 31 + Double.doubleToLongBits(bulletY[b]);
+        }
+        return hash;
+    }
+
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public int getEnemyCount() {
+        return enemyCount;
+    }
+
+    public int getBulletCount() {
+        return bulletCount;
+    }
+
+    public SpatialGrid getEnemyGrid() {
+        return enemyGrid;
+    }
+
+    public boolean isPlayerActive(int player) {
+        return playerActive[player];
+    }
+
+    public int getPlayerHealth(int player) {
+        return playerHealth[player];
+    }
+
+    public int getPlayerKills(int player) {
+        return playerKills[player];
+    }
+
+    public double getPlayerX(int player) {
+        return playerX[player];
+    }
+
+    public double getPlayerY(int player) {
+        return playerY[player];
+    }
+
+    public void setTargetEnemies(int targetEnemies) {
+        this.targetEnemies = targetEnemies;
+    }
+}
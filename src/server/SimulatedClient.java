@@ -0,0 +1,215 @@
+package server;
+
+import gamemanager.GameRandom;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A headless client that plays by itself. It connects to a GameServer, decodes
+ * every snapshot against its own copy of the frames it received, checks the
+ * result against the server's checksum, and answers each snapshot with an input
+ * that acknowledges it. It wanders around, changing direction now and then, and
+ * keeps firing at random points near it.
+ *
+ * It is used by LoadTest to put a server under load over loopback, and doubles
+ * as a reference for how a real client should talk to the server.
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public class SimulatedClient implements Runnable {
+
+
+    /** The server's address. */
+    private final InetSocketAddress address;
+
+
+    /** Decides where to walk and shoot. */
+    private final GameRandom random;
+
+
+    /** Decodes the snapshots. */
+    private final SnapshotCodec codec = new SnapshotCodec();
+
+
+    /** The frames received, indexed by tick % ClientSession.HISTORY. */
+    private final ViewFrame[] history = new ViewFrame[ClientSession.HISTORY];
+
+
+    /** The id of this client's player, or -1 before the welcome arrives. */
+    private volatile int player = -1;
+
+
+    /** Statistics read by LoadTest. */
+    private volatile long bytesReceived, snapshots, fullSnapshots, desyncs;
+    private volatile int maxEntities;
+
+
+    private volatile boolean running;
+    private SocketChannel channel;
+    private Thread thread;
+
+
+    /**
+     * Creates a client. Call start() to connect it.
+     *
+     * @param address   The server's address.
+     * @param seed      The seed that decides how it plays.
+     */
+    public SimulatedClient(InetSocketAddress address, long seed) {
+        this.address    = address;
+        this.random     = new GameRandom(seed);
+        for (int i = 0; i < history.length; i++) history[i] = new ViewFrame();
+    }
+
+
+    /**
+     * Connects to the server and starts playing on a new thread.
+     *
+     * @throws IOException  If the server can't be reached.
+     */
+    public void start() throws IOException {
+        channel = SocketChannel.open(address);
+        channel.socket().setTcpNoDelay(true);
+        running = true;
+        thread = new Thread(this, "SimulatedClient");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+
+    /**
+     * Disconnects from the server.
+     *
+     * @throws InterruptedException
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Closing is all that was wanted anyway.
+        }
+        thread.join();
+    }
+
+
+    @Override
+    public void run() {
+        ByteBuffer in = ByteBuffer.allocate(Protocol.MAX_FRAME + Protocol.HEADER_SIZE);
+        in.flip();
+        ByteBuffer out = ByteBuffer.allocate(Protocol.HEADER_SIZE + Protocol.INPUT_SIZE);
+        int sequence = 0, buttons = 0;
+
+        try {
+            while (running) {
+                ByteBuffer payload = readFrame(in);
+                byte type = payload.get();
+
+                if (type == Protocol.WELCOME) {
+                    player = payload.get();
+                    continue;
+                }
+                if (type != Protocol.SNAPSHOT) continue;
+
+                int tick = payload.getInt(payload.position());
+                int baseTick = SnapshotCodec.peekBaseline(payload);
+                ViewFrame frame = history[tick % history.length];
+                ViewFrame base = baseTick < 0 ? null : history[baseTick % history.length];
+
+                // The frame being written may be the slot the baseline is in.
+                if (base == frame) {
+                    desyncs++;
+                    continue;
+                }
+
+                boolean ok;
+                try {
+                    ok = codec.decode(payload, base, frame);
+                } catch (RuntimeException e) {
+                    ok = false;
+                }
+
+                snapshots++;
+                if (baseTick < 0) fullSnapshots++;
+                if (!ok) {
+                    desyncs++;
+                    frame.clear();
+                    continue;
+                }
+                maxEntities = Math.max(maxEntities, frame.enemies.count + frame.bullets.count);
+
+                // Change direction about once a second.
+                if (random.nextInt(30) == 0) {
+                    buttons = random.nextInt(16);
+                }
+
+                out.clear();
+                int start = Protocol.beginFrame(out, Protocol.INPUT);
+                out.putInt(sequence++);
+                out.putInt(tick);
+                out.put((byte)(buttons | Protocol.FIRE));
+                out.putShort((short)(random.nextInt(400) - 200));
+                out.putShort((short)(random.nextInt(400) - 200));
+                Protocol.endFrame(out, start);
+                out.flip();
+                while (out.hasRemaining()) channel.write(out);
+            }
+        } catch (IOException e) {
+            if (running) System.out.println("SimulatedClient:\tDisconnected: "+e.getMessage());
+        }
+    }
+
+
+    /**
+     * Blocks until a whole frame has arrived and returns its type and payload.
+     * The returned buffer is only valid until the next call. Between calls the
+     * input buffer is in read mode, holding the bytes not handled yet.
+     */
+    private ByteBuffer readFrame(ByteBuffer in) throws IOException {
+        while (in.remaining() < 2 || in.remaining() < 2 + (in.getShort(in.position()) & 0xFFFF)) {
+            in.compact();
+            int read = channel.read(in);
+            in.flip();
+            if (read < 0) throw new EOFException("Server closed the connection.");
+            bytesReceived += read;
+        }
+
+        int length = in.getShort() & 0xFFFF;
+        ByteBuffer payload = in.slice();
+        payload.limit(length);
+        in.position(in.position() + length);
+        return payload;
+    }
+
+
+    /*
+        The methods below are used to collect statistics.
+    */
+    public int getPlayer() {
+        return player;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public long getSnapshots() {
+        return snapshots;
+    }
+
+    public long getFullSnapshots() {
+        return fullSnapshots;
+    }
+
+    public long getDesyncs() {
+        return desyncs;
+    }
+
+    public int getMaxEntities() {
+        return maxEntities;
+    }
+}
@@ -0,0 +1,118 @@
+package server;
+
+import java.util.Arrays;
+
+/**
+ * What one client could see during one tick: the players, enemies and bullets
+ * that were sent to it, in fixed point. The server keeps the last few frames it
+ * sent to each client so that the next snapshot can be encoded as the
+ * difference from a frame the client is known to have. Clients keep the same
+ * frames to rebuild the snapshots.
+ *
+ * Frames are reused from tick to tick, so their arrays only grow.
+ *
+ * @see server.SnapshotCodec
+ *
+ * @author Jackie Chan
+ * Oct 19, 2026
+ */
+public final class ViewFrame {
+
+
+    /** The tick this frame was taken at; -1 if the frame holds nothing. */
+    public int tick = -1;
+
+
+    /** The players, enemies and bullets in this frame. */
+    public final Section players = new Section();
+    public final Section enemies = new Section();
+    public final Section bullets = new Section();
+
+
+    /**
+     * Empties this frame.
+     */
+    public void clear() {
+        tick = -1;
+        players.clear();
+        enemies.clear();
+        bullets.clear();
+    }
+
+
+    /**
+     * Returns a hash of the contents of this frame. The server sends this with
+     * every snapshot so a client can tell if it rebuilt the snapshot wrong.
+     *
+     * @return  A hash of the contents of this frame.
+     */
+    public int checksum() {
+        return (players.checksum() * 31 + enemies.checksum()) * 31 + bullets.checksum();
+    }
+
+
+    /**
+     * A list of entities sorted by id. Each entity has an id, a position and an
+     * extra int whose meaning depends on the kind of entity.
+     */
+    public static final class Section {
+
+
+        /** The amount of entities in this section. */
+        public int count;
+
+
+        /** The columns. ids is kept in ascending order. */
+        public int[] ids = new int[16], xs = new int[16], ys = new int[16], aux = new int[16];
+
+
+        /**
+         * Empties this section.
+         */
+        public void clear() {
+            count = 0;
+        }
+
+
+        /**
+         * Adds an entity. Entities must be added in ascending order of id.
+         *
+         * @param id    The entity's id.
+         * @param x     The entity's x-coordinate in fixed point.
+         * @param y     The entity's y-coordinate in fixed point.
+         * @param extra The entity's extra value.
+         */
+        public void add(int id, int x, int y, int extra) {
+            if (count == ids.length) {
+                int size = count * 2;
+                ids = Arrays.copyOf(ids, size);
+                xs  = Arrays.copyOf(xs, size);
+                ys  = Arrays.copyOf(ys, size);
+                aux = Arrays.copyOf(aux, size);
+            }
+
+            ids[count] = id;
+            xs[count]  = x;
+            ys[count]  = y;
+            aux[count] = extra;
+            count++;
+        }
+
+
+        /**
+         * Returns a hash of the contents of this section.
+         *
+         * @return  A hash of the contents of this section.
+         */
+        public int checksum() {
+            int hash = count;
+            for (int i = 0; i < count; i++) {
+                hash = hash * 31 + ids[i];
+                hash = hash * 31 + xs[i];
+                hash = hash * 31 + ys[i];
+                hash = hash * 31 + aux[i];
+            }
+            return hash;
+        }
+    }
+}
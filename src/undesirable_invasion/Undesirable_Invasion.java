@@ -5,10 +5,16 @@
  */
 package undesirable_invasion;
 
+import gamemanager.AssetLoader;
+import gamemanager.Assets;
+import gamemanager.AudioBackend;
 import gamemanager.GameManager;
 import gamemanager.SceneCreator;
+import gamemanager.Settings;
 import gamemanager.SoundManager;
+import java.lang.management.ManagementFactory;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 
 /**
@@ -17,18 +23,43 @@ import javafx.stage.Stage;
  */
 public class Undesirable_Invasion extends Application {
     
+    /**
+     * When this system property is true, the game exits as soon as it is 
+     * interactive. Used for a training run that records an AppCDS archive; see
+     * the README.
+     */
+    public static final String EXIT_PROPERTY = "undesirable_invasion.exitWhenInteractive";
+    
     @Override
     public void start(Stage primaryStage) { 
-        if(System.getProperty("os.name").toLowerCase().contains("window")) {
-            new SoundManager().playSound();    
-            System.out.println("Started sound.");
-        } else {
-            System.out.println("Cannot play sound on "+System.getProperty("os.name"));
-        }
         GameManager.setPrimaryStage(primaryStage);
         primaryStage.setTitle("Undesirable Invasion");        
-        primaryStage.setScene(SceneCreator.createStartScene());
+        primaryStage.setScene(SceneCreator.getStartScene());
+        
+        // The world is scaled to fit, so the window can be any size.
+        primaryStage.setResizable(true);
+        primaryStage.setMinWidth(Settings.WORLD_WIDTH / 2);
+        primaryStage.setMinHeight(Settings.WORLD_HEIGHT / 2);
+        
+        // Decode the images and sounds in the background while the start 
+        // scene shows how far along they are.
+        AssetLoader loader = new AssetLoader();
+        Assets.addTo(loader);
+        final AudioBackend audio = SoundManager.createDefaultBackend();
+        loader.add(() -> SoundManager.init(audio));
+        
+        SceneCreator.showLoading(loader);
         primaryStage.show();
+        
+        loader.start(() -> {
+            GameManager.prewarm();
+            SceneCreator.finishLoading();
+            SoundManager.playMusic(SoundManager.THEME);
+            
+            System.out.println("Undesirable_Invasion:\tInteractive after "
+                                + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+            if (Boolean.getBoolean(EXIT_PROPERTY)) Platform.exit();
+        });
     }
 
     /**